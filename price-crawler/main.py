@@ -76,14 +76,45 @@ def get_soup(url):
         print(f"Connection error: {e}")
     return None
 
+MAX_BULK_URLS = 50
+
+
 @app.route('/scrape_direct_url', methods=['POST'])
 def scrape_direct_url_endpoint():
     data = request.get_json()
 
     if not data or 'url' not in data:
         return make_error_response(ScraperErrorCode.MISSING_PARAM, "Missing parameter 'url'", 400)
-    url = data['url']
 
+    payload, status_code = scrape_url(data['url'])
+
+    result = jsonify(payload), status_code
+
+    print(result)
+    return result
+
+
+@app.route('/scrape_direct_urls', methods=['POST'])
+def scrape_direct_urls_endpoint():
+    data = request.get_json()
+
+    if not data or not isinstance(data.get('urls'), list):
+        return make_error_response(ScraperErrorCode.MISSING_PARAM, "Missing parameter 'urls'", 400)
+
+    urls = data['urls']
+    if len(urls) > MAX_BULK_URLS:
+        return make_error_response(ScraperErrorCode.TOO_MANY_URLS, f"At most {MAX_BULK_URLS} urls per request", 413)
+
+    results = []
+    for url in urls:
+        payload, _ = scrape_url(url)
+        results.append({"url": url, **payload})
+
+    return jsonify({"results": results}), 200
+
+
+def scrape_url(url):
+    """Scrapes one product page; returns the response payload and the HTTP status it maps to."""
     parsed_url = urllib.parse.urlparse(url)
     domain = parsed_url.hostname
 
@@ -96,22 +127,19 @@ def scrape_direct_url_endpoint():
     is_valid_domain = domain and (domain == "ceneo.pl" or domain.endswith(".ceneo.pl"))
 
     if not is_valid_domain:
-        return make_error_response(ScraperErrorCode.INVALID_DOMAIN, "Invalid link not from ceneo", 400)
+        return error_payload(ScraperErrorCode.INVALID_DOMAIN, "Invalid link not from ceneo"), 400
 
     title, price = extract_cheapest_offer(url)
 
     if price == 0.0:
-        return make_error_response(ScraperErrorCode.PRICE_PARSING_ERROR, "Invalid price", 422)
+        return error_payload(ScraperErrorCode.PRICE_PARSING_ERROR, "Invalid price"), 422
 
-    result =  jsonify({
+    return {
         "found_product_name": title,
         "price": price,
         "currency": "PLN",
         "ceneo_url": url
-    }), 200
-
-    print(result)
-    return result
+    }, 200
 
 def extract_cheapest_offer(product_url):
     print(f"Scraping product page: {product_url}")
@@ -156,10 +184,14 @@ def extract_cheapest_offer(product_url):
     return product_title, 0.0
 
 def make_error_response(error_enum: ScraperErrorCode, message: str, status_code: int):
-    return jsonify({
+    return jsonify(error_payload(error_enum, message)), status_code
+
+
+def error_payload(error_enum: ScraperErrorCode, message: str):
+    return {
         "errorCode": error_enum.value,
         "message": message
-    }), status_code
+    }
 
 
 
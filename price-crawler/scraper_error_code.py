@@ -3,6 +3,7 @@ from enum import Enum
 
 class ScraperErrorCode(Enum):
     MISSING_PARAM = "MISSING_PARAM"
+    TOO_MANY_URLS = "TOO_MANY_URLS"
     PRODUCT_NOT_FOUND = "PRODUCT_NOT_FOUND"
     INVALID_DOMAIN = "INVALID_DOMAIN"
     CONNECTION_ERROR = "CONNECTION_ERROR"
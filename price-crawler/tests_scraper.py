@@ -209,6 +209,37 @@ class TestFlaskEndpoints(unittest.TestCase):
         self.assertEqual(response.status_code, 400)
         self.assertEqual(data['errorCode'], ScraperErrorCode.MISSING_PARAM.value)
 
+    @patch('main.extract_cheapest_offer')
+    def test_scrape_direct_urls_returns_result_per_url(self, mock_extract):
+        mock_extract.side_effect = [("First", 10.0), ("Second", 0.0)]
+        payload = {"urls": ["https://www.ceneo.pl/1", "https://www.ceneo.pl/2", "https://www.google.com"]}
+
+        response = self.app.post('/scrape_direct_urls', json=payload)
+        results = response.get_json()['results']
+
+        self.assertEqual(response.status_code, 200)
+        self.assertEqual(len(results), 3)
+        self.assertEqual(results[0]['url'], "https://www.ceneo.pl/1")
+        self.assertEqual(results[0]['price'], 10.0)
+        self.assertEqual(results[1]['errorCode'], ScraperErrorCode.PRICE_PARSING_ERROR.value)
+        self.assertEqual(results[2]['errorCode'], ScraperErrorCode.INVALID_DOMAIN.value)
+
+    def test_scrape_direct_urls_missing_param(self):
+        response = self.app.post('/scrape_direct_urls', json={"urls": "https://www.ceneo.pl/1"})
+        data = response.get_json()
+
+        self.assertEqual(response.status_code, 400)
+        self.assertEqual(data['errorCode'], ScraperErrorCode.MISSING_PARAM.value)
+
+    def test_scrape_direct_urls_rejects_too_many_urls(self):
+        payload = {"urls": ["https://www.ceneo.pl/%d" % i for i in range(51)]}
+
+        response = self.app.post('/scrape_direct_urls', json=payload)
+        data = response.get_json()
+
+        self.assertEqual(response.status_code, 413)
+        self.assertEqual(data['errorCode'], ScraperErrorCode.TOO_MANY_URLS.value)
+
 
 if __name__ == '__main__':
     unittest.main()
\ No newline at end of file
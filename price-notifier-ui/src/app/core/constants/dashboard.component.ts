@@ -17,13 +17,19 @@ export const DASHBOARD_CONSTANTS = {
     status: {
       loading: '🔄 Pobieranie aktualnych cen...',
       empty: 'Brak produktów. Dodaj coś powyżej!',
-      lastChecked: 'Ost. sprawdzenie:'
+      lastChecked: 'Ost. sprawdzenie:',
+      loadMore: 'Pokaż więcej'
     },
     product: {
       deleteTitle: 'Usuń produkt',
-      offerLink: 'Oferta Ceneo ↗'
+      offerLink: 'Oferta Ceneo ↗',
+      range: 'Min / maks:'
     }
   },
+  SPARKLINE: {
+    width: 200,
+    height: 40
+  },
   MESSAGES: {
     CONFIRM_DELETE: 'Czy na pewno chcesz usunąć ten produkt i jego historię?',
     ADD_SUCCESS: 'Produkt został dodany pomyślnie.',
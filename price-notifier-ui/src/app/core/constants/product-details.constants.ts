@@ -10,6 +10,8 @@ export const PRODUCT_DETAILS_CONSTANTS = {
   LABELS: {
     CURRENT_PRICE: 'Aktualna Cena',
     LOWEST_PRICE: 'Najniższa (Hist.)',
+    WINDOW_LOWEST_PRICE: (days: number) => `Najniższa (${days} dni)`,
+    AVERAGE_PRICE: 'Średnia (30 dni)',
     LAST_CHECK: 'Ostatni pomiar'
   },
   ERRORS: {
@@ -1,4 +1,6 @@
 export interface PriceHistory {
   price: number;
   checkedAt: string;
+  low?: number | null;
+  high?: number | null;
 }
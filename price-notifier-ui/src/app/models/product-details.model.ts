@@ -6,4 +6,14 @@ export interface ProductDetails {
   productUrl: string;
   currentPrice: number;
   priceHistory: PriceHistory[];
+  stats?: PriceStats | null;
+}
+
+export interface PriceStats {
+  minPrice: number | null;
+  maxPrice: number | null;
+  windowMinPrice: number | null;
+  windowDays: number;
+  averagePrice: number | null;
+  priceCount: number;
 }
@@ -1,3 +1,5 @@
+import { PriceHistory } from './price-history.model';
+
 export interface ProductObservation {
   id?: number;
   productName: string;
@@ -5,3 +7,20 @@ export interface ProductObservation {
   productUrl: string;
   lastChecked?: string;
 }
+
+export interface DashboardProduct extends ProductObservation {
+  minPrice: number | null;
+  maxPrice: number | null;
+  changePercent: number | null;
+  sparkline: PriceHistory[];
+}
+
+export interface DashboardPage {
+  items: DashboardProduct[];
+  nextCursor: string | null;
+}
+
+export interface ProductObservationPage {
+  items: ProductObservation[];
+  nextCursor: string | null;
+}
@@ -13,7 +13,7 @@ describe('DashboardComponent', () => {
   let fixture: ComponentFixture<DashboardComponent>;
 
   const productServiceMock = {
-    getAll: vi.fn(),
+    getDashboard: vi.fn(),
     addByName: vi.fn(),
     addByUrl: vi.fn(),
     delete: vi.fn()
@@ -29,21 +29,33 @@ describe('DashboardComponent', () => {
       productName: 'Test Product 1',
       currentPrice: 100,
       productUrl: 'http://test.pl',
-      lastChecked: new Date().toISOString()
+      lastChecked: new Date().toISOString(),
+      minPrice: 90,
+      maxPrice: 120,
+      changePercent: -16.67,
+      sparkline: [
+        { price: 120, checkedAt: '2024-05-01T10:00:00' },
+        { price: 90, checkedAt: '2024-05-03T10:00:00' },
+        { price: 100, checkedAt: '2024-05-05T10:00:00' }
+      ]
     },
     {
       id: 2,
       productName: 'Test Product 2',
       currentPrice: 200,
       productUrl: 'http://test2.pl',
-      lastChecked: new Date().toISOString()
+      lastChecked: new Date().toISOString(),
+      minPrice: null,
+      maxPrice: null,
+      changePercent: null,
+      sparkline: []
     }
   ];
 
   beforeEach(async () => {
     vi.clearAllMocks();
 
-    productServiceMock.getAll.mockReturnValue(of([]));
+    productServiceMock.getDashboard.mockReturnValue(of({ items: [], nextCursor: null }));
 
     await TestBed.configureTestingModule({
       imports: [DashboardComponent],
@@ -67,20 +79,20 @@ describe('DashboardComponent', () => {
   });
 
   it('should load products on init', () => {
-    productServiceMock.getAll.mockReturnValue(of(mockProducts));
+    productServiceMock.getDashboard.mockReturnValue(of({ items: mockProducts, nextCursor: null }));
 
     fixture.detectChanges();
 
     expect(component.loading()).toBe(false);
     expect(component.products()).toEqual(mockProducts);
-    expect(productServiceMock.getAll).toHaveBeenCalledTimes(1);
+    expect(productServiceMock.getDashboard).toHaveBeenCalledTimes(1);
   });
 
   it('should handle error when loading products fails', () => {
     const alertSpy = vi.spyOn(window, 'alert').mockImplementation(() => {});
     vi.spyOn(console, 'error').mockImplementation(() => {});
 
-    productServiceMock.getAll.mockReturnValue(throwError(() => new Error('Network error')));
+    productServiceMock.getDashboard.mockReturnValue(throwError(() => new Error('Network error')));
 
     fixture.detectChanges();
 
@@ -88,6 +100,23 @@ describe('DashboardComponent', () => {
     expect(component.products()).toEqual([]);
   });
 
+  it('should append next page when loading more products', () => {
+    productServiceMock.getDashboard.mockReturnValueOnce(of({ items: [mockProducts[0]], nextCursor: 'next' }));
+    fixture.detectChanges();
+
+    productServiceMock.getDashboard.mockReturnValueOnce(of({ items: [mockProducts[1]], nextCursor: null }));
+    component.loadMoreProducts();
+
+    expect(productServiceMock.getDashboard).toHaveBeenLastCalledWith('next');
+    expect(component.products()).toEqual(mockProducts);
+    expect(component.nextCursor()).toBeNull();
+  });
+
+  it('should scale sparkline points to the chart box', () => {
+    expect(component.sparklinePoints(mockProducts[0])).toBe('0.0,0.0 100.0,40.0 200.0,26.7');
+    expect(component.sparklinePoints(mockProducts[1])).toBe('');
+  });
+
   it('should call authService.logout when logout is clicked', () => {
     component.logout();
     expect(authServiceMock.logout).toHaveBeenCalled();
@@ -98,13 +127,13 @@ describe('DashboardComponent', () => {
     component.newProductName.set(productName);
 
     productServiceMock.addByName.mockReturnValue(of({}));
-    productServiceMock.getAll.mockReturnValue(of([mockProducts[0]]));
+    productServiceMock.getDashboard.mockReturnValue(of({ items: [mockProducts[0]], nextCursor: null }));
 
     component.addProductByName();
 
     expect(productServiceMock.addByName).toHaveBeenCalledWith(productName);
     expect(component.newProductName()).toBe('');
-    expect(productServiceMock.getAll).toHaveBeenCalled();
+    expect(productServiceMock.getDashboard).toHaveBeenCalled();
   });
 
   it('should NOT call service if product name is empty', () => {
@@ -129,7 +158,7 @@ describe('DashboardComponent', () => {
     component.newProductUrl.set(url);
 
     productServiceMock.addByUrl.mockReturnValue(of({}));
-    productServiceMock.getAll.mockReturnValue(of([]));
+    productServiceMock.getDashboard.mockReturnValue(of({ items: [], nextCursor: null }));
 
     component.addProductByUrl();
 
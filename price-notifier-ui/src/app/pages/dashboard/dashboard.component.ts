@@ -4,7 +4,7 @@ import { FormsModule } from '@angular/forms';
 import { RouterLink } from '@angular/router';
 import { Observable } from 'rxjs';
 
-import { ProductObservation } from '../../models/product-observation.model';
+import { DashboardProduct } from '../../models/product-observation.model';
 import { ProductService } from '../../services/product/product.service';
 import { AuthService } from '../../services/auth/auth.service';
 import {DASHBOARD_CONSTANTS} from '../../core/constants/dashboard.component';
@@ -22,7 +22,8 @@ export class DashboardComponent implements OnInit {
 
   protected readonly texts = DASHBOARD_CONSTANTS;
 
-  products = signal<ProductObservation[]>([]);
+  products = signal<DashboardProduct[]>([]);
+  nextCursor = signal<string | null>(null);
   loading = signal<boolean>(false);
 
   newProductName = signal<string>('');
@@ -38,9 +39,10 @@ export class DashboardComponent implements OnInit {
 
   loadProducts() {
     this.loading.set(true);
-    this.productService.getAll().subscribe({
-      next: (data) => {
-        this.products.set(data);
+    this.productService.getDashboard().subscribe({
+      next: (page) => {
+        this.products.set(page.items);
+        this.nextCursor.set(page.nextCursor);
         this.loading.set(false);
       },
       error: () => {
@@ -49,6 +51,44 @@ export class DashboardComponent implements OnInit {
     });
   }
 
+  loadMoreProducts() {
+    const cursor = this.nextCursor();
+    if (!cursor) return;
+
+    this.loading.set(true);
+    this.productService.getDashboard(cursor).subscribe({
+      next: (page) => {
+        this.products.update(current => [...current, ...page.items]);
+        this.nextCursor.set(page.nextCursor);
+        this.loading.set(false);
+      },
+      error: () => {
+        this.loading.set(false);
+      }
+    });
+  }
+
+  sparklinePoints(product: DashboardProduct): string {
+    const points = product.sparkline;
+    if (points.length < 2) return '';
+
+    const { width, height } = this.texts.SPARKLINE;
+    const times = points.map(point => new Date(point.checkedAt).getTime());
+    const prices = points.map(point => point.price);
+    const firstTime = times[0];
+    const timeSpan = times[times.length - 1] - firstTime || 1;
+    const low = Math.min(...prices);
+    const priceSpan = Math.max(...prices) - low || 1;
+
+    return points
+      .map((point, i) => {
+        const x = ((times[i] - firstTime) / timeSpan) * width;
+        const y = height - ((point.price - low) / priceSpan) * height;
+        return `${x.toFixed(1)},${y.toFixed(1)}`;
+      })
+      .join(' ');
+  }
+
   addProductByName() {
     const name = this.newProductName();
     if (!name) return;
@@ -100,6 +100,15 @@ describe('ProductDetailsComponent', () => {
     expect(component.lowestPrice()).toBe(150);
   });
 
+  it('should prefer all-time low from stats over the loaded history', () => {
+    const stats = { minPrice: 99.5, maxPrice: 250, windowMinPrice: 150, windowDays: 90, averagePrice: 180, priceCount: 42 };
+    productServiceMock.getById.mockReturnValue(of({ ...mockProductData, stats }));
+
+    fixture.detectChanges();
+
+    expect(component.lowestPrice()).toBe(99.5);
+  });
+
   it('should use currentPrice as lowestPrice if history is empty', () => {
     const productWithoutHistory = { ...mockProductData, priceHistory: [] };
     productServiceMock.getById.mockReturnValue(of(productWithoutHistory));
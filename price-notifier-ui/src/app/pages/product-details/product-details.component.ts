@@ -28,10 +28,13 @@ export class ProductDetailsComponent implements OnInit {
 
   lowestPrice = computed(() => {
     const p = this.product();
+    if (p?.stats?.minPrice != null) {
+      return p.stats.minPrice;
+    }
     if (!p || !p.priceHistory?.length) {
       return p?.currentPrice ?? 0;
     }
-    return Math.min(...p.priceHistory.map(h => h.price));
+    return Math.min(...p.priceHistory.map(h => h.low ?? h.price));
   });
 
   public lineChartData: ChartConfiguration<'line'>['data'] = {
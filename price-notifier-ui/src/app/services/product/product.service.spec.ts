@@ -3,7 +3,7 @@ import { ProductService } from './product.service';
 import { HttpClient } from '@angular/common/http';
 import { of } from 'rxjs';
 import { vi, describe, it, expect, beforeEach, afterEach } from 'vitest';
-import { ProductObservation } from '../../models/product-observation.model';
+import { ProductObservationPage } from '../../models/product-observation.model';
 import { ProductDetails } from '../../models/product-details.model';
 import {PRODUCT_CONSTANTS} from '../../core/constants/product.constants';
 
@@ -36,15 +36,33 @@ describe('ProductService', () => {
     expect(service).toBeTruthy();
   });
 
-  it('should call getAll with correct URL', () => {
-    const mockData: ProductObservation[] = [];
+  it('should call getPage with correct URL', () => {
+    const mockData: ProductObservationPage = { items: [], nextCursor: null };
     httpClientMock.get.mockReturnValue(of(mockData));
 
-    service.getAll().subscribe(res => {
+    service.getPage().subscribe(res => {
       expect(res).toEqual(mockData);
     });
 
-    expect(httpClientMock.get).toHaveBeenCalledWith(PRODUCT_CONSTANTS.API.BASE);
+    expect(httpClientMock.get).toHaveBeenCalledWith(PRODUCT_CONSTANTS.API.BASE, { params: undefined });
+  });
+
+  it('should pass cursor when getting next page', () => {
+    httpClientMock.get.mockReturnValue(of({ items: [], nextCursor: null }));
+
+    service.getPage('abc').subscribe();
+
+    const options = httpClientMock.get.mock.calls[0][1];
+    expect(options.params.get('cursor')).toBe('abc');
+  });
+
+  it('should call getDashboard with correct URL and cursor', () => {
+    httpClientMock.get.mockReturnValue(of({ items: [], nextCursor: null }));
+
+    service.getDashboard('abc').subscribe();
+
+    expect(httpClientMock.get.mock.calls[0][0]).toBe(PRODUCT_CONSTANTS.API.DASHBOARD);
+    expect(httpClientMock.get.mock.calls[0][1].params.get('cursor')).toBe('abc');
   });
 
   it('should call getById with correct URL', () => {
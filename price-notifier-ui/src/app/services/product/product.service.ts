@@ -1,7 +1,7 @@
 import { inject, Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
-import { ProductObservation } from '../../models/product-observation.model';
+import { DashboardPage, ProductObservationPage } from '../../models/product-observation.model';
 import { ProductDetails } from '../../models/product-details.model';
 import {PRODUCT_CONSTANTS} from '../../core/constants/product.constants';
 
@@ -11,8 +11,14 @@ import {PRODUCT_CONSTANTS} from '../../core/constants/product.constants';
 export class ProductService {
   private readonly http = inject(HttpClient);
 
-  getAll(): Observable<ProductObservation[]> {
-    return this.http.get<ProductObservation[]>(PRODUCT_CONSTANTS.API.BASE);
+  getPage(cursor?: string): Observable<ProductObservationPage> {
+    const params = cursor ? new HttpParams().set('cursor', cursor) : undefined;
+    return this.http.get<ProductObservationPage>(PRODUCT_CONSTANTS.API.BASE, { params });
+  }
+
+  getDashboard(cursor?: string): Observable<DashboardPage> {
+    const params = cursor ? new HttpParams().set('cursor', cursor) : undefined;
+    return this.http.get<DashboardPage>(PRODUCT_CONSTANTS.API.DASHBOARD, { params });
   }
 
   getById(id: string | number): Observable<ProductDetails> {
@@ -0,0 +1,125 @@
+package com.priceprocessor.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * A named lock shared by every replica through the database. On MySQL it is a {@code GET_LOCK}
+ * user lock; elsewhere a row of {@code database_locks} selected {@code FOR UPDATE}. Either way it
+ * is held by a connection of its own, so work that commits implicitly, like DDL, keeps it, and it
+ * is released when the work ends or when the holder's connection dies.
+ */
+@Component
+@RequiredArgsConstructor
+public class DatabaseLock {
+
+    static final String LOCK_TABLE = "database_locks";
+
+    private final DataSource dataSource;
+
+    @FunctionalInterface
+    public interface LockedWork {
+        void run() throws SQLException;
+    }
+
+    /**
+     * Runs {@code work} while holding the lock {@code name}, waiting at most {@code wait} for it.
+     * Returns false, without running the work, when another holder kept the lock for longer.
+     */
+    public boolean runLocked(String name, Duration wait, LockedWork work) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if ("mysql".equals(SchemaMigrator.vendor(connection))) {
+                return runWithUserLock(connection, name, wait, work);
+            }
+            return runWithRowLock(connection, name, wait, work);
+        }
+    }
+
+    private static boolean runWithUserLock(Connection connection, String name, Duration wait, LockedWork work) throws SQLException {
+        try (PreparedStatement lock = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            lock.setString(1, name);
+            lock.setLong(2, wait.toSeconds());
+            try (ResultSet acquired = lock.executeQuery()) {
+                if (!acquired.next() || acquired.getInt(1) != 1) {
+                    return false;
+                }
+            }
+        }
+        try {
+            work.run();
+            return true;
+        } finally {
+            try (PreparedStatement release = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                release.setString(1, name);
+                release.execute();
+            }
+        }
+    }
+
+    private static boolean runWithRowLock(Connection connection, String name, Duration wait, LockedWork work) throws SQLException {
+        createLockRow(connection, name);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            if ("h2".equals(SchemaMigrator.vendor(connection))) {
+                try (Statement timeout = connection.createStatement()) {
+                    timeout.execute("SET LOCK_TIMEOUT " + wait.toMillis());
+                }
+            }
+            try (PreparedStatement lock = connection.prepareStatement("SELECT name FROM " + LOCK_TABLE + " WHERE name = ? FOR UPDATE")) {
+                lock.setString(1, name);
+                lock.executeQuery().close();
+            } catch (SQLException e) {
+                if (isLockTimeout(e)) {
+                    return false;
+                }
+                throw e;
+            }
+            work.run();
+            return true;
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void createLockRow(Connection connection, String name) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + LOCK_TABLE + " (name VARCHAR(64) PRIMARY KEY)");
+        }
+        try (PreparedStatement exists = connection.prepareStatement("SELECT name FROM " + LOCK_TABLE + " WHERE name = ?")) {
+            exists.setString(1, name);
+            try (ResultSet row = exists.executeQuery()) {
+                if (row.next()) {
+                    return;
+                }
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + LOCK_TABLE + " (name) VALUES (?)")) {
+            insert.setString(1, name);
+            insert.executeUpdate();
+        } catch (SQLException e) {
+            // Another replica inserted the row first
+            if (!isUniqueViolation(e)) {
+                throw e;
+            }
+        }
+    }
+
+    private static boolean isUniqueViolation(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith("23");
+    }
+
+    private static boolean isLockTimeout(SQLException e) {
+        // H2 reports HYT00, PostgreSQL 55P03
+        return "HYT00".equals(e.getSQLState()) || "55P03".equals(e.getSQLState());
+    }
+}
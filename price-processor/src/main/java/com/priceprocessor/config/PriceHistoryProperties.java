@@ -0,0 +1,62 @@
+package com.priceprocessor.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Configuration
+@ConfigurationProperties(prefix = "price-history")
+@Getter
+@Setter
+public class PriceHistoryProperties {
+
+    /**
+     * How long history segments are kept as they were recorded. Older ones are rolled up into
+     * daily open/high/low/close records by the compaction job, counted in whole days.
+     */
+    private Duration rawRetention = Duration.ofDays(30);
+
+    /**
+     * Segments rolled up and deleted in one compaction transaction.
+     */
+    private int compactionBatchSize = 500;
+
+    /**
+     * How long price history is kept at all, raw or rolled up. Whole months are expired: on
+     * MySQL by dropping their partition of {@code price_history}.
+     */
+    private Duration retention = Duration.ofDays(730);
+
+    /**
+     * Monthly partitions of {@code price_history} created ahead of the current month (MySQL).
+     */
+    private int partitionsAhead = 3;
+
+    /**
+     * Most recent history records (segments, then rolled-up days) returned with product details;
+     * older history is read page by page from {@code GET /api/products/{id}/history}.
+     */
+    private int detailsLimit = 100;
+
+    /**
+     * Records per history page when the request names no {@code limit}.
+     */
+    private int pageSize = 100;
+
+    /**
+     * Upper bound for the {@code limit} of a history page.
+     */
+    private int maxPageSize = 1000;
+
+    /**
+     * Start of the oldest month still within {@link #retention} on {@code today}.
+     */
+    public LocalDateTime retentionHorizon(LocalDate today) {
+        return today.minusDays(retention.toDays()).withDayOfMonth(1).atStartOfDay();
+    }
+}
@@ -0,0 +1,58 @@
+package com.priceprocessor.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "price-update")
+@Getter
+@Setter
+public class PriceUpdateProperties {
+
+    /**
+     * Number of products claimed per page.
+     */
+    private int pageSize = 5;
+
+    /**
+     * Number of product URLs sent to the scraper in one bulk request.
+     */
+    private int bulkSize = 10;
+
+    /**
+     * Check interval given to a newly added product, before its price has been seen to change.
+     */
+    private Duration checkInterval = Duration.ofHours(1);
+
+    /**
+     * Shortest check interval; products whose price keeps changing converge to it.
+     */
+    private Duration minCheckInterval = Duration.ofMinutes(15);
+
+    /**
+     * Longest check interval; products whose price never changes back off to it.
+     */
+    private Duration maxCheckInterval = Duration.ofHours(24);
+
+    /**
+     * Wall-clock budget of one drain run; no new page is claimed once it is used up.
+     */
+    private Duration drainBudget = Duration.ofMinutes(5);
+
+    /**
+     * How long a claimed product stays reserved for the replica that claimed it. Must be longer
+     * than scraping one page; an expired lease is claimed again by any replica.
+     */
+    private Duration leaseDuration = Duration.ofMinutes(10);
+
+    /**
+     * Pages claimed but not yet written back during a drain. Once this many are waiting, no new
+     * page is claimed until the oldest one has been saved. A drain lowers it to the pages the
+     * batch rate limit can serve within {@code scraper.api.rate-limit.max-wait}.
+     */
+    private int maxInFlightPages = 4;
+}
@@ -0,0 +1,37 @@
+package com.priceprocessor.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "product-list")
+@Getter
+@Setter
+public class ProductListProperties {
+
+    /**
+     * Observed products per page of {@code GET /api/products} when the request names no {@code limit}.
+     */
+    private int pageSize = 50;
+
+    /**
+     * Upper bound for the {@code limit} of a products page.
+     */
+    private int maxPageSize = 200;
+
+    /**
+     * Period over which {@code GET /api/products/dashboard} reports each product's lowest and
+     * highest price and its change. Read from raw segments, so keep it within
+     * {@code price-history.raw-retention}.
+     */
+    private Duration sparklineWindow = Duration.ofDays(30);
+
+    /**
+     * Most recent price points per product drawn by the dashboard sparkline.
+     */
+    private int sparklinePoints = 20;
+}
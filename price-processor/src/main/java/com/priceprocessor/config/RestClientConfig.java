@@ -1,13 +1,121 @@
 package com.priceprocessor.config;
 
+import com.priceprocessor.services.MetricsService;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * HTTP clients for the scraper: pooled, keep-alive connections with every wait bounded, so a
+ * stuck scraper request fails after the read timeout instead of holding its thread forever.
+ * The blocking client serves user requests; the non-blocking one serves batch price updates.
+ */
 @Configuration
 public class RestClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager scraperConnectionManager(ScraperProperties scraperProperties, MetricsService metricsService) {
+        ScraperProperties.Http http = scraperProperties.getHttp();
+
+        PoolingHttpClientConnectionManager connectionManager = new TimedPoolingConnectionManager(metricsService);
+        connectionManager.setMaxTotal(http.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(http.getMaxConnections());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(http.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(http.getReadTimeout()))
+                .setTimeToLive(TimeValue.of(http.getConnectionTtl()))
+                .build());
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient scraperHttpClient(PoolingHttpClientConnectionManager scraperConnectionManager, ScraperProperties scraperProperties) {
+        ScraperProperties.Http http = scraperProperties.getHttp();
+
+        return HttpClients.custom()
+                .setConnectionManager(scraperConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(http.getPoolAcquireTimeout()))
+                        .setResponseTimeout(Timeout.of(http.getReadTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(http.getIdleTimeout()))
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient scraperHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(scraperHttpClient));
+    }
+
+    /**
+     * Exports pool size, leased, available and pending connections as httpcomponents.httpclient.pool.*.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public PoolingHttpClientConnectionManagerMetricsBinder scraperConnectionPoolMetrics(PoolingHttpClientConnectionManager scraperConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(scraperConnectionManager, "scraper");
+    }
+
+    /**
+     * Same gauges for the non-blocking client's pool, tagged {@code httpclient=scraper-async}.
+     */
+    @Bean
+    public PoolingHttpClientConnectionManagerMetricsBinder scraperAsyncConnectionPoolMetrics(PoolingAsyncClientConnectionManager scraperAsyncConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(scraperAsyncConnectionManager, "scraper-async");
+    }
+
+    @Bean(destroyMethod = "close")
+    public PoolingAsyncClientConnectionManager scraperAsyncConnectionManager(ScraperProperties scraperProperties, MetricsService metricsService) {
+        ScraperProperties.Http http = scraperProperties.getHttp();
+
+        PoolingAsyncClientConnectionManager connectionManager = new TimedPoolingAsyncConnectionManager(metricsService);
+        connectionManager.setMaxTotal(http.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(http.getMaxConnections());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(http.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(http.getReadTimeout()))
+                .setTimeToLive(TimeValue.of(http.getConnectionTtl()))
+                .build());
+        return connectionManager;
+    }
+
+    /**
+     * Non-blocking client: all in-flight requests share {@code scraper.api.http.io-threads}
+     * event loop threads, whatever their number.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient scraperAsyncHttpClient(PoolingAsyncClientConnectionManager scraperAsyncConnectionManager,
+                                                           ScraperProperties scraperProperties) {
+        ScraperProperties.Http http = scraperProperties.getHttp();
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(scraperAsyncConnectionManager)
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(http.getIoThreads())
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(http.getPoolAcquireTimeout()))
+                        .setResponseTimeout(Timeout.of(http.getReadTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(http.getIdleTimeout()))
+                .disableAutomaticRetries()
+                .build();
+        client.start();
+        return client;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package com.priceprocessor.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Applies the versioned schema migrations before JPA starts, so Hibernate only validates a
+ * schema that the migrations own.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "schema-migration", name = "enabled", matchIfMissing = true)
+public class SchemaMigrationConfig {
+
+    @Bean(initMethod = "migrate")
+    public SchemaMigrator schemaMigrator(DataSource dataSource, SchemaMigrationProperties schemaMigrationProperties) {
+        return new SchemaMigrator(dataSource, schemaMigrationProperties);
+    }
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnSchemaMigrator() {
+        return new EntityManagerFactoryDependsOnPostProcessor("schemaMigrator");
+    }
+}
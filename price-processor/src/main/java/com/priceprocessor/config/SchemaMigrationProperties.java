@@ -0,0 +1,36 @@
+package com.priceprocessor.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "schema-migration")
+@Getter
+@Setter
+public class SchemaMigrationProperties {
+
+    /**
+     * Whether pending migrations from {@code db/migration} are applied on startup.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Records {@link #baselineVersion} as applied, without running it, when the history table is
+     * missing but the schema already has tables, e.g. one created earlier by Hibernate.
+     */
+    private boolean baselineOnMigrate = false;
+
+    /**
+     * Last migration that a pre-existing schema is assumed to contain.
+     */
+    private int baselineVersion = 1;
+
+    /**
+     * How long a starting instance waits for another one to finish migrating before it fails.
+     */
+    private Duration lockTimeout = Duration.ofMinutes(10);
+}
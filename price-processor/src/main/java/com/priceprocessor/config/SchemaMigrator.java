@@ -0,0 +1,203 @@
+package com.priceprocessor.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the scripts in {@code classpath:db/migration} named {@code V<version>__<description>.sql}
+ * in version order, each exactly once, and records them in {@code schema_history}. A script that
+ * was changed after it had been applied fails startup instead of silently diverging the schema.
+ * Scripts are written in the SQL subset shared by H2 and MySQL; the few that only make sense on
+ * one database live in a subfolder named after it ({@code db/migration/mysql}) and share the
+ * version sequence with the common ones.
+ * <p>
+ * The whole run holds the {@value #LOCK_NAME} {@link DatabaseLock}, so replicas starting together
+ * apply each script once: the first migrates while the others wait, then find nothing pending.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaMigrator {
+
+    static final String HISTORY_TABLE = "schema_history";
+    static final String LOCK_NAME = "schema_migration";
+
+    private static final String LOCATION = "classpath*:db/migration/";
+    private static final String SCRIPTS = "V*__*.sql";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private final DataSource dataSource;
+    private final SchemaMigrationProperties schemaMigrationProperties;
+
+    public void migrate() throws SQLException {
+        Duration wait = schemaMigrationProperties.getLockTimeout();
+        if (!new DatabaseLock(dataSource).runLocked(LOCK_NAME, wait, this::migrateLocked)) {
+            throw new IllegalStateException("Another instance held the schema migration lock for over " + wait);
+        }
+    }
+
+    private void migrateLocked() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            List<Migration> migrations = loadMigrations(vendor(connection));
+            boolean existingSchema = hasTables(connection);
+            createHistoryTable(connection);
+            Map<Integer, Long> applied = appliedMigrations(connection);
+
+            if (applied.isEmpty() && existingSchema && schemaMigrationProperties.isBaselineOnMigrate()) {
+                int baseline = schemaMigrationProperties.getBaselineVersion();
+                record(connection, baseline, "<< baseline >>", null);
+                applied.put(baseline, null);
+                log.info("Baselined existing schema at version {}", baseline);
+            }
+            int baseline = applied.entrySet().stream()
+                    .filter(entry -> entry.getValue() == null)
+                    .mapToInt(Map.Entry::getKey)
+                    .max()
+                    .orElse(0);
+
+            int count = 0;
+            for (Migration migration : migrations) {
+                if (applied.containsKey(migration.version())) {
+                    verifyChecksum(migration, applied.get(migration.version()));
+                } else if (migration.version() > baseline) {
+                    apply(connection, migration);
+                    count++;
+                }
+            }
+            log.info("Schema is up to date, applied {} of {} migrations", count, migrations.size());
+        }
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        log.info("Applying schema migration V{} ({})", migration.version(), migration.description());
+        ScriptUtils.executeSqlScript(connection, migration.script());
+        record(connection, migration.version(), migration.description(), migration.checksum());
+    }
+
+    private static void verifyChecksum(Migration migration, Long appliedChecksum) {
+        if (appliedChecksum != null && appliedChecksum != migration.checksum()) {
+            throw new IllegalStateException("Schema migration V" + migration.version()
+                    + " was changed after it had been applied; add a new migration instead");
+        }
+    }
+
+    private static boolean hasTables(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), "%", new String[]{"TABLE"})) {
+            while (tables.next()) {
+                String table = tables.getString("TABLE_NAME");
+                if (!HISTORY_TABLE.equalsIgnoreCase(table) && !DatabaseLock.LOCK_TABLE.equalsIgnoreCase(table)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static void createHistoryTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " ("
+                    + "version INT PRIMARY KEY, "
+                    + "description VARCHAR(200) NOT NULL, "
+                    + "checksum BIGINT, "
+                    + "installed_at TIMESTAMP NOT NULL)");
+        }
+    }
+
+    private static Map<Integer, Long> appliedMigrations(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT version, checksum FROM " + HISTORY_TABLE)) {
+            while (rows.next()) {
+                long checksum = rows.getLong("checksum");
+                applied.put(rows.getInt("version"), rows.wasNull() ? null : checksum);
+            }
+        }
+        return applied;
+    }
+
+    private static void record(Connection connection, int version, String description, Long checksum) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + HISTORY_TABLE + " (version, description, checksum, installed_at) VALUES (?, ?, ?, ?)")) {
+            statement.setInt(1, version);
+            statement.setString(2, description);
+            if (checksum == null) {
+                statement.setNull(3, Types.BIGINT);
+            } else {
+                statement.setLong(3, checksum);
+            }
+            statement.setTimestamp(4, Timestamp.from(Instant.now()));
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Lowercase database product name, e.g. {@code mysql} or {@code h2}; also the name of the
+     * folder holding migrations specific to that database.
+     */
+    public static String vendor(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Migration> loadMigrations(String vendor) {
+        try {
+            PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+            List<Resource> resources = new ArrayList<>(List.of(resolver.getResources(LOCATION + SCRIPTS)));
+            resources.addAll(List.of(resolver.getResources(LOCATION + vendor + "/" + SCRIPTS)));
+
+            List<Migration> migrations = new ArrayList<>();
+            for (Resource resource : resources) {
+                Matcher name = FILE_NAME.matcher(resource.getFilename());
+                if (!name.matches()) {
+                    throw new IllegalStateException("Unexpected schema migration file name: " + resource.getFilename());
+                }
+                migrations.add(new Migration(Integer.parseInt(name.group(1)), name.group(2).replace('_', ' '), resource, checksum(resource)));
+            }
+            migrations.sort(Comparator.comparingInt(Migration::version));
+            for (int i = 1; i < migrations.size(); i++) {
+                if (migrations.get(i).version() == migrations.get(i - 1).version()) {
+                    throw new IllegalStateException("Duplicate schema migration version V" + migrations.get(i).version());
+                }
+            }
+            return migrations;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read schema migrations", e);
+        }
+    }
+
+    private static long checksum(Resource resource) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = resource.getInputStream()) {
+            crc.update(in.readAllBytes());
+        }
+        return crc.getValue();
+    }
+
+    private record Migration(int version, String description, Resource script, long checksum) {
+    }
+}
@@ -1,24 +1,183 @@
 package com.priceprocessor.config;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
 
 @Configuration
 @ConfigurationProperties(prefix = "scraper.api")
+@Validated
 @Getter
 @Setter
 public class ScraperProperties {
 
     private String baseUrl;
     private Paths paths;
+    @Valid
+    private RateLimit rateLimit = new RateLimit();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Bulkhead bulkhead = new Bulkhead();
+    private Http http = new Http();
+    private Cache resultCache = new Cache(Duration.ofMinutes(5), 10_000);
+    private Cache negativeCache = new Cache(Duration.ofMinutes(2), 1_000);
 
     @Getter
     @Setter
     public static class Paths {
         private String search;
         private String direct;
+        private String bulk;
+    }
+
+    @Getter
+    @Setter
+    public static class RateLimit {
+        /**
+         * Budget of search-by-name calls.
+         */
+        private Bucket byName = new Bucket(1.0, 5);
+
+        /**
+         * Budget of direct URL calls.
+         */
+        private Bucket byUrl = new Bucket(2.0, 10);
+
+        /**
+         * Part of every budget that batch updates can never use, kept free for user requests.
+         * Strictly between 0 and 1, so that both user requests and batch updates get a budget.
+         */
+        @DecimalMin(value = "0.0", inclusive = false)
+        @DecimalMax(value = "1.0", inclusive = false)
+        private double interactiveShare = 0.3;
+
+        /**
+         * Longest a user request queues for a permit before it is rejected. Batch updates are
+         * never rejected; they keep only as many pages in flight as the batch share can serve
+         * within this wait.
+         */
+        private Duration maxWait = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+        /**
+         * Percentage of failed calls in the sliding window that opens the circuit.
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * Number of most recent calls the failure rate is computed over.
+         */
+        private int slidingWindowSize = 20;
+
+        /**
+         * Calls needed in the window before the failure rate is evaluated at all.
+         */
+        private int minimumCalls = 10;
+
+        /**
+         * How long an open circuit fails fast before letting trial calls through.
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        /**
+         * Trial calls allowed while half-open; all of them must succeed to close the circuit.
+         */
+        private int halfOpenCalls = 3;
+    }
+
+    @Getter
+    @Setter
+    public static class Bulkhead {
+        /**
+         * Maximum concurrent scraper calls made for user requests.
+         */
+        private int maxConcurrentInteractive = 8;
+
+        /**
+         * Maximum concurrent bulk requests of a batch update. Further requests queue without
+         * holding a thread.
+         */
+        private int maxConcurrentBatch = 4;
+
+        /**
+         * Longest a user request waits for a free slot before it is rejected.
+         */
+        private Duration maxWait = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Http {
+        /**
+         * Time allowed to open a TCP connection to the scraper.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Longest silence while waiting for a response; must cover a whole bulk request.
+         */
+        private Duration readTimeout = Duration.ofSeconds(60);
+
+        /**
+         * Longest a call waits for a free pooled connection.
+         */
+        private Duration poolAcquireTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Size of the connection pool; all connections go to the single scraper host.
+         */
+        private int maxConnections = 20;
+
+        /**
+         * Pooled connections idle for longer than this are closed.
+         */
+        private Duration idleTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Connections are not reused after this age, so DNS or container changes are picked up.
+         */
+        private Duration connectionTtl = Duration.ofMinutes(5);
+
+        /**
+         * Event loop threads of the non-blocking client used by batch updates.
+         */
+        private int ioThreads = 2;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cache {
+        /**
+         * How long an entry is served after it was written.
+         */
+        private Duration ttl;
+
+        /**
+         * Entries kept at most; the least recently read one is evicted first.
+         */
+        private int maxEntries;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private double permitsPerSecond;
+        private int burst;
     }
 
     public String getSearchUrl() {
@@ -28,4 +187,8 @@ public class ScraperProperties {
     public String getDirectUrl() {
         return baseUrl + paths.direct;
     }
+
+    public String getBulkUrl() {
+        return baseUrl + paths.bulk;
+    }
 }
\ No newline at end of file
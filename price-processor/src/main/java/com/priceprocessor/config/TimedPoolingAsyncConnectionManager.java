@@ -0,0 +1,60 @@
+package com.priceprocessor.config;
+
+import com.priceprocessor.services.MetricsService;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.nio.AsyncConnectionEndpoint;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.util.Timeout;
+
+import java.time.Duration;
+import java.util.concurrent.Future;
+
+/**
+ * Non-blocking counterpart of {@link TimedPoolingConnectionManager}: records how long every lease
+ * waited for a connection, from the lease request until the pool completes it, fails it on the
+ * acquire timeout, or it is cancelled.
+ */
+public class TimedPoolingAsyncConnectionManager extends PoolingAsyncClientConnectionManager {
+
+    private final MetricsService metricsService;
+
+    public TimedPoolingAsyncConnectionManager(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public Future<AsyncConnectionEndpoint> lease(String id, HttpRoute route, Object state, Timeout requestTimeout,
+                                                 FutureCallback<AsyncConnectionEndpoint> callback) {
+        long start = System.nanoTime();
+        return super.lease(id, route, state, requestTimeout, new FutureCallback<>() {
+            @Override
+            public void completed(AsyncConnectionEndpoint endpoint) {
+                record(true);
+                if (callback != null) {
+                    callback.completed(endpoint);
+                }
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                record(false);
+                if (callback != null) {
+                    callback.failed(ex);
+                }
+            }
+
+            @Override
+            public void cancelled() {
+                record(false);
+                if (callback != null) {
+                    callback.cancelled();
+                }
+            }
+
+            private void record(boolean acquired) {
+                metricsService.recordScraperPoolAcquire("async", Duration.ofNanos(System.nanoTime() - start), acquired);
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.priceprocessor.config;
+
+import com.priceprocessor.services.MetricsService;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.util.Timeout;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Connection pool that records how long every lease waited for a connection, including leases
+ * that timed out because the pool was exhausted.
+ */
+public class TimedPoolingConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final MetricsService metricsService;
+
+    public TimedPoolingConnectionManager(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest leaseRequest = super.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
+                long start = System.nanoTime();
+                boolean acquired = false;
+                try {
+                    ConnectionEndpoint endpoint = leaseRequest.get(timeout);
+                    acquired = true;
+                    return endpoint;
+                } finally {
+                    metricsService.recordScraperPoolAcquire("blocking", Duration.ofNanos(System.nanoTime() - start), acquired);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return leaseRequest.cancel();
+            }
+        };
+    }
+}
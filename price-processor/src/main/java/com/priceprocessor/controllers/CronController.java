@@ -1,5 +1,10 @@
 package com.priceprocessor.controllers;
 
+import com.priceprocessor.dtos.api.BatchUpdateResponse;
+import com.priceprocessor.dtos.api.HistoryCompactionResponse;
+import com.priceprocessor.dtos.api.HistoryRetentionResponse;
+import com.priceprocessor.services.PriceHistoryCompactionService;
+import com.priceprocessor.services.PriceHistoryRetentionService;
 import com.priceprocessor.services.PriceUpdateService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,11 +20,24 @@ import org.springframework.web.bind.annotation.RestController;
 public class CronController {
 
     private final PriceUpdateService priceUpdateService;
+    private final PriceHistoryCompactionService priceHistoryCompactionService;
+    private final PriceHistoryRetentionService priceHistoryRetentionService;
 
     @PostMapping("/update-prices")
-    public ResponseEntity<String> triggerBatchUpdate() {
+    public ResponseEntity<BatchUpdateResponse> triggerBatchUpdate() {
         log.info("Received cron request to update prices");
-        int updatedCount = priceUpdateService.updateOutdatedPrices();
-        return ResponseEntity.ok("Batch update finished. Processed: " + updatedCount);
+        return ResponseEntity.ok(priceUpdateService.drainOutdatedPrices());
+    }
+
+    @PostMapping("/compact-history")
+    public ResponseEntity<HistoryCompactionResponse> triggerHistoryCompaction() {
+        log.info("Received cron request to compact price history");
+        return ResponseEntity.ok(priceHistoryCompactionService.compactHistory());
+    }
+
+    @PostMapping("/expire-history")
+    public ResponseEntity<HistoryRetentionResponse> triggerHistoryRetention() {
+        log.info("Received cron request to expire price history");
+        return ResponseEntity.ok(priceHistoryRetentionService.expireHistory());
     }
 }
\ No newline at end of file
@@ -3,10 +3,12 @@ package com.priceprocessor.controllers;
 import com.priceprocessor.dtos.api.*;
 import com.priceprocessor.services.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/products")
@@ -17,8 +19,21 @@ public class ProductController {
     private final ProductService productService;
 
     @GetMapping
-    public ResponseEntity<List<ProductObservationResponse>> getProducts() {
-        return ResponseEntity.ok(productService.getAllObservedProducts());
+    public ResponseEntity<ProductObservationPageResponse> getProducts(
+            @RequestParam(defaultValue = "ADDED") ProductSort sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.getObservedProducts(sort, direction, cursor, limit));
+    }
+
+    @GetMapping("/dashboard")
+    public ResponseEntity<ProductDashboardResponse> getDashboard(
+            @RequestParam(defaultValue = "ADDED") ProductSort sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.getDashboard(sort, direction, cursor, limit));
     }
 
     @PostMapping("/search")
@@ -38,6 +53,16 @@ public class ProductController {
         return ResponseEntity.ok(productService.getProductDetails(id));
     }
 
+    @GetMapping("/{id}/history")
+    public ResponseEntity<PriceHistoryPageResponse> getPriceHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.getPriceHistory(id, from, to, cursor, limit));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         productService.deleteObservedProduct(id);
@@ -0,0 +1,9 @@
+package com.priceprocessor.dtos.api;
+
+public record BatchUpdateResponse(
+        int processed,
+        long remaining,
+        int pages,
+        long elapsedMillis,
+        boolean budgetExhausted
+) {}
@@ -0,0 +1,7 @@
+package com.priceprocessor.dtos.api;
+
+public record HistoryCompactionResponse(
+        int compactedSegments,
+        int batches,
+        long elapsedMillis
+) {}
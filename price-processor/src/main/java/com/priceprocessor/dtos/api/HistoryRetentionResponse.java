@@ -0,0 +1,12 @@
+package com.priceprocessor.dtos.api;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record HistoryRetentionResponse(
+        LocalDateTime horizon,
+        int clippedSegments,
+        List<String> createdPartitions,
+        List<String> droppedPartitions,
+        boolean skipped
+) {}
@@ -0,0 +1,24 @@
+package com.priceprocessor.dtos.api;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record PriceHistoryPageResponse(
+        List<PriceHistoryEntryDto> entries,
+        String nextCursor
+) {
+    /**
+     * One stored history record, oldest first. A raw segment is a price first seen at
+     * {@code checkedAt} and confirmed by checks until {@code lastConfirmedAt}. A compacted day
+     * spans its first to last check, with its closing price and its {@code low}/{@code high}
+     * range; both are null for raw segments.
+     */
+    public record PriceHistoryEntryDto(
+            BigDecimal price,
+            LocalDateTime checkedAt,
+            LocalDateTime lastConfirmedAt,
+            BigDecimal low,
+            BigDecimal high
+    ) {}
+}
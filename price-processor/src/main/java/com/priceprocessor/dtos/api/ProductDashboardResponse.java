@@ -0,0 +1,27 @@
+package com.priceprocessor.dtos.api;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ProductDashboardResponse(
+        List<DashboardProductDto> items,
+        String nextCursor
+) {
+    /**
+     * An observed product with what its dashboard card draws: the latest price points, oldest
+     * first, and the lowest price, highest price and change in percent over the sparkline
+     * window. The statistics are null when no price was recorded in the window.
+     */
+    public record DashboardProductDto(
+            Long id,
+            String productName,
+            BigDecimal currentPrice,
+            String productUrl,
+            LocalDateTime lastChecked,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            BigDecimal changePercent,
+            List<ProductDetailsResponse.PriceHistoryDto> sparkline
+    ) {}
+}
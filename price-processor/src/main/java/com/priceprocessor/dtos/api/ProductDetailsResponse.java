@@ -1,6 +1,9 @@
 package com.priceprocessor.dtos.api;
 
+import com.priceprocessor.models.PriceStats;
+
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -10,7 +13,35 @@ public record ProductDetailsResponse(
         String productUrl,
         BigDecimal currentPrice,
         String userEmail,
-        List<PriceHistoryDto> priceHistory
+        List<PriceHistoryDto> priceHistory,
+        PriceStatsDto stats
 ) {
-    public record PriceHistoryDto(BigDecimal price, LocalDateTime checkedAt) {}
+    /**
+     * One point of the price timeline. Points older than the raw retention stand for a whole
+     * day: {@code price} is its closing price and {@code low}/{@code high} its range; both are
+     * null for points that are single checks.
+     */
+    public record PriceHistoryDto(BigDecimal price, LocalDateTime checkedAt, BigDecimal low, BigDecimal high) {
+        public PriceHistoryDto(BigDecimal price, LocalDateTime checkedAt) {
+            this(price, checkedAt, null, null);
+        }
+    }
+
+    /**
+     * Running statistics of the price as of the last check: all-time low and high, the low of the
+     * last {@code windowDays} days, the moving average and the number of checks that found a price.
+     */
+    public record PriceStatsDto(BigDecimal minPrice, BigDecimal maxPrice, BigDecimal windowMinPrice, long windowDays,
+                                BigDecimal averagePrice, long priceCount) {
+        public static PriceStatsDto mapToDto(PriceStats stats) {
+            return new PriceStatsDto(
+                    stats.getMinPrice(),
+                    stats.getMaxPrice(),
+                    stats.getWindowMinPrice(),
+                    PriceStats.LOW_WINDOW.toDays(),
+                    stats.getAveragePrice() == null ? null : stats.getAveragePrice().setScale(2, RoundingMode.HALF_UP),
+                    stats.getPriceCount()
+            );
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.priceprocessor.dtos.api;
+
+import java.util.List;
+
+public record ProductObservationPageResponse(
+        List<ProductObservationResponse> items,
+        String nextCursor
+) {}
@@ -1,9 +1,11 @@
 package com.priceprocessor.dtos.api;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.priceprocessor.models.CatalogProduct;
 import com.priceprocessor.models.ProductObservation;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 public record ProductObservationResponse(
         Long id,
@@ -18,18 +20,20 @@ public record ProductObservationResponse(
         String productUrl,
 
         @JsonProperty("lastChecked")
-        String lastChecked
+        LocalDateTime lastChecked
 ) {
     public ProductObservationResponse(Long id, String productName, BigDecimal currentPrice, String productUrl) {
         this(id, productName, currentPrice, productUrl, null);
     }
 
     public static ProductObservationResponse mapToDto(ProductObservation entity) {
+        CatalogProduct catalogProduct = entity.getCatalogProduct();
         return new ProductObservationResponse(
                 entity.getId(),
-                entity.getProductName(),
-                entity.getCurrentPrice(),
-                entity.getProductUrl()
+                catalogProduct.getProductName(),
+                catalogProduct.getCurrentPrice(),
+                catalogProduct.getCanonicalUrl(),
+                catalogProduct.getLastCheckedAt()
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.priceprocessor.dtos.api;
+
+/**
+ * Orders of the observed products list. Products with the same sort value keep the order in
+ * which they were added.
+ */
+public enum ProductSort {
+    ADDED,
+    NAME,
+    PRICE
+}
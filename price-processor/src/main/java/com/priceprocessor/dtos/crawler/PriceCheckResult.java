@@ -0,0 +1,21 @@
+package com.priceprocessor.dtos.crawler;
+
+import java.util.Optional;
+
+public record PriceCheckResult(
+        String productUrl,
+        Optional<PriceResponse> response,
+        Exception error
+) {
+    public static PriceCheckResult success(String productUrl, Optional<PriceResponse> response) {
+        return new PriceCheckResult(productUrl, response, null);
+    }
+
+    public static PriceCheckResult failure(String productUrl, Exception error) {
+        return new PriceCheckResult(productUrl, Optional.empty(), error);
+    }
+
+    public boolean isFailure() {
+        return error != null;
+    }
+}
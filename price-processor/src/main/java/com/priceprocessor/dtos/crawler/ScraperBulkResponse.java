@@ -0,0 +1,39 @@
+package com.priceprocessor.dtos.crawler;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.priceprocessor.dtos.errors.ScraperErrorCode;
+import com.priceprocessor.dtos.errors.ScraperErrorResponse;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record ScraperBulkResponse(List<Item> results) {
+
+    /**
+     * Outcome for one requested URL: either the price fields or an error code, as the
+     * single-URL endpoint would have answered.
+     */
+    public record Item(
+            String url,
+            @JsonProperty("found_product_name")
+            String foundProductName,
+            BigDecimal price,
+            String currency,
+            @JsonProperty("ceneo_url")
+            String ceneoUrl,
+            ScraperErrorCode errorCode,
+            String message
+    ) {
+        public boolean isError() {
+            return errorCode != null;
+        }
+
+        public PriceResponse toPriceResponse() {
+            return new PriceResponse(foundProductName, price, currency, ceneoUrl);
+        }
+
+        public ScraperErrorResponse toErrorResponse() {
+            return new ScraperErrorResponse(errorCode, message);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.priceprocessor.dtos.errors;
 
 public enum ScraperErrorCode {
     MISSING_PARAM,
+    TOO_MANY_URLS,
     PRODUCT_NOT_FOUND,
     INVALID_DOMAIN,
     CONNECTION_ERROR,
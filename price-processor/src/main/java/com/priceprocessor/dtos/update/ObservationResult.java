@@ -0,0 +1,11 @@
+package com.priceprocessor.dtos.update;
+
+import com.priceprocessor.models.ProductObservation;
+
+import java.util.List;
+
+public record ObservationResult(
+        ProductObservation observation,
+        List<PriceDrop> priceDrops
+) {
+}
@@ -0,0 +1,4 @@
+package com.priceprocessor.dtos.update;
+
+public record PriceCheckTask(Long catalogProductId, String productUrl) {
+}
@@ -0,0 +1,11 @@
+package com.priceprocessor.dtos.update;
+
+import java.math.BigDecimal;
+
+public record PriceDrop(
+        String userEmail,
+        String productName,
+        BigDecimal oldPrice,
+        BigDecimal newPrice
+) {
+}
@@ -0,0 +1,9 @@
+package com.priceprocessor.exceptions.crawler;
+
+/**
+ * The call was turned away on this side (rate limit, bulkhead or open circuit) and never reached
+ * the scraper, so it says nothing about the product.
+ */
+public class ScraperRejectedException extends ScraperException {
+    public ScraperRejectedException(String message) { super(message); }
+}
@@ -2,6 +2,7 @@ package com.priceprocessor.handlers;
 
 import com.priceprocessor.dtos.errors.ApiErrorResponse;
 import com.priceprocessor.dtos.errors.ErrorCode;
+import com.priceprocessor.exceptions.InvalidCursorException;
 import com.priceprocessor.exceptions.ProductNotFoundException;
 import com.priceprocessor.exceptions.ProductNotFoundInStoreException;
 import com.priceprocessor.exceptions.crawler.InvalidStoreUrlException;
@@ -14,6 +15,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.LocalDateTime;
 import java.util.stream.Collectors;
@@ -75,6 +77,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidCursor(InvalidCursorException ex) {
+        ApiErrorResponse error = new ApiErrorResponse(
+                ex.getMessage(),
+                ErrorCode.VALIDATION_FAILED,
+                HttpStatus.BAD_REQUEST.value(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ApiErrorResponse> handleArgumentTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        ApiErrorResponse error = new ApiErrorResponse(
+                "Invalid value '" + ex.getValue() + "' for parameter '" + ex.getName() + "'",
+                ErrorCode.VALIDATION_FAILED,
+                HttpStatus.BAD_REQUEST.value(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(ScraperException.class)
     public ResponseEntity<ApiErrorResponse> handleScraperGeneral(ScraperException ex) {
         ApiErrorResponse error = new ApiErrorResponse(
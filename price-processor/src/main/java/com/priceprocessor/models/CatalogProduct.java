@@ -0,0 +1,103 @@
+package com.priceprocessor.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * A product as it exists in the store, shared by every user that observes it.
+ * Owns the current price, so each URL is scraped once per cycle. Its price history is not
+ * mapped as a collection: rows are appended and read through
+ * {@link com.priceprocessor.repositories.PriceHistoryRepository} only.
+ */
+@Entity
+@Table(name = "catalog_products", indexes = {
+        @Index(name = "idx_catalog_products_due", columnList = "next_check_at, lease_expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogProduct {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 768)
+    private String canonicalUrl;
+
+    @Column(nullable = false)
+    private String productName;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal currentPrice;
+
+    private LocalDateTime lastCheckedAt;
+
+    /**
+     * Start of the current price segment, the {@code checkedAt} of the newest history row.
+     */
+    private LocalDateTime priceChangedAt;
+
+    private LocalDateTime nextCheckAt;
+
+    private Long checkIntervalSeconds;
+
+    /**
+     * Replica currently checking this product; set when claimed and cleared when the result is applied.
+     */
+    @Column(length = 64)
+    private String leaseOwner;
+
+    private LocalDateTime leaseExpiresAt;
+
+    /**
+     * Bumped by every write, so a concurrent check of the same product fails instead of
+     * overwriting the price, statistics and schedule recorded by the other.
+     */
+    @Version
+    private Long version;
+
+    @Embedded
+    @Builder.Default
+    private PriceStats priceStats = new PriceStats();
+
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * Records a successful check. A price different from the current one starts a new history
+     * segment, returned for the caller to save; an unchanged price starts none, and the caller
+     * confirms the current segment with
+     * {@link com.priceprocessor.repositories.PriceHistoryRepository#confirmCurrentPrices}.
+     * Either way the check is added to the running {@link PriceStats}.
+     */
+    public Optional<PriceHistory> recordPrice(BigDecimal price, LocalDateTime date) {
+        if (priceStats == null) {
+            priceStats = new PriceStats();
+        }
+        priceStats.record(currentPrice, price, date);
+        this.lastCheckedAt = date;
+        if (priceChangedAt != null && currentPrice != null && currentPrice.compareTo(price) == 0) {
+            return Optional.empty();
+        }
+
+        this.currentPrice = price;
+        this.priceChangedAt = date;
+        return Optional.of(PriceHistory.builder()
+                .price(price)
+                .checkedAt(date)
+                .lastConfirmedAt(date)
+                .catalogProduct(this)
+                .build());
+    }
+}
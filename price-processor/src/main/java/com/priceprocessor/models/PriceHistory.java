@@ -6,16 +6,27 @@ import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * One price segment: the price seen first at {@code checkedAt} and seen unchanged by every
+ * check up to {@code lastConfirmedAt}. A new row starts only when the price changes. Equality
+ * is by id, so comparing or hashing a row never touches its lazily loaded product.
+ */
 @Entity
-@Table(name = "price_history")
-@Data
+@Table(name = "price_history", indexes = {
+        @Index(name = "idx_price_history_product_checked_at", columnList = "catalog_product_id, checked_at")
+})
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class PriceHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "price_history_id")
+    @TableGenerator(name = "price_history_id", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "price_history", allocationSize = 50)
     private Long id;
 
     @Column(precision = 10, scale = 2)
@@ -23,8 +34,26 @@ public class PriceHistory {
 
     private LocalDateTime checkedAt;
 
+    private LocalDateTime lastConfirmedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "product_observation_id")
+    @JoinColumn(name = "catalog_product_id")
     @ToString.Exclude
-    private ProductObservation productObservation;
-}
\ No newline at end of file
+    private CatalogProduct catalogProduct;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PriceHistory other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return PriceHistory.class.hashCode();
+    }
+}
@@ -0,0 +1,73 @@
+package com.priceprocessor.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Open/high/low/close of one product's prices seen on one day, rolled up from history segments
+ * older than {@code price-history.raw-retention}. Checks are folded in one at a time, in any
+ * order, so a day can be completed by later compaction runs.
+ */
+@Entity
+@Table(name = "price_history_daily",
+        uniqueConstraints = @UniqueConstraint(name = "uk_price_history_daily_product_day", columnNames = {"catalog_product_id", "rollup_day"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceHistoryDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "price_history_daily_id")
+    @TableGenerator(name = "price_history_daily_id", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "price_history_daily", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "catalog_product_id", nullable = false)
+    @ToString.Exclude
+    private CatalogProduct catalogProduct;
+
+    @Column(name = "rollup_day", nullable = false)
+    private LocalDate day;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal openPrice;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal highPrice;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal lowPrice;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal closePrice;
+
+    private LocalDateTime firstCheckedAt;
+
+    private LocalDateTime lastCheckedAt;
+
+    /**
+     * Folds one check of this day into the rollup.
+     */
+    public void include(LocalDateTime checkedAt, BigDecimal price) {
+        if (firstCheckedAt == null || checkedAt.isBefore(firstCheckedAt)) {
+            firstCheckedAt = checkedAt;
+            openPrice = price;
+        }
+        if (lastCheckedAt == null || !checkedAt.isBefore(lastCheckedAt)) {
+            lastCheckedAt = checkedAt;
+            closePrice = price;
+        }
+        if (highPrice == null || price.compareTo(highPrice) > 0) {
+            highPrice = price;
+        }
+        if (lowPrice == null || price.compareTo(lowPrice) < 0) {
+            lowPrice = price;
+        }
+    }
+}
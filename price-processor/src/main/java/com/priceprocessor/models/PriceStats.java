@@ -0,0 +1,124 @@
+package com.priceprocessor.models;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OrderBy;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Running statistics of a catalog product's price, updated by every recorded check in constant
+ * time, so they are read without scanning its history: the all-time low and high, the low of
+ * the last {@link #LOW_WINDOW}, a time-weighted exponential moving average over
+ * {@link #AVERAGE_PERIOD} and the number of checks that found a price.
+ * <p>
+ * The windowed low is a monotonic deque of {@link WindowLow} candidates, prices increasing from
+ * its head: a check drops every queued price not below its own, since those can no longer be the
+ * low of any window that holds the new one, and a candidate last seen before the window is popped
+ * from the head, which leaves the next candidate as the low. History is never read. A candidate
+ * also stands for the higher prices seen later on its day, so the deque holds at most one per
+ * day, {@link #MAX_WINDOW_LOWS} rows, and a low may outlive the window by less than a day.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+public class PriceStats {
+
+    public static final Duration LOW_WINDOW = Duration.ofDays(90);
+    public static final Duration AVERAGE_PERIOD = Duration.ofDays(30);
+    static final int MAX_WINDOW_LOWS = (int) LOW_WINDOW.toDays() + 1;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal minPrice;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal maxPrice;
+
+    @Column(precision = 14, scale = 4)
+    private BigDecimal averagePrice;
+
+    @Column(nullable = false)
+    private long priceCount;
+
+    private LocalDateTime statsUpdatedAt;
+
+    /**
+     * The windowed-low deque, head first. A check rewrites only the rows it pops or pushes; the
+     * deques of a whole page of products are loaded together.
+     */
+    @ElementCollection
+    @CollectionTable(name = "catalog_window_lows", joinColumns = @JoinColumn(name = "catalog_product_id"))
+    @OrderBy("seenAt")
+    @BatchSize(size = 100)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Set<WindowLow> windowLows = new LinkedHashSet<>();
+
+    /**
+     * Adds a check that found {@code price} at {@code at}; {@code previousPrice} is the price
+     * the product had until then, or null for its first check.
+     */
+    void record(BigDecimal previousPrice, BigDecimal price, LocalDateTime at) {
+        if (averagePrice == null || statsUpdatedAt == null || previousPrice == null) {
+            averagePrice = price.setScale(4, RoundingMode.HALF_UP);
+        } else {
+            // The previous price held from the last update until now; decay the average towards it
+            double elapsed = Math.max(Duration.between(statsUpdatedAt, at).toSeconds(), 0);
+            double decay = Math.exp(-elapsed / AVERAGE_PERIOD.toSeconds());
+            averagePrice = previousPrice.add(averagePrice.subtract(previousPrice).multiply(BigDecimal.valueOf(decay)))
+                    .setScale(4, RoundingMode.HALF_UP);
+        }
+
+        minPrice = minPrice == null || price.compareTo(minPrice) < 0 ? price : minPrice;
+        maxPrice = maxPrice == null || price.compareTo(maxPrice) > 0 ? price : maxPrice;
+        priceCount++;
+        statsUpdatedAt = at;
+
+        recordWindowLow(price, at);
+    }
+
+    /**
+     * Lowest price seen in the {@link #LOW_WINDOW} before the last recorded check.
+     */
+    public BigDecimal getWindowMinPrice() {
+        return windowLows.isEmpty() ? null : windowLows.iterator().next().getPrice();
+    }
+
+    private void recordWindowLow(BigDecimal price, LocalDateTime at) {
+        Deque<WindowLow> window = new ArrayDeque<>(windowLows);
+        while (!window.isEmpty() && window.peekLast().getPrice().compareTo(price) >= 0) {
+            window.pollLast();
+        }
+        WindowLow last = window.peekLast();
+        if (last != null && last.getSeenAt().toLocalDate().equals(at.toLocalDate())) {
+            // The day's lower candidate now stands for this price too, until it leaves the window
+            window.pollLast();
+            window.addLast(new WindowLow(last.getPrice(), at));
+        } else {
+            window.addLast(new WindowLow(price, at));
+        }
+        LocalDateTime windowStart = at.minus(LOW_WINDOW);
+        while (window.peekFirst().getSeenAt().isBefore(windowStart)) {
+            window.pollFirst();
+        }
+
+        // Only the new tail is added, after the candidates kept, so the set stays in deque order
+        windowLows.retainAll(window);
+        windowLows.addAll(window);
+    }
+}
@@ -3,14 +3,22 @@ package com.priceprocessor.models;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
+/**
+ * A user's watch of a catalog product. Equality is by id, so comparing or hashing an observation
+ * never touches its lazily loaded product.
+ */
 @Entity
-@Table(name = "product_observations")
-@Data
+@Table(name = "product_observations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_product_observations_user_product", columnNames = {"user_email", "catalog_product_id"}),
+        indexes = {
+                @Index(name = "idx_product_observations_user_email_id", columnList = "user_email, id"),
+                @Index(name = "idx_product_observations_catalog_product_id", columnList = "catalog_product_id")
+        })
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
@@ -20,40 +28,35 @@ public class ProductObservation {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
-    private String productName;
-
-    @Column(nullable = false, length = 1000)
-    private String productUrl;
-
     @Column(nullable = false)
     private String userEmail;
 
-    @Column(precision = 10, scale = 2)
-    private BigDecimal currentPrice;
-
-    private LocalDateTime lastCheckedAt;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "catalog_product_id", nullable = false)
+    @ToString.Exclude
+    private CatalogProduct catalogProduct;
 
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
-    @OneToMany(mappedBy = "productObservation", cascade = CascadeType.ALL, orphanRemoval = true)
-    @Builder.Default
-    private List<PriceHistory> priceHistory = new ArrayList<>();
-
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
     }
 
-    public void addPriceHistory(BigDecimal price, LocalDateTime date) {
-        PriceHistory history = PriceHistory.builder()
-                .price(price)
-                .checkedAt(date)
-                .productObservation(this)
-                .build();
-        this.priceHistory.add(history);
-        this.currentPrice = price;
-        this.lastCheckedAt = date;
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProductObservation other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return ProductObservation.class.hashCode();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package com.priceprocessor.repositories;
+
+import com.priceprocessor.models.CatalogProduct;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CatalogProductRepository extends JpaRepository<CatalogProduct, Long> {
+    Optional<CatalogProduct> findByCanonicalUrl(String canonicalUrl);
+    /**
+     * Locks due, unleased products for the caller's lease. Rows another replica is claiming at
+     * the same moment are skipped rather than waited for, on databases that support SKIP LOCKED.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT c FROM CatalogProduct c WHERE (c.nextCheckAt IS NULL OR c.nextCheckAt <= :threshold) " +
+            "AND (c.leaseExpiresAt IS NULL OR c.leaseExpiresAt < :now) " +
+            "AND EXISTS (SELECT 1 FROM ProductObservation o WHERE o.catalogProduct = c) " +
+            "ORDER BY c.nextCheckAt ASC")
+    List<CatalogProduct> findProductsToUpdate(@Param("threshold") LocalDateTime threshold,
+                                              @Param("now") LocalDateTime now,
+                                              Pageable pageable);
+    /**
+     * Locks the given products while check results are applied to them, so that their leases
+     * cannot be taken over, nor their rows written by anyone else, until the results commit.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CatalogProduct c WHERE c.id IN :ids ORDER BY c.id")
+    List<CatalogProduct> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+    @Query("SELECT COUNT(c) FROM CatalogProduct c WHERE (c.nextCheckAt IS NULL OR c.nextCheckAt <= :threshold) " +
+            "AND (c.leaseExpiresAt IS NULL OR c.leaseExpiresAt < :now) " +
+            "AND EXISTS (SELECT 1 FROM ProductObservation o WHERE o.catalogProduct = c)")
+    long countProductsToUpdate(@Param("threshold") LocalDateTime threshold, @Param("now") LocalDateTime now);
+    @Modifying
+    @Query("UPDATE VERSIONED CatalogProduct c SET c.priceChangedAt = :horizon WHERE c.priceChangedAt < :horizon")
+    int clipPriceChangedBefore(@Param("horizon") LocalDateTime horizon);
+}
@@ -0,0 +1,32 @@
+package com.priceprocessor.repositories;
+
+import com.priceprocessor.models.PriceHistoryDaily;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PriceHistoryDailyRepository extends JpaRepository<PriceHistoryDaily, Long> {
+    @Query("SELECT d FROM PriceHistoryDaily d WHERE d.catalogProduct.id = :catalogProductId " +
+            "AND d.day > :afterDay AND d.day <= :lastDay ORDER BY d.day")
+    List<PriceHistoryDaily> findPageByCatalogProductId(@Param("catalogProductId") Long catalogProductId,
+                                                       @Param("afterDay") LocalDate afterDay,
+                                                       @Param("lastDay") LocalDate lastDay,
+                                                       Pageable pageable);
+    List<PriceHistoryDaily> findByCatalogProductIdOrderByDayDesc(Long catalogProductId, Pageable pageable);
+    @Query("SELECT d FROM PriceHistoryDaily d WHERE d.catalogProduct.id IN :catalogProductIds " +
+            "AND d.day BETWEEN :from AND :to")
+    List<PriceHistoryDaily> findAllForProductsBetween(@Param("catalogProductIds") Collection<Long> catalogProductIds,
+                                                     @Param("from") LocalDate from,
+                                                     @Param("to") LocalDate to);
+    @Modifying
+    @Query("DELETE FROM PriceHistoryDaily d WHERE d.day < :day")
+    int deleteAllBefore(@Param("day") LocalDate day);
+}
@@ -0,0 +1,68 @@
+package com.priceprocessor.repositories;
+
+import com.priceprocessor.models.PriceHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PriceHistoryRepository extends JpaRepository<PriceHistory, Long>, PriceHistoryRepositoryCustom {
+    /**
+     * Extends the current price segment of every given product to {@code confirmedAt}, in one
+     * statement, for checks that saw the price unchanged.
+     */
+    @Modifying
+    @Query("UPDATE PriceHistory h SET h.lastConfirmedAt = :confirmedAt " +
+            "WHERE h.catalogProduct.id IN :catalogProductIds " +
+            "AND h.checkedAt = (SELECT c.priceChangedAt FROM CatalogProduct c WHERE c.id = h.catalogProduct.id)")
+    int confirmCurrentPrices(@Param("catalogProductIds") Collection<Long> catalogProductIds,
+                             @Param("confirmedAt") LocalDateTime confirmedAt);
+    /**
+     * Segments last confirmed before {@code cutoff}, oldest first per product. The current
+     * segment of a product is never returned, since later unchanged checks still extend it.
+     */
+    @Query("SELECT h FROM PriceHistory h JOIN h.catalogProduct c WHERE h.lastConfirmedAt < :cutoff " +
+            "AND (c.priceChangedAt IS NULL OR h.checkedAt < c.priceChangedAt) " +
+            "ORDER BY c.id, h.checkedAt")
+    List<PriceHistory> findCompactableSegments(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    /**
+     * The page of a product's segments checked in [{@code from}, {@code to}) that follows the
+     * segment ({@code afterCheckedAt}, {@code afterId}) in (checked_at, id) order, so a page
+     * costs an index range scan no matter how deep into the history it is.
+     */
+    @Query("SELECT h FROM PriceHistory h WHERE h.catalogProduct.id = :catalogProductId " +
+            "AND h.checkedAt >= :from AND h.checkedAt < :to " +
+            "AND (h.checkedAt > :afterCheckedAt OR (h.checkedAt = :afterCheckedAt AND h.id > :afterId)) " +
+            "ORDER BY h.checkedAt, h.id")
+    List<PriceHistory> findPageByCatalogProductId(@Param("catalogProductId") Long catalogProductId,
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to,
+                                                  @Param("afterCheckedAt") LocalDateTime afterCheckedAt,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+    @Query("SELECT h FROM PriceHistory h WHERE h.catalogProduct.id = :catalogProductId AND h.checkedAt >= :from " +
+            "ORDER BY h.checkedAt DESC, h.id DESC")
+    List<PriceHistory> findLatestByCatalogProductId(@Param("catalogProductId") Long catalogProductId,
+                                                    @Param("from") LocalDateTime from,
+                                                    Pageable pageable);
+    /**
+     * Moves the start of current segments that began before {@code horizon} up to it, so they
+     * survive when the history before the horizon is expired.
+     */
+    @Modifying
+    @Query("UPDATE PriceHistory h SET h.checkedAt = :horizon, " +
+            "h.lastConfirmedAt = CASE WHEN h.lastConfirmedAt < :horizon THEN :horizon ELSE h.lastConfirmedAt END " +
+            "WHERE h.checkedAt < :horizon " +
+            "AND h.checkedAt = (SELECT c.priceChangedAt FROM CatalogProduct c WHERE c.id = h.catalogProduct.id)")
+    int clipCurrentSegmentsBefore(@Param("horizon") LocalDateTime horizon);
+    @Modifying
+    @Query("DELETE FROM PriceHistory h WHERE h.checkedAt < :horizon")
+    int deleteAllCheckedBefore(@Param("horizon") LocalDateTime horizon);
+}
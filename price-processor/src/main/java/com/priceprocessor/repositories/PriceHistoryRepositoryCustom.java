@@ -0,0 +1,21 @@
+package com.priceprocessor.repositories;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PriceHistoryRepositoryCustom {
+    /**
+     * The latest {@code points} segments in effect since {@code windowStart} of every given
+     * observation's product, oldest first per observation, each carrying the lowest and highest
+     * price of the window and the price the window opened with. One windowed query for any number
+     * of observations; {@code horizon} only bounds the partitions read.
+     */
+    List<SparklinePoint> findSparklines(Collection<Long> observationIds, LocalDateTime windowStart,
+                                        LocalDateTime horizon, int points);
+
+    record SparklinePoint(Long observationId, BigDecimal price, LocalDateTime checkedAt,
+                          BigDecimal minPrice, BigDecimal maxPrice, BigDecimal openPrice) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.priceprocessor.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Window functions rank and aggregate the segments per observation in the database, so the
+ * dashboard reads only the points it draws, whatever the length of each product's history.
+ */
+class PriceHistoryRepositoryCustomImpl implements PriceHistoryRepositoryCustom {
+
+    private static final String SPARKLINES = """
+            SELECT w.observation_id, w.price, w.checked_at, w.min_price, w.max_price, w.open_price
+            FROM (
+                SELECT o.id AS observation_id, h.price, h.checked_at,
+                       ROW_NUMBER() OVER (PARTITION BY o.id ORDER BY h.checked_at DESC, h.id DESC) AS point,
+                       MIN(h.price) OVER (PARTITION BY o.id) AS min_price,
+                       MAX(h.price) OVER (PARTITION BY o.id) AS max_price,
+                       FIRST_VALUE(h.price) OVER (PARTITION BY o.id ORDER BY h.checked_at, h.id) AS open_price
+                FROM product_observations o
+                JOIN price_history h ON h.catalog_product_id = o.catalog_product_id
+                WHERE o.id IN (:observationIds)
+                  AND h.checked_at >= :horizon
+                  AND h.last_confirmed_at >= :windowStart
+            ) w
+            WHERE w.point <= :points
+            ORDER BY w.observation_id, w.checked_at
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<SparklinePoint> findSparklines(Collection<Long> observationIds, LocalDateTime windowStart,
+                                               LocalDateTime horizon, int points) {
+        if (observationIds.isEmpty()) {
+            return List.of();
+        }
+        List<Object[]> rows = entityManager.createNativeQuery(SPARKLINES)
+                .unwrap(NativeQuery.class)
+                .addScalar("observation_id", StandardBasicTypes.LONG)
+                .addScalar("price", StandardBasicTypes.BIG_DECIMAL)
+                .addScalar("checked_at", StandardBasicTypes.LOCAL_DATE_TIME)
+                .addScalar("min_price", StandardBasicTypes.BIG_DECIMAL)
+                .addScalar("max_price", StandardBasicTypes.BIG_DECIMAL)
+                .addScalar("open_price", StandardBasicTypes.BIG_DECIMAL)
+                .setParameterList("observationIds", observationIds)
+                .setParameter("windowStart", windowStart)
+                .setParameter("horizon", horizon)
+                .setParameter("points", points)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new SparklinePoint((Long) row[0], (BigDecimal) row[1], (LocalDateTime) row[2],
+                        (BigDecimal) row[3], (BigDecimal) row[4], (BigDecimal) row[5]))
+                .toList();
+    }
+}
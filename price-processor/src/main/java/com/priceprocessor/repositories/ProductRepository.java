@@ -1,18 +1,18 @@
 package com.priceprocessor.repositories;
 
 import com.priceprocessor.models.ProductObservation;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<ProductObservation, Long> {
-    List<ProductObservation> findAllByUserEmail(String userEmail);
+public interface ProductRepository extends JpaRepository<ProductObservation, Long>, ProductRepositoryCustom {
+    @EntityGraph(attributePaths = "catalogProduct")
     Optional<ProductObservation> findByIdAndUserEmail(Long id, String userEmail);
-    @Query("SELECT p FROM ProductObservation p ORDER BY p.lastCheckedAt ASC NULLS FIRST")
-    List<ProductObservation> findProductsToUpdate(Pageable pageable);
-}
\ No newline at end of file
+    Optional<ProductObservation> findByUserEmailAndCatalogProductId(String userEmail, Long catalogProductId);
+    List<ProductObservation> findAllByCatalogProductIdIn(Collection<Long> catalogProductIds);
+}
@@ -0,0 +1,18 @@
+package com.priceprocessor.repositories;
+
+import com.priceprocessor.dtos.api.ProductObservationResponse;
+import com.priceprocessor.dtos.api.ProductSort;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+    /**
+     * Up to {@code limit} of the user's observed products in {@code sort} order, following the
+     * product with sort value {@code afterValue} and id {@code afterId}, or from the start when
+     * {@code afterId} is null. A null {@code afterValue} is a product without a price. Only the
+     * columns of the response are selected.
+     */
+    List<ProductObservationResponse> findPageByUserEmail(String userEmail, ProductSort sort, Sort.Direction direction,
+                                                         Object afterValue, Long afterId, int limit);
+}
@@ -0,0 +1,69 @@
+package com.priceprocessor.repositories;
+
+import com.priceprocessor.dtos.api.ProductObservationResponse;
+import com.priceprocessor.dtos.api.ProductSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+/**
+ * Keyset pagination over (sort value, id): a page starts right after the last row of the
+ * previous one instead of skipping an offset, so every page costs the same. Products without a
+ * price come last in either direction of the price sort, so a keyset inside them matches only
+ * the rest of them.
+ */
+class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductObservationResponse> findPageByUserEmail(String userEmail, ProductSort sort, Sort.Direction direction,
+                                                                Object afterValue, Long afterId, int limit) {
+        String column = switch (sort) {
+            case ADDED -> "o.id";
+            case NAME -> "c.productName";
+            case PRICE -> "c.currentPrice";
+        };
+        boolean nullable = sort == ProductSort.PRICE;
+        boolean afterValueSet = sort != ProductSort.ADDED && afterValue != null;
+        String order = direction.isAscending() ? "ASC" : "DESC";
+        String after = direction.isAscending() ? ">" : "<";
+
+        StringBuilder jpql = new StringBuilder("SELECT new com.priceprocessor.dtos.api.ProductObservationResponse(" +
+                "o.id, c.productName, c.currentPrice, c.canonicalUrl, c.lastCheckedAt) " +
+                "FROM ProductObservation o JOIN o.catalogProduct c WHERE o.userEmail = :userEmail");
+        if (afterId != null) {
+            if (sort == ProductSort.ADDED) {
+                jpql.append(" AND o.id ").append(after).append(" :afterId");
+            } else if (!afterValueSet) {
+                jpql.append(" AND ").append(column).append(" IS NULL AND o.id ").append(after).append(" :afterId");
+            } else {
+                jpql.append(" AND (").append(column).append(' ').append(after).append(" :afterValue OR (")
+                        .append(column).append(" = :afterValue AND o.id ").append(after).append(" :afterId)")
+                        .append(nullable ? " OR " + column + " IS NULL)" : ")");
+            }
+        }
+        jpql.append(" ORDER BY ").append(column).append(' ').append(order);
+        if (nullable) {
+            jpql.append(" NULLS LAST");
+        }
+        if (sort != ProductSort.ADDED) {
+            jpql.append(", o.id ").append(order);
+        }
+
+        TypedQuery<ProductObservationResponse> query = entityManager.createQuery(jpql.toString(), ProductObservationResponse.class)
+                .setParameter("userEmail", userEmail)
+                .setMaxResults(limit);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+            if (afterValueSet) {
+                query.setParameter("afterValue", afterValue);
+            }
+        }
+        return query.getResultList();
+    }
+}
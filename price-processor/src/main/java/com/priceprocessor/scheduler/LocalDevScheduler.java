@@ -1,5 +1,7 @@
 package com.priceprocessor.scheduler;
 
+import com.priceprocessor.services.PriceHistoryCompactionService;
+import com.priceprocessor.services.PriceHistoryRetentionService;
 import com.priceprocessor.services.PriceUpdateService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,10 +18,24 @@ import org.springframework.stereotype.Component;
 public class LocalDevScheduler {
 
     private final PriceUpdateService priceUpdateService;
+    private final PriceHistoryCompactionService priceHistoryCompactionService;
+    private final PriceHistoryRetentionService priceHistoryRetentionService;
 
     @Scheduled(fixedDelay = 60000 * 60) // 1 hour
     public void runLocalBatch() {
         log.info("[LOCAL DEV] Triggering scheduled price update...");
-        priceUpdateService.updateOutdatedPrices();
+        priceUpdateService.drainOutdatedPrices();
+    }
+
+    @Scheduled(fixedDelay = 60000 * 60 * 24) // 1 day
+    public void runHistoryCompaction() {
+        log.info("[LOCAL DEV] Triggering scheduled price history compaction...");
+        priceHistoryCompactionService.compactHistory();
+    }
+
+    @Scheduled(fixedDelay = 60000 * 60 * 24) // 1 day
+    public void runHistoryRetention() {
+        log.info("[LOCAL DEV] Triggering scheduled price history retention...");
+        priceHistoryRetentionService.expireHistory();
     }
 }
\ No newline at end of file
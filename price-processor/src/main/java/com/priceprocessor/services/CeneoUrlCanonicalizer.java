@@ -0,0 +1,74 @@
+package com.priceprocessor.services;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maps the many spellings of a product URL to one canonical key, used as the catalog identity
+ * and as the key of every scraper cache.
+ * <p>
+ * Ceneo product pages become {@code https://www.ceneo.pl/<id>}: scheme, host, {@code ;szukaj-}
+ * and other {@code ;} suffixes, query (tracking parameters) and fragment are all dropped. Other
+ * Ceneo pages keep their path only. URLs of other sites only get their scheme and host
+ * lower-cased and the fragment removed. Input that is not a URL is returned trimmed.
+ * Canonicalizing a canonical URL returns it unchanged.
+ */
+public final class CeneoUrlCanonicalizer {
+
+    static final String CENEO_BASE_URL = "https://www.ceneo.pl";
+
+    private static final Pattern SCHEME = Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.-]*://.*");
+    private static final Pattern PRODUCT_PATH = Pattern.compile("^/(\\d+)(?:[;/].*)?$");
+
+    private CeneoUrlCanonicalizer() {
+    }
+
+    public static String canonicalize(String url) {
+        String trimmed = url.trim();
+
+        URI uri;
+        try {
+            uri = new URI(SCHEME.matcher(trimmed).matches() ? trimmed : "https://" + trimmed);
+        } catch (URISyntaxException e) {
+            return trimmed;
+        }
+        if (uri.getHost() == null) {
+            return trimmed;
+        }
+
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+
+        if (isCeneo(host)) {
+            Matcher product = PRODUCT_PATH.matcher(path);
+            if (product.matches()) {
+                return CENEO_BASE_URL + "/" + product.group(1);
+            }
+            return CENEO_BASE_URL + stripTrailingSlashes(path);
+        }
+
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        String port = uri.getPort() == -1 || isDefaultPort(scheme, uri.getPort()) ? "" : ":" + uri.getPort();
+        String query = uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery();
+        return scheme + "://" + host + port + path + query;
+    }
+
+    private static boolean isCeneo(String host) {
+        return host.equals("ceneo.pl") || host.endsWith(".ceneo.pl");
+    }
+
+    private static boolean isDefaultPort(String scheme, int port) {
+        return (scheme.equals("http") && port == 80) || (scheme.equals("https") && port == 443);
+    }
+
+    private static String stripTrailingSlashes(String path) {
+        int end = path.length();
+        while (end > 0 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return path.substring(0, end);
+    }
+}
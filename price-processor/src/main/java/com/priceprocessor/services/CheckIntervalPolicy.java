@@ -0,0 +1,66 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.config.PriceUpdateProperties;
+import com.priceprocessor.models.CatalogProduct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Decides when a catalog product is checked next, based on how often its price history changes.
+ * Every check that sees a new price halves the product's interval and every check that sees the
+ * same price doubles it, bounded by the configured minimum and maximum. Volatile products
+ * settle near the minimum while stable ones back off to the maximum.
+ */
+@Service
+@RequiredArgsConstructor
+public class CheckIntervalPolicy {
+
+    private final PriceUpdateProperties priceUpdateProperties;
+
+    public void scheduleNew(CatalogProduct product, LocalDateTime now) {
+        schedule(product, clamp(priceUpdateProperties.getCheckInterval()), now);
+    }
+
+    /**
+     * Reschedules the product after a successful check that found {@code newPrice}.
+     */
+    public void scheduleAfterCheck(CatalogProduct product, BigDecimal oldPrice, BigDecimal newPrice, LocalDateTime now) {
+        Duration interval = currentInterval(product);
+        boolean priceChanged = oldPrice == null || oldPrice.compareTo(newPrice) != 0;
+        schedule(product, clamp(priceChanged ? interval.dividedBy(2) : interval.multipliedBy(2)), now);
+    }
+
+    /**
+     * Reschedules the product after a failed check. Nothing was learned about the price,
+     * so the interval is kept as it is.
+     */
+    public void scheduleAfterFailure(CatalogProduct product, LocalDateTime now) {
+        schedule(product, currentInterval(product), now);
+    }
+
+    private Duration currentInterval(CatalogProduct product) {
+        if (product.getCheckIntervalSeconds() == null) {
+            return clamp(priceUpdateProperties.getCheckInterval());
+        }
+        return Duration.ofSeconds(product.getCheckIntervalSeconds());
+    }
+
+    private Duration clamp(Duration interval) {
+        if (interval.compareTo(priceUpdateProperties.getMinCheckInterval()) < 0) {
+            return priceUpdateProperties.getMinCheckInterval();
+        }
+        if (interval.compareTo(priceUpdateProperties.getMaxCheckInterval()) > 0) {
+            return priceUpdateProperties.getMaxCheckInterval();
+        }
+        return interval;
+    }
+
+    private void schedule(CatalogProduct product, Duration interval, LocalDateTime now) {
+        product.setCheckIntervalSeconds(interval.toSeconds());
+        product.setNextCheckAt(now.plus(interval));
+    }
+}
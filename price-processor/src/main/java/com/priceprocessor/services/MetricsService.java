@@ -1,10 +1,16 @@
 package com.priceprocessor.services;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.function.Supplier;
+
 @Service
 @RequiredArgsConstructor
 public class MetricsService {
@@ -15,9 +21,27 @@ public class MetricsService {
     private static final String AUTH_LOGIN_METRIC = "auth.login";
     private static final String QUEUE_MAIL_SENT_METRIC = "queue.mail.sent";
     private static final String PRODUCT_PRICE_UPDATE = "product.price.update";
+    private static final String PRICE_CHECK_RUN_METRIC = "product.price.check.run";
+    private static final String PRICE_CHECK_THROUGHPUT_METRIC = "product.price.check.throughput";
+    private static final String SCRAPER_RATE_LIMIT_WAIT_METRIC = "scraper.ratelimit.wait";
+    private static final String SCRAPER_RATE_LIMIT_REJECTED_METRIC = "scraper.ratelimit.rejected";
+    private static final String SCRAPER_CIRCUIT_STATE_METRIC = "scraper.circuit.state";
+    private static final String SCRAPER_CIRCUIT_REJECTED_METRIC = "scraper.circuit.rejected";
+    private static final String SCRAPER_BULKHEAD_REJECTED_METRIC = "scraper.bulkhead.rejected";
+    private static final String SCRAPER_POOL_ACQUIRE_METRIC = "scraper.http.pool.acquire";
+    private static final String SCRAPER_COALESCED_METRIC = "scraper.calls.coalesced";
+    private static final String SCRAPER_NEGATIVE_CACHE_HIT_METRIC = "scraper.negative_cache.hits";
+    private static final String CACHE_LOOKUP_METRIC = "scraper.cache.lookups";
+    private static final String CACHE_EVICTION_METRIC = "scraper.cache.evictions";
+    private static final String CACHE_SIZE_METRIC = "scraper.cache.size";
 
     private static final String TAG_KEY_STATUS = "status";
     private static final String TAG_KEY_REASON = "reason";
+    private static final String TAG_KEY_ENDPOINT = "endpoint";
+    private static final String TAG_KEY_CALLER = "caller";
+    private static final String TAG_KEY_CACHE = "cache";
+    private static final String TAG_KEY_RESULT = "result";
+    private static final String TAG_KEY_POOL = "pool";
 
     private static final String STATUS_SUCCESS = "success";
     private static final String STATUS_FAILURE = "failure";
@@ -47,6 +71,112 @@ public class MetricsService {
         incrementMetric(STATUS_FAILURE, reason, PRODUCT_PRICE_UPDATE);
     }
 
+    public void recordPriceCheckRun(int checkedProducts, Duration elapsed) {
+        Timer.builder(PRICE_CHECK_RUN_METRIC)
+                .description("Wall-clock time of one concurrent price check run")
+                .register(meterRegistry)
+                .record(elapsed);
+
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        DistributionSummary.builder(PRICE_CHECK_THROUGHPUT_METRIC)
+                .description("Products checked per second in one run")
+                .baseUnit("products/s")
+                .register(meterRegistry)
+                .record(seconds > 0 ? checkedProducts / seconds : checkedProducts);
+    }
+
+    public void recordScraperRateLimitWait(String endpoint, String caller, Duration wait) {
+        Timer.builder(SCRAPER_RATE_LIMIT_WAIT_METRIC)
+                .description("Time a scraper call queued for a rate limit permit")
+                .tag(TAG_KEY_ENDPOINT, endpoint)
+                .tag(TAG_KEY_CALLER, caller)
+                .register(meterRegistry)
+                .record(wait);
+    }
+
+    public void incrementScraperRateLimitRejected(String endpoint, String caller) {
+        Counter.builder(SCRAPER_RATE_LIMIT_REJECTED_METRIC)
+                .description("Scraper calls rejected because no permit was available within the max wait")
+                .tag(TAG_KEY_ENDPOINT, endpoint)
+                .tag(TAG_KEY_CALLER, caller)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Exports the scraper circuit state as 0 (closed), 1 (half-open) or 2 (open).
+     */
+    public void registerScraperCircuitState(Supplier<Number> state) {
+        Gauge.builder(SCRAPER_CIRCUIT_STATE_METRIC, state)
+                .description("Scraper circuit breaker state: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+    }
+
+    public void incrementScraperCircuitRejected(String state) {
+        Counter.builder(SCRAPER_CIRCUIT_REJECTED_METRIC)
+                .description("Scraper calls failed fast by the circuit breaker")
+                .tag(TAG_KEY_STATUS, state)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void incrementScraperBulkheadRejected() {
+        Counter.builder(SCRAPER_BULKHEAD_REJECTED_METRIC)
+                .description("Interactive scraper calls rejected because all slots were busy")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordScraperPoolAcquire(String pool, Duration wait, boolean acquired) {
+        Timer.builder(SCRAPER_POOL_ACQUIRE_METRIC)
+                .description("Time a scraper call waited for a pooled HTTP connection")
+                .tag(TAG_KEY_POOL, pool)
+                .tag(TAG_KEY_STATUS, acquired ? STATUS_SUCCESS : STATUS_FAILURE)
+                .register(meterRegistry)
+                .record(wait);
+    }
+
+    public void incrementScraperCallsCoalesced(String type) {
+        Counter.builder(SCRAPER_COALESCED_METRIC)
+                .description("Scraper calls saved by joining an identical call already in flight")
+                .tag(TAG_KEY_ENDPOINT, type)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void incrementScraperNegativeCacheHit(String errorCode) {
+        Counter.builder(SCRAPER_NEGATIVE_CACHE_HIT_METRIC)
+                .description("Scraper calls answered from a remembered not-found or invalid-URL answer")
+                .tag(TAG_KEY_REASON, errorCode)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void incrementCacheLookup(String cache, boolean hit) {
+        Counter.builder(CACHE_LOOKUP_METRIC)
+                .description("Cache lookups in front of the scraper, by hit or miss")
+                .tag(TAG_KEY_CACHE, cache)
+                .tag(TAG_KEY_RESULT, hit ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void incrementCacheEviction(String cache, String cause) {
+        Counter.builder(CACHE_EVICTION_METRIC)
+                .description("Entries dropped from a scraper cache because they expired or the cache was full")
+                .tag(TAG_KEY_CACHE, cache)
+                .tag(TAG_KEY_REASON, cause)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void registerCacheSize(String cache, Supplier<Number> size) {
+        Gauge.builder(CACHE_SIZE_METRIC, size)
+                .description("Entries currently held by a scraper cache")
+                .tag(TAG_KEY_CACHE, cache)
+                .register(meterRegistry);
+    }
+
     private void incrementMetric(String status, String reason, String metricName) {
         Counter.builder(metricName)
                 .tag(TAG_KEY_STATUS, status)
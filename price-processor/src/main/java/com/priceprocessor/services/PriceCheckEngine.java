@@ -0,0 +1,140 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.config.PriceUpdateProperties;
+import com.priceprocessor.dtos.crawler.PriceCheckResult;
+import com.priceprocessor.exceptions.PriceFetchException;
+import com.priceprocessor.services.cache.PriceResponseCache;
+import com.priceprocessor.services.clients.AsyncPriceClient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * Answers URLs scraped within the result cache TTL from {@link PriceResponseCache}, splits the
+ * rest into bulk requests of {@code price-update.bulk-size}, sends them all through
+ * the non-blocking {@link AsyncPriceClient} and gathers the per-URL results. No thread waits for
+ * the scraper; a failing or slow request only delays its own URLs, and its error is returned as
+ * a {@link PriceCheckResult} for each of them instead of failing the whole run.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PriceCheckEngine {
+
+    private final AsyncPriceClient asyncPriceClient;
+    private final PriceResponseCache priceResponseCache;
+    private final MetricsService metricsService;
+    private final PriceUpdateProperties priceUpdateProperties;
+
+    public CompletableFuture<Map<String, PriceCheckResult>> checkPricesAsync(Collection<String> productUrls) {
+        List<String> urls = productUrls.stream().distinct().toList();
+        if (urls.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+
+        long start = System.nanoTime();
+
+        // Spellings of the same product URL are scraped once, through the first of them
+        Map<String, List<String>> urlsByProduct = urls.stream()
+                .collect(Collectors.groupingBy(CeneoUrlCanonicalizer::canonicalize, LinkedHashMap::new, Collectors.toList()));
+
+        Map<String, PriceCheckResult> cached = new LinkedHashMap<>();
+        List<String> toCheck = new ArrayList<>();
+        for (List<String> sameProduct : urlsByProduct.values()) {
+            String url = sameProduct.get(0);
+            priceResponseCache.get(url).ifPresentOrElse(
+                    response -> cached.put(url, PriceCheckResult.success(url, Optional.of(response))),
+                    () -> toCheck.add(url));
+        }
+
+        List<CompletableFuture<Map<String, PriceCheckResult>>> futures = chunks(toCheck, priceUpdateProperties.getBulkSize()).stream()
+                .map(this::checkChunk)
+                .toList();
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            Map<String, PriceCheckResult> checked = new LinkedHashMap<>(cached);
+            for (CompletableFuture<Map<String, PriceCheckResult>> future : futures) {
+                checked.putAll(future.join());
+            }
+
+            Map<String, PriceCheckResult> results = new LinkedHashMap<>();
+            for (List<String> sameProduct : urlsByProduct.values()) {
+                PriceCheckResult result = checked.get(sameProduct.get(0));
+                for (String url : sameProduct) {
+                    results.put(url, new PriceCheckResult(url, result.response(), result.error()));
+                }
+            }
+
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            metricsService.recordPriceCheckRun(results.size(), elapsed);
+            log.info("Checked {} products ({} from cache) in {} requests, {} ms ({} products/s)",
+                    results.size(), cached.size(), futures.size(), elapsed.toMillis(), String.format("%.2f", throughput(results.size(), elapsed)));
+
+            return results;
+        });
+    }
+
+    private CompletableFuture<Map<String, PriceCheckResult>> checkChunk(List<String> productUrls) {
+        CompletableFuture<Map<String, PriceCheckResult>> request;
+        try {
+            request = asyncPriceClient.checkPricesByUrlsAsync(productUrls);
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        return request.handle((checked, error) -> toResults(productUrls, checked, error))
+                .thenApply(this::cacheResponses);
+    }
+
+    private Map<String, PriceCheckResult> cacheResponses(Map<String, PriceCheckResult> results) {
+        results.values().forEach(result ->
+                result.response().ifPresent(response -> priceResponseCache.put(result.productUrl(), response)));
+        return results;
+    }
+
+    private static Map<String, PriceCheckResult> toResults(List<String> productUrls, Map<String, PriceCheckResult> checked, Throwable error) {
+        Exception cause = toException(error);
+        Map<String, PriceCheckResult> results = new LinkedHashMap<>();
+        for (String productUrl : productUrls) {
+            if (cause != null) {
+                results.put(productUrl, PriceCheckResult.failure(productUrl, cause));
+            } else {
+                results.put(productUrl, checked.getOrDefault(productUrl,
+                        PriceCheckResult.failure(productUrl, new PriceFetchException("No price check result"))));
+            }
+        }
+        return results;
+    }
+
+    private static Exception toException(Throwable error) {
+        if (error == null) {
+            return null;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof Exception exception ? exception : new PriceFetchException("Price check failed", cause);
+    }
+
+    private static List<List<String>> chunks(List<String> urls, int size) {
+        int chunkSize = Math.max(1, size);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < urls.size(); from += chunkSize) {
+            chunks.add(urls.subList(from, Math.min(from + chunkSize, urls.size())));
+        }
+        return chunks;
+    }
+
+    private static double throughput(int count, Duration elapsed) {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        return seconds > 0 ? count / seconds : count;
+    }
+}
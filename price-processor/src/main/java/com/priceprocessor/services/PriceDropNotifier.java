@@ -0,0 +1,34 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.dtos.update.PriceDrop;
+import com.priceprocessor.exceptions.NotificationServiceException;
+import com.priceprocessor.services.queue.NotificationProducer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PriceDropNotifier {
+
+    private final NotificationProducer notificationProducer;
+
+    public void notifyAll(List<PriceDrop> priceDrops) {
+        priceDrops.forEach(this::notify);
+    }
+
+    private void notify(PriceDrop priceDrop) {
+        try {
+            notificationProducer.sendEmailNotification(
+                    priceDrop.userEmail(),
+                    "Price Drop Alert!",
+                    "Price for " + priceDrop.productName() + " dropped from " + priceDrop.oldPrice() + " to " + priceDrop.newPrice()
+            );
+        } catch (Exception e) {
+            log.error("Price updated, but notification failed for user: {}", priceDrop.userEmail(), new NotificationServiceException("Email sending failed", e));
+        }
+    }
+}
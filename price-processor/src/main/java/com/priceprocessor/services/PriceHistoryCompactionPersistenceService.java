@@ -0,0 +1,101 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.models.PriceHistory;
+import com.priceprocessor.models.PriceHistoryDaily;
+import com.priceprocessor.repositories.CatalogProductRepository;
+import com.priceprocessor.repositories.PriceHistoryDailyRepository;
+import com.priceprocessor.repositories.PriceHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Transactions of the price history maintenance jobs. One compaction batch per transaction, so
+ * rollups are never written without their raw segments being deleted, and the other way round.
+ */
+@Service
+@RequiredArgsConstructor
+public class PriceHistoryCompactionPersistenceService {
+
+    private final PriceHistoryRepository priceHistoryRepository;
+    private final PriceHistoryDailyRepository priceHistoryDailyRepository;
+    private final CatalogProductRepository catalogProductRepository;
+
+    /**
+     * Folds up to {@code limit} segments last confirmed before {@code cutoff} into their daily
+     * rollups and deletes them. Each segment contributes the check that first saw its price and
+     * the last check that confirmed it; days in between had no change and need no record.
+     *
+     * @return the number of segments compacted
+     */
+    @Transactional
+    public int compactBatch(LocalDateTime cutoff, int limit) {
+        List<PriceHistory> segments = priceHistoryRepository.findCompactableSegments(cutoff, PageRequest.of(0, limit));
+        if (segments.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> productIds = segments.stream().map(segment -> segment.getCatalogProduct().getId()).collect(Collectors.toSet());
+        LocalDate from = segments.stream().map(segment -> segment.getCheckedAt().toLocalDate()).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate to = segments.stream().map(PriceHistoryCompactionPersistenceService::lastSeenAt)
+                .map(LocalDateTime::toLocalDate).max(Comparator.naturalOrder()).orElseThrow();
+
+        Map<DayKey, PriceHistoryDaily> rollups = new HashMap<>();
+        for (PriceHistoryDaily rollup : priceHistoryDailyRepository.findAllForProductsBetween(productIds, from, to)) {
+            rollups.put(new DayKey(rollup.getCatalogProduct().getId(), rollup.getDay()), rollup);
+        }
+
+        for (PriceHistory segment : segments) {
+            include(rollups, segment, segment.getCheckedAt());
+            include(rollups, segment, lastSeenAt(segment));
+        }
+
+        priceHistoryDailyRepository.saveAll(rollups.values());
+        priceHistoryRepository.deleteAllInBatch(segments);
+        return segments.size();
+    }
+
+    /**
+     * Forgets the history before {@code horizon}. Current segments that started earlier are
+     * clipped to start at the horizon, together with their product's {@code priceChangedAt}, so
+     * the current price keeps its segment. Raw rows are deleted here only when
+     * {@code deleteRawHistory} is set; a partitioned table drops whole months instead.
+     *
+     * @return the number of clipped segments
+     */
+    @Transactional
+    public int expireHistoryBefore(LocalDateTime horizon, boolean deleteRawHistory) {
+        int clipped = priceHistoryRepository.clipCurrentSegmentsBefore(horizon);
+        catalogProductRepository.clipPriceChangedBefore(horizon);
+        priceHistoryDailyRepository.deleteAllBefore(horizon.toLocalDate());
+        if (deleteRawHistory) {
+            priceHistoryRepository.deleteAllCheckedBefore(horizon);
+        }
+        return clipped;
+    }
+
+    private static void include(Map<DayKey, PriceHistoryDaily> rollups, PriceHistory segment, LocalDateTime checkedAt) {
+        DayKey key = new DayKey(segment.getCatalogProduct().getId(), checkedAt.toLocalDate());
+        rollups.computeIfAbsent(key, ignored -> PriceHistoryDaily.builder()
+                        .catalogProduct(segment.getCatalogProduct())
+                        .day(key.day())
+                        .build())
+                .include(checkedAt, segment.getPrice());
+    }
+
+    private static LocalDateTime lastSeenAt(PriceHistory segment) {
+        return segment.getLastConfirmedAt() != null ? segment.getLastConfirmedAt() : segment.getCheckedAt();
+    }
+
+    private record DayKey(Long catalogProductId, LocalDate day) {}
+}
@@ -0,0 +1,54 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.config.PriceHistoryProperties;
+import com.priceprocessor.dtos.api.HistoryCompactionResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps {@code price_history} bounded: segments older than {@code price-history.raw-retention}
+ * are rolled up into daily open/high/low/close records and deleted, in batches of
+ * {@code price-history.compaction-batch-size}. Reads merge both, see {@link ProductService}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PriceHistoryCompactionService {
+
+    private final PriceHistoryCompactionPersistenceService persistenceService;
+    private final PriceHistoryProperties priceHistoryProperties;
+
+    public HistoryCompactionResponse compactHistory() {
+        long start = System.nanoTime();
+        LocalDateTime cutoff = cutoff();
+        int batchSize = Math.max(1, priceHistoryProperties.getCompactionBatchSize());
+
+        int compacted = 0;
+        int batches = 0;
+        int lastBatch;
+        do {
+            lastBatch = persistenceService.compactBatch(cutoff, batchSize);
+            compacted += lastBatch;
+            if (lastBatch > 0) {
+                batches++;
+            }
+        } while (lastBatch == batchSize);
+
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        log.info("History compaction finished. Compacted {} segments older than {} in {} batches, {} ms",
+                compacted, cutoff, batches, elapsedMillis);
+        return new HistoryCompactionResponse(compacted, batches, elapsedMillis);
+    }
+
+    /**
+     * Start of the oldest day kept raw; segments last confirmed before it are rolled up.
+     */
+    private LocalDateTime cutoff() {
+        return LocalDate.now().minusDays(priceHistoryProperties.getRawRetention().toDays()).atStartOfDay();
+    }
+}
@@ -0,0 +1,52 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position after the last entry of a price history page. Daily rollups are paged before raw
+ * segments, so the cursor points either past a rolled-up {@code day} or past the raw segment
+ * identified by ({@code checkedAt}, {@code id}), the order of the keyset query.
+ */
+record PriceHistoryCursor(LocalDate day, LocalDateTime checkedAt, Long id) {
+
+    private static final String DAILY = "d";
+    private static final String RAW = "r";
+    private static final String SEPARATOR = "|";
+
+    static PriceHistoryCursor afterDay(LocalDate day) {
+        return new PriceHistoryCursor(day, null, null);
+    }
+
+    static PriceHistoryCursor afterSegment(LocalDateTime checkedAt, Long id) {
+        return new PriceHistoryCursor(null, checkedAt, id);
+    }
+
+    boolean isDaily() {
+        return day != null;
+    }
+
+    String encode() {
+        String value = isDaily() ? DAILY + SEPARATOR + day : RAW + SEPARATOR + checkedAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PriceHistoryCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length == 2 && DAILY.equals(parts[0])) {
+                return afterDay(LocalDate.parse(parts[1]));
+            }
+            if (parts.length == 3 && RAW.equals(parts[0])) {
+                return afterSegment(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+            }
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(cursor);
+        }
+        throw new InvalidCursorException(cursor);
+    }
+}
@@ -0,0 +1,152 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.config.DatabaseLock;
+import com.priceprocessor.config.PriceHistoryProperties;
+import com.priceprocessor.config.SchemaMigrator;
+import com.priceprocessor.dtos.api.HistoryRetentionResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Expires price history older than {@code price-history.retention}, a month at a time. On MySQL,
+ * where {@code price_history} is range-partitioned by month on {@code checked_at}, expired months
+ * are dropped as whole partitions and the partitions for the next
+ * {@code price-history.partitions-ahead} months are split off the catch-all {@code p_future}
+ * before any row lands there. Other databases delete the expired rows instead.
+ * <p>
+ * A run holds the {@value #LOCK_NAME} {@link DatabaseLock}, so replicas triggered together do not
+ * reorganize the same partitions at once: the first one does the work and the others skip it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PriceHistoryRetentionService {
+
+    static final String FUTURE_PARTITION = "p_future";
+    static final String LOCK_NAME = "price_history_retention";
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final DateTimeFormatter PARTITION_BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseLock databaseLock;
+    private final PriceHistoryCompactionPersistenceService persistenceService;
+    private final PriceHistoryProperties priceHistoryProperties;
+
+    public HistoryRetentionResponse expireHistory() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime horizon = priceHistoryProperties.retentionHorizon(today);
+        AtomicReference<HistoryRetentionResponse> response = new AtomicReference<>();
+        try {
+            if (!databaseLock.runLocked(LOCK_NAME, Duration.ZERO, () -> response.set(expireHistoryLocked(today, horizon)))) {
+                log.info("History retention skipped, another instance is running it");
+                return new HistoryRetentionResponse(horizon, 0, List.of(), List.of(), true);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not take the history retention lock", e);
+        }
+        return response.get();
+    }
+
+    private HistoryRetentionResponse expireHistoryLocked(LocalDate today, LocalDateTime horizon) {
+        List<Partition> partitions = isMySql() ? partitions() : List.of();
+        boolean partitioned = !partitions.isEmpty();
+
+        int clipped = persistenceService.expireHistoryBefore(horizon, !partitioned);
+
+        List<String> created = List.of();
+        List<String> dropped = List.of();
+        if (partitioned) {
+            created = createPartitionsAhead(partitions, YearMonth.from(today));
+            dropped = dropPartitionsBefore(partitions, horizon);
+        }
+
+        log.info("History retention finished. Horizon: {}, clipped segments: {}, created partitions: {}, dropped partitions: {}",
+                horizon, clipped, created, dropped);
+        return new HistoryRetentionResponse(horizon, clipped, created, dropped, false);
+    }
+
+    private List<String> createPartitionsAhead(List<Partition> partitions, YearMonth currentMonth) {
+        LocalDateTime highestBound = partitions.stream()
+                .map(Partition::upperBound)
+                .filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo)
+                .orElse(LocalDateTime.MIN);
+
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = currentMonth; !month.isAfter(currentMonth.plusMonths(priceHistoryProperties.getPartitionsAhead())); month = month.plusMonths(1)) {
+            if (upperBound(month).isAfter(highestBound)) {
+                months.add(month);
+            }
+        }
+        if (months.isEmpty()) {
+            return List.of();
+        }
+
+        String definitions = months.stream()
+                .map(month -> "PARTITION " + month.format(PARTITION_NAME) + " VALUES LESS THAN ('" + upperBound(month).format(PARTITION_BOUND) + "')")
+                .collect(Collectors.joining(", "));
+        jdbcTemplate.execute("ALTER TABLE price_history REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO ("
+                + definitions + ", PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+        return months.stream().map(month -> month.format(PARTITION_NAME)).toList();
+    }
+
+    /**
+     * Only partitions that end at or before the horizon are dropped; their rows are all older
+     * than it, and current segments were clipped out of them first.
+     */
+    private List<String> dropPartitionsBefore(List<Partition> partitions, LocalDateTime horizon) {
+        List<String> expired = partitions.stream()
+                .filter(partition -> partition.upperBound() != null && !partition.upperBound().isAfter(horizon))
+                .map(Partition::name)
+                .toList();
+        if (!expired.isEmpty()) {
+            jdbcTemplate.execute("ALTER TABLE price_history DROP PARTITION " + String.join(", ", expired));
+        }
+        return expired;
+    }
+
+    private boolean isMySql() {
+        return "mysql".equals(jdbcTemplate.execute((ConnectionCallback<String>) SchemaMigrator::vendor));
+    }
+
+    private List<Partition> partitions() {
+        return jdbcTemplate.query("SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'price_history' AND PARTITION_NAME IS NOT NULL " +
+                        "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> new Partition(rs.getString("PARTITION_NAME"), parseBound(rs.getString("PARTITION_DESCRIPTION"))));
+    }
+
+    /**
+     * RANGE COLUMNS bounds are reported quoted, e.g. {@code '2026-11-01 00:00:00'}; the catch-all
+     * partition reports {@code MAXVALUE} and has no bound.
+     */
+    static LocalDateTime parseBound(String description) {
+        String bound = description.replace("'", "").trim();
+        if (bound.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        return bound.length() == 10 ? LocalDate.parse(bound).atStartOfDay() : LocalDateTime.parse(bound, PARTITION_BOUND);
+    }
+
+    private static LocalDateTime upperBound(YearMonth month) {
+        return month.plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    record Partition(String name, LocalDateTime upperBound) {}
+}
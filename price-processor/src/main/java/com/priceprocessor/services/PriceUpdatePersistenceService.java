@@ -0,0 +1,207 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.config.PriceUpdateProperties;
+import com.priceprocessor.dtos.crawler.PriceCheckResult;
+import com.priceprocessor.dtos.crawler.PriceResponse;
+import com.priceprocessor.dtos.update.PriceCheckTask;
+import com.priceprocessor.dtos.update.PriceDrop;
+import com.priceprocessor.exceptions.PriceFetchException;
+import com.priceprocessor.exceptions.crawler.ScraperRejectedException;
+import com.priceprocessor.models.CatalogProduct;
+import com.priceprocessor.models.PriceHistory;
+import com.priceprocessor.repositories.CatalogProductRepository;
+import com.priceprocessor.repositories.PriceHistoryRepository;
+import com.priceprocessor.repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Short transactions around a batch update. Work is claimed and results are applied in
+ * separate transactions so that no JDBC connection is held while the scraper is called.
+ * Claimed products are leased to this replica in between, so several replicas can drain the
+ * same table without scraping or notifying twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PriceUpdatePersistenceService {
+
+    private final CatalogProductRepository catalogProductRepository;
+    private final ProductRepository productRepository;
+    private final PriceHistoryRepository priceHistoryRepository;
+    private final MetricsService metricsService;
+    private final CheckIntervalPolicy checkIntervalPolicy;
+    private final PriceUpdateProperties priceUpdateProperties;
+
+    /**
+     * Identifies this replica as the owner of the leases it takes.
+     */
+    private final String leaseOwner = UUID.randomUUID().toString();
+
+    /**
+     * Products whose next check is due at or before the returned instant are outdated. A drain
+     * run fixes it once at its start; a product it has just checked is rescheduled at least the
+     * minimum check interval ahead, so it is never claimed again within the same run.
+     */
+    public LocalDateTime outdatedThreshold() {
+        return LocalDateTime.now();
+    }
+
+    /**
+     * Leases up to {@code limit} outdated products to this replica, so that other replicas skip
+     * them until the results are applied or the lease expires.
+     */
+    @Transactional
+    public List<PriceCheckTask> claimOutdatedProducts(LocalDateTime threshold, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<CatalogProduct> products = catalogProductRepository.findProductsToUpdate(threshold, now, PageRequest.of(0, limit));
+
+        LocalDateTime leaseExpiresAt = now.plus(priceUpdateProperties.getLeaseDuration());
+        for (CatalogProduct product : products) {
+            product.setLeaseOwner(leaseOwner);
+            product.setLeaseExpiresAt(leaseExpiresAt);
+        }
+        catalogProductRepository.saveAll(products);
+
+        return products.stream()
+                .map(product -> new PriceCheckTask(product.getId(), product.getCanonicalUrl()))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public long countOutdatedProducts(LocalDateTime threshold) {
+        return catalogProductRepository.countProductsToUpdate(threshold, LocalDateTime.now());
+    }
+
+    /**
+     * Applies the scraped prices to the claimed catalog entries and fans every price drop
+     * out to all users watching that entry. A changed price appends a new history segment
+     * without loading the earlier ones; the segments of all unchanged prices are extended by a
+     * single bulk update. Every lease is released; an entry whose check the scraper client
+     * turned away locally keeps its schedule and stays due.
+     */
+    @Transactional
+    public List<PriceDrop> applyResults(List<PriceCheckTask> tasks, Map<String, PriceCheckResult> results) {
+        LocalDateTime now = LocalDateTime.now();
+        List<CatalogProduct> products = catalogProductRepository.findAllByIdForUpdate(
+                tasks.stream().map(PriceCheckTask::catalogProductId).toList()).stream()
+                .filter(product -> isLeasedByThisReplica(product, now))
+                .toList();
+
+        Map<Long, DroppedPrice> droppedProducts = new HashMap<>();
+        List<PriceHistory> newSegments = new ArrayList<>();
+        List<Long> unchangedProductIds = new ArrayList<>();
+        for (CatalogProduct product : products) {
+            applyResult(product, results.get(product.getCanonicalUrl()), now, newSegments, unchangedProductIds)
+                    .ifPresent(drop -> droppedProducts.put(product.getId(), drop));
+            product.setLeaseOwner(null);
+            product.setLeaseExpiresAt(null);
+        }
+
+        // Nothing is written until the single flush before the bulk update or at commit, which
+        // sends the page's product updates and new segments as one JDBC batch per statement
+        catalogProductRepository.saveAll(products);
+        if (!newSegments.isEmpty()) {
+            priceHistoryRepository.saveAll(newSegments);
+        }
+        if (!unchangedProductIds.isEmpty()) {
+            priceHistoryRepository.confirmCurrentPrices(unchangedProductIds, now);
+        }
+
+        if (droppedProducts.isEmpty()) {
+            return List.of();
+        }
+        return productRepository.findAllByCatalogProductIdIn(droppedProducts.keySet()).stream()
+                .map(watcher -> {
+                    DroppedPrice drop = droppedProducts.get(watcher.getCatalogProduct().getId());
+                    return new PriceDrop(watcher.getUserEmail(), drop.productName(), drop.oldPrice(), drop.newPrice());
+                })
+                .toList();
+    }
+
+    /**
+     * A lease that expired while the page was being scraped may have been taken over by another
+     * replica, or may be at any moment; its result is then dropped so the product is not updated
+     * and announced twice. The row is locked, so a lease still held here cannot be taken over
+     * before the result commits.
+     */
+    private boolean isLeasedByThisReplica(CatalogProduct product, LocalDateTime now) {
+        if (leaseOwner.equals(product.getLeaseOwner())
+                && product.getLeaseExpiresAt() != null && product.getLeaseExpiresAt().isAfter(now)) {
+            return true;
+        }
+        log.warn("Lease on catalog product ID: {} was lost or has expired, discarding its result", product.getId());
+        return false;
+    }
+
+    private Optional<DroppedPrice> applyResult(CatalogProduct product, PriceCheckResult result, LocalDateTime now,
+                                               List<PriceHistory> newSegments, List<Long> unchangedProductIds) {
+        if (result != null && result.error() instanceof ScraperRejectedException) {
+            log.info("Check of catalog product ID: {} was not sent ({}), leaving it due", product.getId(), result.error().getMessage());
+            return Optional.empty();
+        }
+
+        try {
+            if (result == null) {
+                throw new PriceFetchException("No price check result");
+            }
+            if (result.isFailure()) {
+                throw result.error();
+            }
+
+            Optional<PriceResponse> responseOpt = result.response();
+
+            if (responseOpt.isPresent()) {
+                metricsService.incrementProductPriceUpdateSuccess();
+                return updateProductData(product, responseOpt.get(), now, newSegments, unchangedProductIds);
+            } else {
+                log.info("Product {} not found", product.getCanonicalUrl());
+                throw new PriceFetchException("Product not found");
+            }
+
+        } catch (PriceFetchException e) {
+            metricsService.incrementProductPriceUpdateFailure(e.getClass().getSimpleName());
+            log.error("Failed to update catalog product ID: {}. Reason: {}", product.getId(), e.getMessage());
+        } catch (Exception e) {
+            metricsService.incrementProductPriceUpdateFailure(e.getClass().getSimpleName());
+            log.error("Critical error updating catalog product ID: {}", product.getId(), e);
+        }
+        product.setLastCheckedAt(now);
+        checkIntervalPolicy.scheduleAfterFailure(product, now);
+        return Optional.empty();
+    }
+
+    private Optional<DroppedPrice> updateProductData(CatalogProduct product, PriceResponse response, LocalDateTime now,
+                                                     List<PriceHistory> newSegments, List<Long> unchangedProductIds) {
+        BigDecimal newPrice = response.price();
+        BigDecimal oldPrice = product.getCurrentPrice();
+
+        product.recordPrice(newPrice, now).ifPresentOrElse(newSegments::add, () -> unchangedProductIds.add(product.getId()));
+        checkIntervalPolicy.scheduleAfterCheck(product, oldPrice, newPrice, now);
+        product.setProductName(response.foundProductName());
+        log.info("Updated price for: {}", product.getProductName());
+
+        if (isPriceLower(newPrice, oldPrice)) {
+            return Optional.of(new DroppedPrice(product.getProductName(), oldPrice, newPrice));
+        }
+        return Optional.empty();
+    }
+
+    private boolean isPriceLower(BigDecimal newPrice, BigDecimal oldPrice) {
+        return oldPrice != null && newPrice.compareTo(oldPrice) < 0;
+    }
+
+    private record DroppedPrice(String productName, BigDecimal oldPrice, BigDecimal newPrice) {}
+}
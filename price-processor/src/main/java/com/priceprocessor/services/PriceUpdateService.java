@@ -1,105 +1,136 @@
 package com.priceprocessor.services;
 
-import com.priceprocessor.dtos.crawler.PriceResponse;
-import com.priceprocessor.exceptions.NotificationServiceException;
-import com.priceprocessor.exceptions.PriceFetchException;
-import com.priceprocessor.models.ProductObservation;
-import com.priceprocessor.repositories.ProductRepository;
-import com.priceprocessor.services.clients.PriceClient;
-import com.priceprocessor.services.queue.NotificationProducer;
+import com.priceprocessor.config.PriceUpdateProperties;
+import com.priceprocessor.dtos.api.BatchUpdateResponse;
+import com.priceprocessor.dtos.crawler.PriceCheckResult;
+import com.priceprocessor.dtos.update.PriceCheckTask;
+import com.priceprocessor.dtos.update.PriceDrop;
+import com.priceprocessor.exceptions.crawler.ScraperRejectedException;
+import com.priceprocessor.services.clients.ScraperRateLimiter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PriceUpdateService {
 
-    private final ProductRepository productRepository;
-    private final PriceClient priceClient;
-    private final NotificationProducer notificationProducer;
-    private final MetricsService metricsService;
-
-    private static final int BATCH_SIZE = 5;
-
-    @Transactional
-    public int updateOutdatedPrices() {
-        List<ProductObservation> productsToUpdate = productRepository.findProductsToUpdate(PageRequest.of(0, BATCH_SIZE));
+    private final PriceUpdatePersistenceService persistenceService;
+    private final PriceCheckEngine priceCheckEngine;
+    private final PriceDropNotifier priceDropNotifier;
+    private final PriceUpdateProperties priceUpdateProperties;
+    private final ScraperRateLimiter scraperRateLimiter;
+
+    /**
+     * Keeps claiming pages until nothing is outdated or the configured drain budget is used up.
+     * Up to {@code price-update.max-in-flight-pages} pages are scraped at the same time while
+     * this thread writes back the oldest one, so claiming slows down to the pace of the database.
+     * Pages that have already been claimed are always finished, so a run may overshoot the
+     * budget by the pages still in flight. A page the scraper client turned away locally (open
+     * circuit) ends the run, since every further page would be turned away too.
+     */
+    public BatchUpdateResponse drainOutdatedPrices() {
+        long start = System.nanoTime();
+        Duration budget = priceUpdateProperties.getDrainBudget();
+        int maxInFlightPages = maxInFlightPages();
+        LocalDateTime threshold = persistenceService.outdatedThreshold();
+
+        Deque<InFlightPage> inFlight = new ArrayDeque<>();
+        int processed = 0;
+        int pages = 0;
+        boolean drained = false;
+        boolean budgetExhausted = false;
+        boolean scraperRejected = false;
+
+        while (true) {
+            while (!drained && !budgetExhausted && !scraperRejected && inFlight.size() < maxInFlightPages) {
+                Optional<InFlightPage> page = startPage(threshold);
+                if (page.isEmpty()) {
+                    drained = true;
+                } else {
+                    inFlight.add(page.get());
+                    budgetExhausted = Duration.ofNanos(System.nanoTime() - start).compareTo(budget) >= 0;
+                }
+            }
 
-        if (productsToUpdate.isEmpty()) {
-            log.info("No products to update");
-            return 0;
+            InFlightPage page = inFlight.poll();
+            if (page == null) {
+                break;
+            }
+            Map<String, PriceCheckResult> results = page.results().join();
+            processed += finishPage(page.tasks(), results);
+            scraperRejected = scraperRejected || countRejected(results) > 0;
+            pages++;
+            budgetExhausted = budgetExhausted || Duration.ofNanos(System.nanoTime() - start).compareTo(budget) >= 0;
         }
 
-        log.info("Starting batch update for {} products", productsToUpdate.size());
+        long remaining = persistenceService.countOutdatedProducts(persistenceService.outdatedThreshold());
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        log.info("Drain finished. Processed: {} in {} pages, remaining: {}, elapsed: {} ms",
+                processed, pages, remaining, elapsedMillis);
 
-        for (ProductObservation product : productsToUpdate) {
-            processProductUpdate(product);
-        }
+        return new BatchUpdateResponse(processed, remaining, pages, elapsedMillis, budgetExhausted && remaining > 0);
+    }
 
-        return productsToUpdate.size();
+    /**
+     * Every in-flight page may have all its products waiting for batch rate limit permits at
+     * once, so no more pages are started than the batch share serves within the max wait.
+     */
+    private int maxInFlightPages() {
+        int pagesWithinMaxWait = scraperRateLimiter.batchPermitsWithinMaxWait(ScraperRateLimiter.Endpoint.BY_URL)
+                / Math.max(1, priceUpdateProperties.getPageSize());
+        return Math.max(1, Math.min(priceUpdateProperties.getMaxInFlightPages(), pagesWithinMaxWait));
     }
 
-    private void processProductUpdate(ProductObservation product) {
-        try {
-            log.debug("Checking price for: {}", product.getProductName());
+    /**
+     * Claims a page and starts scraping it. A page runs in three phases: claim (short transaction
+     * that leases the page), scrape (no transaction) and apply, in {@link #finishPage} (write
+     * transaction that releases the leases). Each catalog product is scraped once, however many
+     * users watch it.
+     */
+    private Optional<InFlightPage> startPage(LocalDateTime threshold) {
+        List<PriceCheckTask> tasks = persistenceService.claimOutdatedProducts(threshold, priceUpdateProperties.getPageSize());
 
-            Optional<PriceResponse> responseOpt = priceClient.checkPriceByUrl(product.getProductUrl());
+        if (tasks.isEmpty()) {
+            log.info("No products to update");
+            return Optional.empty();
+        }
 
-            if (responseOpt.isPresent()) {
-                metricsService.incrementProductPriceUpdateSuccess();
-                updateProductData(product, responseOpt.get());
-            } else {
-                log.info("Product {} not found", product.getProductUrl());
-                throw new PriceFetchException("Product not found");
-            }
+        log.info("Starting batch update for {} products", tasks.size());
 
-        } catch (PriceFetchException e) {
-            metricsService.incrementLoginFailure(e.getClass().getSimpleName());
-            log.error("Failed to update product ID: {}. Reason: {}", product.getId(), e.getMessage());
-        } catch (Exception e) {
-            metricsService.incrementLoginFailure(e.getClass().getSimpleName());
-            log.error("Critical error updating product ID: {}", product.getId(), e);
-        } finally {
-            product.setLastCheckedAt(LocalDateTime.now());
-            productRepository.save(product);
-        }
+        CompletableFuture<Map<String, PriceCheckResult>> results = priceCheckEngine.checkPricesAsync(
+                tasks.stream().map(PriceCheckTask::productUrl).toList());
+        return Optional.of(new InFlightPage(tasks, results));
     }
 
-    private void updateProductData(ProductObservation product, PriceResponse response) {
-        BigDecimal newPrice = response.price();
-        BigDecimal oldPrice = product.getCurrentPrice();
+    /**
+     * Applies a scraped page and sends its notifications, only after the write has committed.
+     *
+     * @return the number of products checked; those the scraper client turned away are only released
+     */
+    private int finishPage(List<PriceCheckTask> tasks, Map<String, PriceCheckResult> results) {
+        List<PriceDrop> priceDrops = persistenceService.applyResults(tasks, results);
+        priceDropNotifier.notifyAll(priceDrops);
 
-        product.addPriceHistory(newPrice, LocalDateTime.now());
-        product.setProductName(response.foundProductName());
-
-        if (isPriceLower(newPrice, oldPrice)) {
-            handlePriceDrop(product, oldPrice, newPrice);
-        }
-        log.info("Updated price for: {}", product.getProductName());
+        return tasks.size() - countRejected(results);
     }
 
-    private boolean isPriceLower(BigDecimal newPrice, BigDecimal oldPrice) {
-        return newPrice.compareTo(oldPrice) < 0;
+    private static int countRejected(Map<String, PriceCheckResult> results) {
+        return (int) results.values().stream()
+                .filter(result -> result.error() instanceof ScraperRejectedException)
+                .count();
     }
 
-    private void handlePriceDrop(ProductObservation product, BigDecimal oldPrice, BigDecimal newPrice) {
-        try {
-            notificationProducer.sendEmailNotification(
-                    product.getUserEmail(),
-                    "Price Drop Alert!",
-                    "Price for " + product.getProductName() + " dropped from " + oldPrice + " to " + newPrice
-            );
-        } catch (Exception e) {
-            log.error("Price updated, but notification failed for user: {}", product.getUserEmail(), new NotificationServiceException("Email sending failed", e));
-        }
+    private record InFlightPage(List<PriceCheckTask> tasks, CompletableFuture<Map<String, PriceCheckResult>> results) {
     }
-}
\ No newline at end of file
+}
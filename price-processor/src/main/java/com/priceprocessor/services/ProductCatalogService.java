@@ -0,0 +1,110 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.dtos.crawler.PriceResponse;
+import com.priceprocessor.dtos.update.ObservationResult;
+import com.priceprocessor.dtos.update.PriceDrop;
+import com.priceprocessor.models.CatalogProduct;
+import com.priceprocessor.models.PriceHistory;
+import com.priceprocessor.models.ProductObservation;
+import com.priceprocessor.repositories.CatalogProductRepository;
+import com.priceprocessor.repositories.PriceHistoryRepository;
+import com.priceprocessor.repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCatalogService {
+
+    private final CatalogProductRepository catalogProductRepository;
+    private final ProductRepository productRepository;
+    private final PriceHistoryRepository priceHistoryRepository;
+    private final CheckIntervalPolicy checkIntervalPolicy;
+
+    /**
+     * Links the user to the catalog entry for the scraped product, creating the entry on first sight.
+     * A fresh scrape of an already known product is recorded on the shared entry; if it is a
+     * price drop, the other watchers are returned for notification.
+     */
+    @Transactional
+    public ObservationResult observe(String userEmail, PriceResponse priceResponse) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<CatalogProduct> existing = catalogProductRepository.findByCanonicalUrl(priceResponse.ceneoUrl());
+
+        CatalogProduct catalogProduct;
+        List<PriceDrop> priceDrops = List.of();
+
+        if (existing.isPresent()) {
+            catalogProduct = existing.get();
+            BigDecimal oldPrice = catalogProduct.getCurrentPrice();
+            catalogProduct.setProductName(priceResponse.foundProductName());
+            Optional<PriceHistory> newSegment = catalogProduct.recordPrice(priceResponse.price(), now);
+            if (newSegment.isPresent()) {
+                priceHistoryRepository.save(newSegment.get());
+            } else {
+                priceHistoryRepository.confirmCurrentPrices(List.of(catalogProduct.getId()), now);
+            }
+            checkIntervalPolicy.scheduleAfterCheck(catalogProduct, oldPrice, priceResponse.price(), now);
+
+            if (oldPrice != null && priceResponse.price().compareTo(oldPrice) < 0) {
+                priceDrops = otherWatchersOf(catalogProduct, userEmail, oldPrice);
+            }
+        } else {
+            catalogProduct = createCatalogProduct(priceResponse, now);
+        }
+
+        ProductObservation observation = findOrCreateObservation(userEmail, catalogProduct);
+        return new ObservationResult(observation, priceDrops);
+    }
+
+    /**
+     * Links the user to the catalog entry of a product answered from the cache. The answer was
+     * recorded by the scrape that produced it, so an existing entry is left as it is and no one is
+     * notified; only a product not in the catalog yet gets its entry created from the answer.
+     */
+    @Transactional
+    public ObservationResult link(String userEmail, PriceResponse priceResponse) {
+        CatalogProduct catalogProduct = catalogProductRepository.findByCanonicalUrl(priceResponse.ceneoUrl())
+                .orElseGet(() -> createCatalogProduct(priceResponse, LocalDateTime.now()));
+
+        ProductObservation observation = findOrCreateObservation(userEmail, catalogProduct);
+        return new ObservationResult(observation, List.of());
+    }
+
+    private CatalogProduct createCatalogProduct(PriceResponse priceResponse, LocalDateTime now) {
+        CatalogProduct catalogProduct = CatalogProduct.builder()
+                .canonicalUrl(priceResponse.ceneoUrl())
+                .productName(priceResponse.foundProductName())
+                .build();
+        Optional<PriceHistory> firstSegment = catalogProduct.recordPrice(priceResponse.price(), now);
+        checkIntervalPolicy.scheduleNew(catalogProduct, now);
+
+        CatalogProduct saved = catalogProductRepository.save(catalogProduct);
+        firstSegment.ifPresent(priceHistoryRepository::save);
+        log.info("Added catalog product ID: {} for URL: {}", saved.getId(), saved.getCanonicalUrl());
+        return saved;
+    }
+
+    private List<PriceDrop> otherWatchersOf(CatalogProduct catalogProduct, String userEmail, BigDecimal oldPrice) {
+        return productRepository.findAllByCatalogProductIdIn(List.of(catalogProduct.getId())).stream()
+                .filter(watcher -> !watcher.getUserEmail().equals(userEmail))
+                .map(watcher -> new PriceDrop(watcher.getUserEmail(), catalogProduct.getProductName(), oldPrice, catalogProduct.getCurrentPrice()))
+                .toList();
+    }
+
+    private ProductObservation findOrCreateObservation(String userEmail, CatalogProduct catalogProduct) {
+        return productRepository.findByUserEmailAndCatalogProductId(userEmail, catalogProduct.getId())
+                .orElseGet(() -> productRepository.save(ProductObservation.builder()
+                        .userEmail(userEmail)
+                        .catalogProduct(catalogProduct)
+                        .build()));
+    }
+}
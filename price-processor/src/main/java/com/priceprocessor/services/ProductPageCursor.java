@@ -0,0 +1,48 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.dtos.api.ProductObservationResponse;
+import com.priceprocessor.dtos.api.ProductSort;
+import com.priceprocessor.exceptions.InvalidCursorException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last product of a list page: its value of the sort column and its id.
+ * Only valid with the sort it was issued for. A product without a price has an empty value.
+ */
+record ProductPageCursor(Object value, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    static ProductPageCursor after(ProductObservationResponse product, ProductSort sort) {
+        Object value = switch (sort) {
+            case ADDED -> product.id();
+            case NAME -> product.productName();
+            case PRICE -> product.currentPrice();
+        };
+        return new ProductPageCursor(value, product.id());
+    }
+
+    String encode() {
+        String raw = (value == null ? "" : value) + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ProductPageCursor decode(String cursor, ProductSort sort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            String value = raw.substring(0, separator);
+            Long id = Long.parseLong(raw.substring(separator + 1));
+            return new ProductPageCursor(switch (sort) {
+                case ADDED -> Long.parseLong(value);
+                case NAME -> value;
+                case PRICE -> value.isEmpty() ? null : new BigDecimal(value);
+            }, id);
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -1,30 +1,63 @@
 package com.priceprocessor.services;
 
+import com.priceprocessor.config.PriceHistoryProperties;
+import com.priceprocessor.config.ProductListProperties;
 import com.priceprocessor.dtos.api.*;
 import com.priceprocessor.dtos.crawler.PriceResponse;
+import com.priceprocessor.dtos.update.ObservationResult;
 import com.priceprocessor.exceptions.ProductNotFoundException;
 import com.priceprocessor.exceptions.ProductNotFoundInStoreException;
+import com.priceprocessor.models.CatalogProduct;
+import com.priceprocessor.models.PriceHistory;
+import com.priceprocessor.models.PriceHistoryDaily;
 import com.priceprocessor.models.ProductObservation;
+import com.priceprocessor.repositories.PriceHistoryDailyRepository;
+import com.priceprocessor.repositories.PriceHistoryRepository;
+import com.priceprocessor.repositories.PriceHistoryRepositoryCustom;
 import com.priceprocessor.repositories.ProductRepository;
+import com.priceprocessor.services.cache.PriceResponseCache;
 import com.priceprocessor.services.clients.PriceClient;
+import com.priceprocessor.services.clients.ScraperRequestCoalescer;
 import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductService {
 
+    private static final int OBSERVE_ATTEMPTS = 3;
+
     private final ProductRepository productRepository;
+    private final PriceHistoryRepository priceHistoryRepository;
+    private final PriceHistoryDailyRepository priceHistoryDailyRepository;
+    private final PriceHistoryProperties priceHistoryProperties;
+    private final ProductListProperties productListProperties;
     private final PriceClient priceClient;
+    private final ProductCatalogService productCatalogService;
+    private final PriceDropNotifier priceDropNotifier;
+    private final PriceResponseCache priceResponseCache;
+    private final ScraperRequestCoalescer scraperRequestCoalescer;
 
     private String getCurrentUserEmail() {
         return SecurityContextHolder.getContext().getAuthentication().getName();
@@ -38,69 +71,197 @@ public class ProductService {
         ProductObservation product = productRepository.findByIdAndUserEmail(id, currentUser)
                 .orElseThrow(() -> new ProductNotFoundException(id));
 
-        List<ProductDetailsResponse.PriceHistoryDto> historyDtos = product.getPriceHistory().stream()
-                .map(h -> new ProductDetailsResponse.PriceHistoryDto(h.getPrice(), h.getCheckedAt()))
-                .toList();
+        CatalogProduct catalogProduct = product.getCatalogProduct();
+
+        // Only the latest records: raw segments first, then rolled-up days if those fall short.
+        // Bounded by checked_at, so MySQL reads only the partitions still retained
+        int limit = priceHistoryProperties.getDetailsLimit();
+        List<PriceHistory> segments = priceHistoryRepository.findLatestByCatalogProductId(catalogProduct.getId(),
+                priceHistoryProperties.retentionHorizon(LocalDate.now()), PageRequest.of(0, limit));
+        List<PriceHistoryDaily> days = segments.size() < limit
+                ? priceHistoryDailyRepository.findByCatalogProductIdOrderByDayDesc(catalogProduct.getId(), PageRequest.of(0, limit - segments.size()))
+                : List.of();
+        List<ProductDetailsResponse.PriceHistoryDto> historyDtos = toTimeline(days, segments);
 
         return new ProductDetailsResponse(
                 product.getId(),
-                product.getProductName(),
-                product.getProductUrl(),
-                product.getCurrentPrice(),
+                catalogProduct.getProductName(),
+                catalogProduct.getCanonicalUrl(),
+                catalogProduct.getCurrentPrice(),
                 product.getUserEmail(),
-                historyDtos
+                historyDtos,
+                catalogProduct.getPriceStats() == null ? null : ProductDetailsResponse.PriceStatsDto.mapToDto(catalogProduct.getPriceStats())
         );
     }
 
-    @Transactional
+    /**
+     * A page of a product's history checked in [{@code from}, {@code to}), oldest first: its
+     * rolled-up days, then its raw segments. {@code from} defaults to, and is never earlier than,
+     * the retention horizon; {@code to} defaults to the start of tomorrow.
+     */
+    @Transactional(readOnly = true)
+    public PriceHistoryPageResponse getPriceHistory(Long id, LocalDateTime from, LocalDateTime to, String cursor, Integer limit) {
+        String currentUser = getCurrentUserEmail();
+
+        ProductObservation product = productRepository.findByIdAndUserEmail(id, currentUser)
+                .orElseThrow(() -> new ProductNotFoundException(id));
+        Long catalogProductId = product.getCatalogProduct().getId();
+
+        PriceHistoryCursor after = cursor == null || cursor.isBlank() ? null : PriceHistoryCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(limit == null ? priceHistoryProperties.getPageSize() : limit, 1),
+                priceHistoryProperties.getMaxPageSize());
+        LocalDateTime horizon = priceHistoryProperties.retentionHorizon(LocalDate.now());
+        LocalDateTime rangeFrom = from == null || from.isBefore(horizon) ? horizon : from;
+        LocalDateTime rangeTo = to == null ? LocalDate.now().plusDays(1).atStartOfDay() : to;
+
+        List<PriceHistoryPageResponse.PriceHistoryEntryDto> entries = new ArrayList<>();
+        PriceHistoryCursor next = null;
+
+        if (after == null || after.isDaily()) {
+            LocalDate afterDay = after == null ? rangeFrom.toLocalDate().minusDays(1) : after.day();
+            List<PriceHistoryDaily> days = priceHistoryDailyRepository.findPageByCatalogProductId(catalogProductId,
+                    afterDay, rangeTo.minusNanos(1).toLocalDate(), PageRequest.of(0, pageSize + 1));
+            for (PriceHistoryDaily day : days.subList(0, Math.min(days.size(), pageSize))) {
+                entries.add(new PriceHistoryPageResponse.PriceHistoryEntryDto(day.getClosePrice(),
+                        day.getFirstCheckedAt(), day.getLastCheckedAt(), day.getLowPrice(), day.getHighPrice()));
+                next = PriceHistoryCursor.afterDay(day.getDay());
+            }
+            if (days.size() > pageSize) {
+                return new PriceHistoryPageResponse(entries, next.encode());
+            }
+        }
+
+        int remaining = pageSize - entries.size();
+        boolean afterSegment = after != null && !after.isDaily();
+        List<PriceHistory> segments = priceHistoryRepository.findPageByCatalogProductId(catalogProductId, rangeFrom, rangeTo,
+                afterSegment ? after.checkedAt() : rangeFrom, afterSegment ? after.id() : 0L,
+                PageRequest.of(0, remaining + 1));
+        for (PriceHistory segment : segments.subList(0, Math.min(segments.size(), remaining))) {
+            entries.add(new PriceHistoryPageResponse.PriceHistoryEntryDto(segment.getPrice(),
+                    segment.getCheckedAt(), segment.getLastConfirmedAt(), null, null));
+            next = PriceHistoryCursor.afterSegment(segment.getCheckedAt(), segment.getId());
+        }
+
+        return new PriceHistoryPageResponse(entries, segments.size() > remaining ? next.encode() : null);
+    }
+
+    // Deliberately not transactional: the scraper call must not pin a JDBC connection,
+    // the observation is persisted in the repository's own short transaction.
     public ProductObservationResponse startObservingProductByName(ProductObservationByNameRequest request) {
         log.info("User {} requested observation for product name: {}", getCurrentUserEmail(), request.productName());
 
-        Optional<PriceResponse> response = priceClient.checkPriceByName(request.productName());
+        Optional<PriceResponse> response = scraperRequestCoalescer.byName(request.productName(),
+                () -> priceClient.checkPriceByName(request.productName()));
 
         if (response.isEmpty()) {
             throw new ProductNotFoundInStoreException(request.productName());
         }
 
-        return saveNewProductObservation(response.get());
+        priceResponseCache.put(response.get().ceneoUrl(), response.get());
+        return saveNewProductObservation(response.get(), productCatalogService::observe);
     }
 
-    @Transactional
     public ProductObservationResponse startObservingProductByUrl(ProductObservationByUrlRequest request) {
         log.info("User {} requested observation for URL: {}", getCurrentUserEmail(), request.productUrl());
 
-        Optional<PriceResponse> response = priceClient.checkPriceByUrl(request.productUrl());
+        Optional<PriceResponse> cached = priceResponseCache.get(request.productUrl());
+        if (cached.isPresent()) {
+            // Already recorded by the scrape that produced it, so it is not counted as a check again
+            return saveNewProductObservation(cached.get(), productCatalogService::link);
+        }
+
+        Optional<PriceResponse> response = scraperRequestCoalescer.byUrl(request.productUrl(),
+                () -> priceClient.checkPriceByUrl(request.productUrl()));
 
         if (response.isEmpty()) {
             throw new ProductNotFoundInStoreException(request.productUrl());
         }
 
-        return saveNewProductObservation(response.get());
+        // The scraper may report the product under another URL than the one the user pasted
+        String requestedUrl = CeneoUrlCanonicalizer.canonicalize(request.productUrl());
+        String productUrl = CeneoUrlCanonicalizer.canonicalize(response.get().ceneoUrl());
+        priceResponseCache.put(productUrl, response.get());
+        if (!requestedUrl.equals(productUrl)) {
+            priceResponseCache.put(requestedUrl, response.get());
+        }
+        return saveNewProductObservation(response.get(), productCatalogService::observe);
     }
 
-    private ProductObservationResponse saveNewProductObservation(PriceResponse priceResponse) {
+    private ProductObservationResponse saveNewProductObservation(PriceResponse scrapedResponse,
+                                                                 BiFunction<String, PriceResponse, ObservationResult> write) {
         String currentUser = getCurrentUserEmail();
+        PriceResponse priceResponse = new PriceResponse(scrapedResponse.foundProductName(), scrapedResponse.price(),
+                scrapedResponse.currency(), CeneoUrlCanonicalizer.canonicalize(scrapedResponse.ceneoUrl()));
 
-        ProductObservation observation = ProductObservation.builder()
-                .productName(priceResponse.foundProductName())
-                .productUrl(priceResponse.ceneoUrl())
-                .userEmail(currentUser)
-                .build();
-
-        observation.addPriceHistory(priceResponse.price(), LocalDateTime.now());
+        ObservationResult result = writeObservation(write, currentUser, priceResponse);
+        priceDropNotifier.notifyAll(result.priceDrops());
 
-        ProductObservation saved = productRepository.save(observation);
+        ProductObservation saved = result.observation();
         log.info("Started observing product ID: {} for user: {}", saved.getId(), currentUser);
 
         return ProductObservationResponse.mapToDto(saved);
     }
 
-    public List<ProductObservationResponse> getAllObservedProducts() {
+    /**
+     * Records the observation, retrying when a concurrent request created the same catalog entry
+     * or observation first, or a concurrent check or update wrote the catalog entry in between.
+     */
+    private ObservationResult writeObservation(BiFunction<String, PriceResponse, ObservationResult> write,
+                                               String userEmail, PriceResponse priceResponse) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write.apply(userEmail, priceResponse);
+            } catch (DataIntegrityViolationException | ObjectOptimisticLockingFailureException e) {
+                if (attempt >= OBSERVE_ATTEMPTS) {
+                    throw e;
+                }
+                log.info("Concurrent write for URL: {}, retrying", priceResponse.ceneoUrl());
+            }
+        }
+    }
+
+    /**
+     * A page of the current user's observed products in the requested order; pass the returned
+     * {@code nextCursor} back to get the following page.
+     */
+    @Transactional(readOnly = true)
+    public ProductObservationPageResponse getObservedProducts(ProductSort sort, Sort.Direction direction, String cursor, Integer limit) {
         String currentUser = getCurrentUserEmail();
 
-        return productRepository.findAllByUserEmail(currentUser).stream()
-                .map(ProductObservationResponse::mapToDto)
+        ProductPageCursor after = cursor == null || cursor.isBlank() ? null : ProductPageCursor.decode(cursor, sort);
+        int pageSize = Math.min(Math.max(limit == null ? productListProperties.getPageSize() : limit, 1),
+                productListProperties.getMaxPageSize());
+
+        List<ProductObservationResponse> products = productRepository.findPageByUserEmail(currentUser, sort, direction,
+                after == null ? null : after.value(), after == null ? null : after.id(), pageSize + 1);
+        if (products.size() <= pageSize) {
+            return new ProductObservationPageResponse(products, null);
+        }
+        List<ProductObservationResponse> page = products.subList(0, pageSize);
+        return new ProductObservationPageResponse(page, ProductPageCursor.after(page.get(pageSize - 1), sort).encode());
+    }
+
+    /**
+     * A page of the observed products like {@link #getObservedProducts}, each with its sparkline
+     * and window statistics, so the dashboard paints from one request. The points of the whole
+     * page come from a single query.
+     */
+    @Transactional(readOnly = true)
+    public ProductDashboardResponse getDashboard(ProductSort sort, Sort.Direction direction, String cursor, Integer limit) {
+        ProductObservationPageResponse page = getObservedProducts(sort, direction, cursor, limit);
+        LocalDate today = LocalDate.now();
+        LocalDateTime windowStart = today.atStartOfDay().minus(productListProperties.getSparklineWindow());
+
+        Map<Long, List<PriceHistoryRepositoryCustom.SparklinePoint>> points = priceHistoryRepository.findSparklines(
+                        page.items().stream().map(ProductObservationResponse::id).toList(), windowStart,
+                        priceHistoryProperties.retentionHorizon(today), productListProperties.getSparklinePoints())
+                .stream()
+                .collect(Collectors.groupingBy(PriceHistoryRepositoryCustom.SparklinePoint::observationId));
+
+        List<ProductDashboardResponse.DashboardProductDto> items = page.items().stream()
+                .map(product -> toDashboardProduct(product, points.getOrDefault(product.id(), List.of()), windowStart))
                 .toList();
+        return new ProductDashboardResponse(items, page.nextCursor());
     }
 
     @Transactional
@@ -113,4 +274,48 @@ public class ProductService {
         productRepository.delete(product);
         log.info("Deleted product ID: {} for user: {}", id, currentUser);
     }
-}
\ No newline at end of file
+
+    /**
+     * A segment that began before the window is drawn from the window start, the price it
+     * still had then. The change is measured from that opening price to the current one.
+     */
+    private static ProductDashboardResponse.DashboardProductDto toDashboardProduct(ProductObservationResponse product,
+                                                                                  List<PriceHistoryRepositoryCustom.SparklinePoint> points,
+                                                                                  LocalDateTime windowStart) {
+        List<ProductDetailsResponse.PriceHistoryDto> sparkline = points.stream()
+                .map(point -> new ProductDetailsResponse.PriceHistoryDto(point.price(),
+                        point.checkedAt().isBefore(windowStart) ? windowStart : point.checkedAt()))
+                .toList();
+        PriceHistoryRepositoryCustom.SparklinePoint stats = points.isEmpty() ? null : points.get(0);
+        BigDecimal changePercent = null;
+        if (stats != null && product.currentPrice() != null && stats.openPrice().signum() != 0) {
+            changePercent = product.currentPrice().subtract(stats.openPrice())
+                    .multiply(BigDecimal.valueOf(100))
+                    .divide(stats.openPrice(), 2, RoundingMode.HALF_UP);
+        }
+        return new ProductDashboardResponse.DashboardProductDto(product.id(), product.productName(), product.currentPrice(),
+                product.productUrl(), product.lastChecked(),
+                stats == null ? null : stats.minPrice(), stats == null ? null : stats.maxPrice(), changePercent, sparkline);
+    }
+
+    /**
+     * Merges the daily rollups of compacted history with the raw segments into one timeline.
+     * A rollup becomes one point at its last check of the day; a segment expands back into the
+     * check that first saw its price and, when later checks confirmed it, the last of them.
+     */
+    private static List<ProductDetailsResponse.PriceHistoryDto> toTimeline(List<PriceHistoryDaily> days, List<PriceHistory> segments) {
+        List<ProductDetailsResponse.PriceHistoryDto> timeline = new ArrayList<>();
+        for (PriceHistoryDaily day : days) {
+            timeline.add(new ProductDetailsResponse.PriceHistoryDto(day.getClosePrice(), day.getLastCheckedAt(), day.getLowPrice(), day.getHighPrice()));
+        }
+        for (PriceHistory segment : segments) {
+            timeline.add(new ProductDetailsResponse.PriceHistoryDto(segment.getPrice(), segment.getCheckedAt()));
+            LocalDateTime lastConfirmedAt = segment.getLastConfirmedAt();
+            if (lastConfirmedAt != null && lastConfirmedAt.isAfter(segment.getCheckedAt())) {
+                timeline.add(new ProductDetailsResponse.PriceHistoryDto(segment.getPrice(), lastConfirmedAt));
+            }
+        }
+        timeline.sort(Comparator.comparing(ProductDetailsResponse.PriceHistoryDto::checkedAt));
+        return timeline;
+    }
+}
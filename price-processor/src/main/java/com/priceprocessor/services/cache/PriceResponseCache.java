@@ -0,0 +1,47 @@
+package com.priceprocessor.services.cache;
+
+import com.priceprocessor.config.ScraperProperties;
+import com.priceprocessor.dtos.crawler.PriceResponse;
+import com.priceprocessor.services.CeneoUrlCanonicalizer;
+import com.priceprocessor.services.MetricsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Recent scraper answers by canonical product URL, shared by user requests and batch updates, so a product
+ * scraped by one of them is not scraped again by the other within {@code scraper.api.result-cache.ttl}.
+ */
+@Service
+public class PriceResponseCache {
+
+    private static final String CACHE_NAME = "price-response";
+
+    private final MetricsService metricsService;
+    private final TtlCache<String, PriceResponse> cache;
+
+    @Autowired
+    public PriceResponseCache(ScraperProperties scraperProperties, MetricsService metricsService) {
+        this(scraperProperties, metricsService, System::nanoTime);
+    }
+
+    PriceResponseCache(ScraperProperties scraperProperties, MetricsService metricsService, LongSupplier nanoClock) {
+        ScraperProperties.Cache config = scraperProperties.getResultCache();
+        this.metricsService = metricsService;
+        this.cache = new TtlCache<>(config.getTtl(), config.getMaxEntries(), nanoClock,
+                cause -> metricsService.incrementCacheEviction(CACHE_NAME, cause.name()));
+        metricsService.registerCacheSize(CACHE_NAME, cache::size);
+    }
+
+    public Optional<PriceResponse> get(String productUrl) {
+        Optional<PriceResponse> response = cache.get(CeneoUrlCanonicalizer.canonicalize(productUrl));
+        metricsService.incrementCacheLookup(CACHE_NAME, response.isPresent());
+        return response;
+    }
+
+    public void put(String productUrl, PriceResponse response) {
+        cache.put(CeneoUrlCanonicalizer.canonicalize(productUrl), response);
+    }
+}
@@ -0,0 +1,63 @@
+package com.priceprocessor.services.cache;
+
+import com.priceprocessor.config.ScraperProperties;
+import com.priceprocessor.dtos.errors.ScraperErrorCode;
+import com.priceprocessor.dtos.errors.ScraperErrorResponse;
+import com.priceprocessor.services.MetricsService;
+import com.priceprocessor.services.clients.ScraperResponseMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers queries the scraper has answered with a definite "no" (unknown product, not a Ceneo
+ * URL) for {@code scraper.api.negative-cache.ttl}, so a retried typo is answered without
+ * scraping again. Other errors may be transient and are never remembered.
+ */
+@Service
+public class ScraperNegativeCache {
+
+    private static final String CACHE_NAME = "negative";
+    private static final Set<ScraperErrorCode> REMEMBERED_ERRORS = EnumSet.of(
+            ScraperErrorCode.PRODUCT_NOT_FOUND,
+            ScraperErrorCode.INVALID_DOMAIN);
+
+    private final MetricsService metricsService;
+    private final ScraperResponseMapper scraperResponseMapper;
+    private final TtlCache<String, ScraperErrorResponse> cache;
+
+    @Autowired
+    public ScraperNegativeCache(ScraperProperties scraperProperties, MetricsService metricsService, ScraperResponseMapper scraperResponseMapper) {
+        this(scraperProperties, metricsService, scraperResponseMapper, System::nanoTime);
+    }
+
+    ScraperNegativeCache(ScraperProperties scraperProperties, MetricsService metricsService,
+                         ScraperResponseMapper scraperResponseMapper, LongSupplier nanoClock) {
+        ScraperProperties.Cache config = scraperProperties.getNegativeCache();
+        this.metricsService = metricsService;
+        this.scraperResponseMapper = scraperResponseMapper;
+        this.cache = new TtlCache<>(config.getTtl(), config.getMaxEntries(), nanoClock,
+                cause -> metricsService.incrementCacheEviction(CACHE_NAME, cause.name()));
+        metricsService.registerCacheSize(CACHE_NAME, cache::size);
+    }
+
+    /**
+     * Throws the exception the scraper's remembered answer maps to, if there is one for the query.
+     */
+    public void throwIfKnown(String query) {
+        ScraperErrorResponse error = cache.get(query).orElse(null);
+        if (error != null) {
+            metricsService.incrementScraperNegativeCacheHit(error.errorCode().name());
+            throw scraperResponseMapper.exceptionFor(error);
+        }
+    }
+
+    public void remember(String query, ScraperErrorResponse error) {
+        if (REMEMBERED_ERRORS.contains(error.errorCode())) {
+            cache.put(query, error);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.priceprocessor.services.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-process cache whose entries expire a fixed time after they were written. When full,
+ * the least recently read entry is evicted. Expired entries are dropped when they are read or
+ * when the cache needs room.
+ */
+public class TtlCache<K, V> {
+
+    public enum RemovalCause {
+        EXPIRED,
+        SIZE
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+    private final Consumer<RemovalCause> evictionListener;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public TtlCache(Duration ttl, int maxEntries, LongSupplier nanoClock, Consumer<RemovalCause> evictionListener) {
+        if (ttl.isNegative() || maxEntries < 1) {
+            throw new IllegalArgumentException("Cache needs a non-negative TTL and room for at least one entry");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+        this.evictionListener = evictionListener;
+    }
+
+    public synchronized Optional<V> get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (isExpired(entry, nanoClock.getAsLong())) {
+            entries.remove(key);
+            evictionListener.accept(RemovalCause.EXPIRED);
+            return Optional.empty();
+        }
+        return Optional.of(entry.value());
+    }
+
+    public synchronized void put(K key, V value) {
+        long now = nanoClock.getAsLong();
+        entries.put(key, new Entry<>(value, now + ttlNanos));
+        if (entries.size() > maxEntries) {
+            evictExpired(now);
+        }
+
+        Iterator<Entry<V>> leastRecentlyUsed = entries.values().iterator();
+        while (entries.size() > maxEntries) {
+            leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            evictionListener.accept(RemovalCause.SIZE);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (isExpired(iterator.next().getValue(), now)) {
+                iterator.remove();
+                evictionListener.accept(RemovalCause.EXPIRED);
+            }
+        }
+    }
+
+    private static boolean isExpired(Entry<?> entry, long now) {
+        return now - entry.expiresAt() >= 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.priceprocessor.services.clients;
+
+import com.priceprocessor.dtos.crawler.PriceCheckResult;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Checks prices for batch updates: the returned future completes when the scraper answers,
+ * without a thread waiting for it in the meantime.
+ */
+public interface AsyncPriceClient {
+
+    /**
+     * Checks many product URLs at once. The future completes with an entry for every distinct URL,
+     * or exceptionally if the request itself failed.
+     */
+    CompletableFuture<Map<String, PriceCheckResult>> checkPricesByUrlsAsync(Collection<String> productUrls);
+}
@@ -0,0 +1,220 @@
+package com.priceprocessor.services.clients;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.priceprocessor.config.ScraperProperties;
+import com.priceprocessor.dtos.crawler.PriceCheckResult;
+import com.priceprocessor.dtos.crawler.ScraperBulkResponse;
+import com.priceprocessor.dtos.crawler.ScraperBulkUrlRequest;
+import com.priceprocessor.exceptions.PriceFetchException;
+import com.priceprocessor.exceptions.ProductNotFoundInStoreException;
+import com.priceprocessor.exceptions.crawler.InvalidStoreUrlException;
+import com.priceprocessor.services.clients.ScraperRateLimiter.CallerType;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking client for the scraper's bulk endpoint, used by batch updates. Calls go through
+ * the same circuit breaker as {@link CeneoPriceClient} and draw from the batch rate limit, but
+ * never park a thread: a rate limit wait is a scheduled delay, and calls beyond
+ * {@code scraper.api.bulkhead.max-concurrent-batch} queue until a running call completes.
+ * Neither is ever rejected; only a circuit that is open when the call is due fails it unsent.
+ */
+@Service
+@Slf4j
+public class CeneoAsyncPriceClient implements AsyncPriceClient {
+
+    private final CloseableHttpAsyncClient scraperAsyncHttpClient;
+    private final ObjectMapper objectMapper;
+    private final ScraperProperties scraperProperties;
+    private final ScraperRateLimiter scraperRateLimiter;
+    private final ScraperCircuitBreaker scraperCircuitBreaker;
+    private final ScraperResponseMapper scraperResponseMapper;
+    private final int maxConcurrentCalls;
+
+    private final Queue<Runnable> waitingCalls = new ArrayDeque<>();
+    private int runningCalls;
+
+    public CeneoAsyncPriceClient(CloseableHttpAsyncClient scraperAsyncHttpClient,
+                                 ObjectMapper objectMapper,
+                                 ScraperProperties scraperProperties,
+                                 ScraperRateLimiter scraperRateLimiter,
+                                 ScraperCircuitBreaker scraperCircuitBreaker,
+                                 ScraperResponseMapper scraperResponseMapper) {
+        this.scraperAsyncHttpClient = scraperAsyncHttpClient;
+        this.objectMapper = objectMapper;
+        this.scraperProperties = scraperProperties;
+        this.scraperRateLimiter = scraperRateLimiter;
+        this.scraperCircuitBreaker = scraperCircuitBreaker;
+        this.scraperResponseMapper = scraperResponseMapper;
+        this.maxConcurrentCalls = Math.max(1, scraperProperties.getBulkhead().getMaxConcurrentBatch());
+    }
+
+    @Override
+    public CompletableFuture<Map<String, PriceCheckResult>> checkPricesByUrlsAsync(Collection<String> productUrls) {
+        List<String> urls = productUrls.stream().distinct().toList();
+        if (urls.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+
+        return whenSlotFree(() -> guardedCall(urls.size(), () -> postToScraper(urls)))
+                .thenApply(response -> scraperResponseMapper.toResults(urls, response));
+    }
+
+    private <T> CompletableFuture<T> whenSlotFree(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> startCall(call).whenComplete((value, error) -> {
+            releaseSlot();
+            if (error != null) {
+                result.completeExceptionally(unwrap(error));
+            } else {
+                result.complete(value);
+            }
+        });
+
+        boolean startNow;
+        synchronized (waitingCalls) {
+            startNow = runningCalls < maxConcurrentCalls;
+            if (startNow) {
+                runningCalls++;
+            } else {
+                waitingCalls.add(start);
+            }
+        }
+
+        if (startNow) {
+            start.run();
+        }
+        return result;
+    }
+
+    private void releaseSlot() {
+        Runnable next;
+        synchronized (waitingCalls) {
+            next = waitingCalls.poll();
+            if (next == null) {
+                runningCalls--;
+            }
+        }
+
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    private static <T> CompletableFuture<T> startCall(Supplier<CompletableFuture<T>> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Reserves the batch rate first and asks the circuit breaker only once the delayed call is
+     * about to be sent, so a permit (a half-open trial slot in particular) is never held while
+     * the call waits for its rate. The reservation always succeeds, so the call is delayed rather
+     * than rejected; answers about the products themselves count as successes for the breaker.
+     */
+    private <T> CompletableFuture<T> guardedCall(int permits, Supplier<CompletableFuture<T>> call) {
+        Duration wait = scraperRateLimiter.reserveWithoutBlocking(ScraperRateLimiter.Endpoint.BY_URL, CallerType.BATCH, permits);
+
+        CompletableFuture<Void> permitted = wait.isZero()
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(wait.toNanos(), TimeUnit.NANOSECONDS));
+
+        return permitted.thenCompose(ignored -> {
+            ScraperCircuitBreaker.Permit permit = scraperCircuitBreaker.acquirePermission();
+            return startCall(call).whenComplete((value, error) -> recordOutcome(permit, error));
+        });
+    }
+
+    private void recordOutcome(ScraperCircuitBreaker.Permit permit, Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause == null || cause instanceof ProductNotFoundInStoreException || cause instanceof InvalidStoreUrlException) {
+            scraperCircuitBreaker.onSuccess(permit);
+        } else {
+            scraperCircuitBreaker.onFailure(permit);
+        }
+    }
+
+    private CompletableFuture<Optional<ScraperBulkResponse>> postToScraper(List<String> urls) {
+        String url = scraperProperties.getBulkUrl();
+        SimpleHttpRequest request;
+        try {
+            request = SimpleRequestBuilder.post(url)
+                    .setBody(objectMapper.writeValueAsBytes(new ScraperBulkUrlRequest(urls)), ContentType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new PriceFetchException("Unexpected scraper error", e));
+        }
+
+        CompletableFuture<SimpleHttpResponse> response = new CompletableFuture<>();
+        scraperAsyncHttpClient.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse result) {
+                response.complete(result);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                log.error("Network error connecting to scraper: {}", ex.getMessage());
+                response.completeExceptionally(new PriceFetchException("Scraper network error (timeout/unreachable)", ex));
+            }
+
+            @Override
+            public void cancelled() {
+                response.completeExceptionally(new PriceFetchException("Scraper request cancelled"));
+            }
+        });
+
+        return response.thenApply(result -> toBulkResponse(url, result));
+    }
+
+    private Optional<ScraperBulkResponse> toBulkResponse(String url, SimpleHttpResponse response) {
+        int status = response.getCode();
+        if (status >= 400 && status < 500) {
+            throw scraperResponseMapper.toException(status, response.getBodyText());
+        }
+        if (status < 200 || status >= 300) {
+            log.error("Unknown error fetching prices, scraper answered {}", status);
+            throw new PriceFetchException("Unexpected scraper error");
+        }
+
+        byte[] body = response.getBodyBytes();
+        if (body == null || body.length == 0) {
+            log.warn("Scraper returned 200 OK but empty body for url: {}", url);
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(objectMapper.readValue(body, ScraperBulkResponse.class));
+        } catch (IOException e) {
+            log.error("Unknown error fetching prices: {}", e.getMessage(), e);
+            throw new PriceFetchException("Unexpected scraper error", e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
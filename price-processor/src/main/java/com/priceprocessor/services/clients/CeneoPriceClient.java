@@ -1,7 +1,5 @@
 package com.priceprocessor.services.clients;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.priceprocessor.config.ScraperProperties;
 import com.priceprocessor.dtos.crawler.PriceResponse;
 import com.priceprocessor.dtos.crawler.ScraperSearchRequest;
@@ -10,8 +8,8 @@ import com.priceprocessor.dtos.errors.ScraperErrorResponse;
 import com.priceprocessor.exceptions.PriceFetchException;
 import com.priceprocessor.exceptions.ProductNotFoundInStoreException;
 import com.priceprocessor.exceptions.crawler.InvalidStoreUrlException;
-import com.priceprocessor.exceptions.crawler.ScraperException;
 import com.priceprocessor.services.MetricsService;
+import com.priceprocessor.services.cache.ScraperNegativeCache;
 import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +20,7 @@ import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
@@ -29,25 +28,76 @@ import java.util.Optional;
 public class CeneoPriceClient implements PriceClient {
 
     private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
     private final ScraperProperties scraperProperties;
     private final MetricsService metricsService;
+    private final ScraperRateLimiter scraperRateLimiter;
+    private final ScraperCircuitBreaker scraperCircuitBreaker;
+    private final ScraperBulkhead scraperBulkhead;
+    private final ScraperResponseMapper scraperResponseMapper;
+    private final ScraperNegativeCache scraperNegativeCache;
 
     @Override
     @Timed(value = "scraper.client.request", description = "Time taken to call python scraper", extraTags = {"type", "searchByName"})
     public Optional<PriceResponse> checkPriceByName(String productName) {
-        return postToScraper(scraperProperties.getSearchUrl(), new ScraperSearchRequest(productName));
+        String query = "name:" + ScraperQuery.name(productName);
+        scraperNegativeCache.throwIfKnown(query);
+        return guardedCall(ScraperRateLimiter.Endpoint.BY_NAME,
+                () -> postToScraper(scraperProperties.getSearchUrl(), new ScraperSearchRequest(productName), PriceResponse.class, query));
     }
 
     @Override
     @Timed(value = "scraper.client.request", description = "Time taken to call python scraper", extraTags = {"type", "directUrl"})
     public Optional<PriceResponse> checkPriceByUrl(String productUrl) {
-        return postToScraper(scraperProperties.getDirectUrl(), new ScraperUrlRequest(productUrl));
+        String query = "url:" + ScraperQuery.url(productUrl);
+        scraperNegativeCache.throwIfKnown(query);
+        return guardedCall(ScraperRateLimiter.Endpoint.BY_URL,
+                () -> postToScraper(scraperProperties.getDirectUrl(), new ScraperUrlRequest(productUrl), PriceResponse.class, query));
     }
 
-    private Optional<PriceResponse> postToScraper(String url, Object body) {
+    /**
+     * Runs the call through the circuit breaker, the bulkhead and the rate limiter, in that order,
+     * so an open circuit fails fast without queueing. Answers about the product itself (not found,
+     * invalid URL) mean the scraper is healthy and count as successes for the breaker.
+     */
+    private <T> Optional<T> guardedCall(ScraperRateLimiter.Endpoint endpoint, Supplier<Optional<T>> call) {
+        ScraperCircuitBreaker.Permit permit = scraperCircuitBreaker.acquirePermission();
+
         try {
-            ResponseEntity<PriceResponse> response = restTemplate.postForEntity(url, body, PriceResponse.class);
+            scraperBulkhead.acquire();
+        } catch (RuntimeException e) {
+            scraperCircuitBreaker.onIgnored(permit);
+            throw e;
+        }
+
+        try {
+            scraperRateLimiter.acquire(endpoint);
+        } catch (RuntimeException e) {
+            scraperBulkhead.release();
+            scraperCircuitBreaker.onIgnored(permit);
+            throw e;
+        }
+
+        try {
+            Optional<T> response = call.get();
+            scraperCircuitBreaker.onSuccess(permit);
+            return response;
+        } catch (ProductNotFoundInStoreException | InvalidStoreUrlException e) {
+            scraperCircuitBreaker.onSuccess(permit);
+            throw e;
+        } catch (RuntimeException e) {
+            scraperCircuitBreaker.onFailure(permit);
+            throw e;
+        } finally {
+            scraperBulkhead.release();
+        }
+    }
+
+    /**
+     * @param negativeCacheKey key under which a definite "not found" answer is remembered, or {@code null} not to remember it
+     */
+    private <T> Optional<T> postToScraper(String url, Object body, Class<T> responseType, String negativeCacheKey) {
+        try {
+            ResponseEntity<T> response = restTemplate.postForEntity(url, body, responseType);
 
             if (response.getBody() != null) {
                 return Optional.of(response.getBody());
@@ -57,8 +107,11 @@ public class CeneoPriceClient implements PriceClient {
             }
 
         } catch (HttpClientErrorException e) {
-            handleScraperError(e);
-            return Optional.empty();
+            ScraperErrorResponse error = scraperResponseMapper.parseError(e.getStatusCode().value(), e.getResponseBodyAsString());
+            if (negativeCacheKey != null) {
+                scraperNegativeCache.remember(negativeCacheKey, error);
+            }
+            throw scraperResponseMapper.toException(error);
 
         } catch (ResourceAccessException e) {
             log.error("Network error connecting to scraper: {}", e.getMessage());
@@ -69,32 +122,4 @@ public class CeneoPriceClient implements PriceClient {
             throw new PriceFetchException("Unexpected scraper error", e);
         }
     }
-
-    private void handleScraperError(HttpClientErrorException e) {
-        ScraperErrorResponse errorResponse;
-
-        try {
-            String responseBody = e.getResponseBodyAsString();
-            errorResponse = objectMapper.readValue(responseBody, ScraperErrorResponse.class);
-        } catch (JsonProcessingException jsonEx) {
-            log.error("Could not parse scraper exception body. Status: {}", e.getStatusCode(), jsonEx);
-            throw new ScraperException("Error during communication to scraper (Unknown format)");
-        }
-
-        log.warn("Scraper Error: {}", errorResponse.errorCode());
-
-        metricsService.incrementScraperError(errorResponse.errorCode().name());
-
-        switch (errorResponse.errorCode()) {
-            case PRODUCT_NOT_FOUND -> throw new ProductNotFoundInStoreException(errorResponse.message());
-
-            case INVALID_DOMAIN, MISSING_PARAM -> throw new InvalidStoreUrlException(errorResponse.message());
-
-            case PRICE_PARSING_ERROR -> throw new ScraperException("Invalid price found");
-
-            case CONNECTION_ERROR -> throw new ScraperException("Scraper is unreachable");
-
-            default -> throw new ScraperException("Unknown error in scraper: " + errorResponse.message());
-        }
-    }
-}
\ No newline at end of file
+}
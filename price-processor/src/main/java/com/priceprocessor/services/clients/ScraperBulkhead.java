@@ -0,0 +1,50 @@
+package com.priceprocessor.services.clients;
+
+import com.priceprocessor.config.ScraperProperties;
+import com.priceprocessor.exceptions.crawler.ScraperRejectedException;
+import com.priceprocessor.services.MetricsService;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps concurrent blocking scraper calls made for user requests, so a slow scraper can tie up
+ * at most {@code max-concurrent-interactive} of the threads serving them. Batch updates go
+ * through {@link CeneoAsyncPriceClient}, which queues its own calls without holding a thread.
+ */
+@Service
+public class ScraperBulkhead {
+
+    private final MetricsService metricsService;
+    private final long maxWaitNanos;
+    private final Semaphore slots;
+
+    public ScraperBulkhead(ScraperProperties scraperProperties, MetricsService metricsService) {
+        ScraperProperties.Bulkhead config = scraperProperties.getBulkhead();
+        this.metricsService = metricsService;
+        this.maxWaitNanos = config.getMaxWait().toNanos();
+        this.slots = new Semaphore(config.getMaxConcurrentInteractive(), true);
+    }
+
+    /**
+     * Takes a slot, which must be given back with {@link #release}.
+     *
+     * @throws ScraperRejectedException if no slot frees up within the configured max wait
+     */
+    public void acquire() {
+        try {
+            if (!slots.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                metricsService.incrementScraperBulkheadRejected();
+                throw new ScraperRejectedException("Too many concurrent scraper calls, try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScraperRejectedException("Interrupted while waiting for a scraper slot");
+        }
+    }
+
+    public void release() {
+        slots.release();
+    }
+}
@@ -0,0 +1,173 @@
+package com.priceprocessor.services.clients;
+
+import com.priceprocessor.config.ScraperProperties;
+import com.priceprocessor.exceptions.crawler.ScraperRejectedException;
+import com.priceprocessor.services.MetricsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker around the scraper. While closed it tracks the outcome of the
+ * last {@code slidingWindowSize} calls and opens once the failure rate reaches the threshold.
+ * An open circuit fails every call fast for {@code openDuration}, then turns half-open and lets
+ * a few trial calls through: if all succeed it closes, if any fails it opens again.
+ * Every permission remembers the state it was granted in, and an outcome that arrives after the
+ * breaker has moved on (a slow call admitted while closed finishing during the half-open trial)
+ * is ignored rather than counted against the new state.
+ */
+@Service
+@Slf4j
+public class ScraperCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    /**
+     * Handed out by {@link #acquirePermission()} and given back with the call's outcome.
+     *
+     * @param generation number of state transitions the breaker had made when the call was let through
+     */
+    public record Permit(long generation) {
+    }
+
+    private final MetricsService metricsService;
+    private final LongSupplier nanoClock;
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSuccesses;
+
+    @Autowired
+    public ScraperCircuitBreaker(ScraperProperties scraperProperties, MetricsService metricsService) {
+        this(scraperProperties, metricsService, System::nanoTime);
+    }
+
+    ScraperCircuitBreaker(ScraperProperties scraperProperties, MetricsService metricsService, LongSupplier nanoClock) {
+        ScraperProperties.CircuitBreaker config = scraperProperties.getCircuitBreaker();
+        this.metricsService = metricsService;
+        this.nanoClock = nanoClock;
+        this.failureRateThreshold = config.getFailureRateThreshold();
+        this.minimumCalls = Math.min(config.getMinimumCalls(), config.getSlidingWindowSize());
+        this.openDurationNanos = config.getOpenDuration().toNanos();
+        this.halfOpenCalls = config.getHalfOpenCalls();
+        this.window = new boolean[config.getSlidingWindowSize()];
+
+        metricsService.registerScraperCircuitState(() -> getState().ordinal());
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Lets the call through or fails it fast.
+     *
+     * @return the permit to report the call's outcome with
+     * @throws ScraperRejectedException if the circuit is open, or half-open with all trial calls in flight
+     */
+    public synchronized Permit acquirePermission() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openDurationNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.OPEN || (state == State.HALF_OPEN && halfOpenInFlight >= halfOpenCalls)) {
+            metricsService.incrementScraperCircuitRejected(state.name());
+            throw new ScraperRejectedException("Scraper is unavailable, try again later");
+        }
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight++;
+        }
+        return new Permit(generation);
+    }
+
+    public synchronized void onSuccess(Permit permit) {
+        if (isStale(permit)) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            releaseTrialCall();
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure(Permit permit) {
+        if (isStale(permit)) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+        } else if (state == State.CLOSED) {
+            record(true);
+        }
+    }
+
+    /**
+     * Gives back a permission whose call never reached the scraper, without counting an outcome.
+     */
+    public synchronized void onIgnored(Permit permit) {
+        if (!isStale(permit) && state == State.HALF_OPEN) {
+            releaseTrialCall();
+        }
+    }
+
+    private boolean isStale(Permit permit) {
+        return permit.generation() != generation;
+    }
+
+    private void releaseTrialCall() {
+        halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+
+        if (windowCount >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCount) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void transitionTo(State newState) {
+        log.warn("Scraper circuit breaker: {} -> {}", state, newState);
+        state = newState;
+        generation++;
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+        halfOpenInFlight = 0;
+        halfOpenSuccesses = 0;
+        if (newState == State.OPEN) {
+            openedAt = nanoClock.getAsLong();
+        }
+    }
+}
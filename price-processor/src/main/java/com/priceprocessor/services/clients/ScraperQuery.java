@@ -0,0 +1,23 @@
+package com.priceprocessor.services.clients;
+
+import com.priceprocessor.services.CeneoUrlCanonicalizer;
+
+import java.util.Locale;
+
+/**
+ * Normal forms of what users send to the scraper, so that requests differing only in case or
+ * whitespace are recognised as the same request.
+ */
+public final class ScraperQuery {
+
+    private ScraperQuery() {
+    }
+
+    public static String name(String productName) {
+        return productName.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    public static String url(String productUrl) {
+        return CeneoUrlCanonicalizer.canonicalize(productUrl);
+    }
+}
@@ -0,0 +1,136 @@
+package com.priceprocessor.services.clients;
+
+import com.priceprocessor.config.ScraperProperties;
+import com.priceprocessor.exceptions.crawler.ScraperRejectedException;
+import com.priceprocessor.services.MetricsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side rate limit on calls to the scraper, and through it to ceneo.pl.
+ * Each endpoint has its own budget, split into an interactive and a batch bucket. Batch calls
+ * only draw from the batch bucket. Interactive calls draw from their reserved bucket first and
+ * may borrow a batch token that is free right now, so a running update never delays a user
+ * beyond the interactive share. Only interactive calls are rejected after the max wait; batch
+ * calls queue for their bucket however long it takes, and it is up to the batch caller to keep
+ * its queue short (see {@link #batchPermitsWithinMaxWait}).
+ */
+@Service
+@Slf4j
+public class ScraperRateLimiter {
+
+    public enum Endpoint {
+        BY_NAME,
+        BY_URL
+    }
+
+    /**
+     * On whose behalf a call is made: a user waiting for the answer, or a background update.
+     */
+    public enum CallerType {
+        INTERACTIVE,
+        BATCH
+    }
+
+    private final MetricsService metricsService;
+    private final long maxWaitNanos;
+    private final Map<Endpoint, TokenBucket> interactiveBuckets = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, TokenBucket> batchBuckets = new EnumMap<>(Endpoint.class);
+
+    @Autowired
+    public ScraperRateLimiter(ScraperProperties scraperProperties, MetricsService metricsService) {
+        this(scraperProperties, metricsService, System::nanoTime);
+    }
+
+    ScraperRateLimiter(ScraperProperties scraperProperties, MetricsService metricsService, LongSupplier nanoClock) {
+        this.metricsService = metricsService;
+        ScraperProperties.RateLimit rateLimit = scraperProperties.getRateLimit();
+        this.maxWaitNanos = rateLimit.getMaxWait().toNanos();
+
+        addBuckets(Endpoint.BY_NAME, rateLimit.getByName(), rateLimit.getInteractiveShare(), nanoClock);
+        addBuckets(Endpoint.BY_URL, rateLimit.getByUrl(), rateLimit.getInteractiveShare(), nanoClock);
+    }
+
+    /**
+     * Blocks until a user request may call {@code endpoint} once.
+     *
+     * @throws ScraperRejectedException if the permit does not become available within the configured max wait
+     */
+    public void acquire(Endpoint endpoint) {
+        long waitNanos = admit(endpoint, CallerType.INTERACTIVE, 1);
+        if (waitNanos > 0) {
+            sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Reserves the permits without blocking and returns how long the caller has to wait before
+     * using them, for callers that delay the call instead of sleeping. A batch reservation is
+     * always granted, at the back of the batch queue.
+     *
+     * @throws ScraperRejectedException if interactive permits do not become available within the configured max wait
+     */
+    public Duration reserveWithoutBlocking(Endpoint endpoint, CallerType caller, int permits) {
+        return Duration.ofNanos(admit(endpoint, caller, permits));
+    }
+
+    private long admit(Endpoint endpoint, CallerType caller, int permits) {
+        long waitNanos = reserve(endpoint, caller, permits);
+
+        if (waitNanos < 0) {
+            metricsService.incrementScraperRateLimitRejected(endpoint.name(), caller.name());
+            log.warn("Scraper rate limit exceeded for {} ({} caller)", endpoint, caller);
+            throw new ScraperRejectedException("Scraper rate limit exceeded, try again later");
+        }
+
+        metricsService.recordScraperRateLimitWait(endpoint.name(), caller.name(), Duration.ofNanos(waitNanos));
+        return waitNanos;
+    }
+
+    /**
+     * Batch permits of {@code endpoint} that can be reserved back to back without the last one
+     * waiting longer than the max wait: the batch burst plus what refills in the meantime.
+     */
+    public int batchPermitsWithinMaxWait(Endpoint endpoint) {
+        return batchBuckets.get(endpoint).permitsWithin(maxWaitNanos);
+    }
+
+    private long reserve(Endpoint endpoint, CallerType caller, int permits) {
+        TokenBucket batchBucket = batchBuckets.get(endpoint);
+        if (caller == CallerType.BATCH) {
+            return batchBucket.reserve(permits, Long.MAX_VALUE);
+        }
+
+        TokenBucket interactiveBucket = interactiveBuckets.get(endpoint);
+        if (interactiveBucket.tryAcquire(permits) || batchBucket.tryAcquire(permits)) {
+            return 0;
+        }
+        return interactiveBucket.reserve(permits, maxWaitNanos);
+    }
+
+    private void addBuckets(Endpoint endpoint, ScraperProperties.Bucket budget, double interactiveShare, LongSupplier nanoClock) {
+        double interactiveRate = budget.getPermitsPerSecond() * interactiveShare;
+        double batchRate = budget.getPermitsPerSecond() - interactiveRate;
+        double interactiveBurst = Math.max(1, budget.getBurst() * interactiveShare);
+        double batchBurst = Math.max(1, budget.getBurst() - interactiveBurst);
+
+        interactiveBuckets.put(endpoint, new TokenBucket(interactiveRate, interactiveBurst, nanoClock));
+        batchBuckets.put(endpoint, new TokenBucket(batchRate, batchBurst, nanoClock));
+    }
+
+    private void sleep(long waitNanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScraperRejectedException("Interrupted while waiting for scraper rate limit");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.priceprocessor.services.clients;
+
+import com.priceprocessor.dtos.crawler.PriceResponse;
+import com.priceprocessor.services.MetricsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical scraper requests share one call. The first caller for a product name
+ * or URL makes the call; callers arriving while it is in flight wait for and receive the same
+ * answer or exception. Nothing is kept once the call completes, so answers are never stale.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScraperRequestCoalescer {
+
+    private static final String BY_NAME = "byName";
+    private static final String BY_URL = "byUrl";
+
+    private final MetricsService metricsService;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public Optional<PriceResponse> byName(String productName, Supplier<Optional<PriceResponse>> call) {
+        return coalesce(BY_NAME, ScraperQuery.name(productName), call);
+    }
+
+    public Optional<PriceResponse> byUrl(String productUrl, Supplier<Optional<PriceResponse>> call) {
+        return coalesce(BY_URL, ScraperQuery.url(productUrl), call);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T coalesce(String type, String key, Supplier<T> call) {
+        String requestKey = type + ":" + key;
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(requestKey, leader);
+
+        if (running != null) {
+            metricsService.incrementScraperCallsCoalesced(type);
+            log.debug("Joining in-flight scraper call for {}", requestKey);
+            return (T) await(running);
+        }
+
+        try {
+            T result = call.get();
+            leader.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(requestKey, leader);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
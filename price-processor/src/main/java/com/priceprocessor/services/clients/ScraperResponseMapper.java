@@ -0,0 +1,115 @@
+package com.priceprocessor.services.clients;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.priceprocessor.dtos.crawler.PriceCheckResult;
+import com.priceprocessor.dtos.crawler.ScraperBulkResponse;
+import com.priceprocessor.dtos.errors.ScraperErrorResponse;
+import com.priceprocessor.exceptions.PriceFetchException;
+import com.priceprocessor.exceptions.ProductNotFoundInStoreException;
+import com.priceprocessor.exceptions.crawler.InvalidStoreUrlException;
+import com.priceprocessor.exceptions.crawler.ScraperException;
+import com.priceprocessor.services.MetricsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns scraper answers into results and exceptions, shared by the blocking and the async client
+ * so both report the same error for the same scraper response.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScraperResponseMapper {
+
+    private final ObjectMapper objectMapper;
+    private final MetricsService metricsService;
+
+    /**
+     * Maps a 4xx scraper response body to the exception the caller should see.
+     */
+    public RuntimeException toException(int statusCode, String responseBody) {
+        try {
+            return toException(parseError(statusCode, responseBody));
+        } catch (ScraperException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Reads the error the scraper sent with a 4xx response.
+     *
+     * @throws ScraperException if the body is not a scraper error
+     */
+    public ScraperErrorResponse parseError(int statusCode, String responseBody) {
+        try {
+            return objectMapper.readValue(responseBody, ScraperErrorResponse.class);
+        } catch (JsonProcessingException jsonEx) {
+            log.error("Could not parse scraper exception body. Status: {}", statusCode, jsonEx);
+            throw new ScraperException("Error during communication to scraper (Unknown format)");
+        }
+    }
+
+    public RuntimeException toException(ScraperErrorResponse errorResponse) {
+        log.warn("Scraper Error: {}", errorResponse.errorCode());
+
+        metricsService.incrementScraperError(errorResponse.errorCode().name());
+
+        return exceptionFor(errorResponse);
+    }
+
+    /**
+     * Same as {@link #toException(ScraperErrorResponse)}, for errors replayed without asking the scraper.
+     */
+    public RuntimeException exceptionFor(ScraperErrorResponse errorResponse) {
+        return switch (errorResponse.errorCode()) {
+            case PRODUCT_NOT_FOUND -> new ProductNotFoundInStoreException(errorResponse.message());
+
+            case INVALID_DOMAIN, MISSING_PARAM -> new InvalidStoreUrlException(errorResponse.message());
+
+            case TOO_MANY_URLS -> new ScraperException("Scraper rejected batch: " + errorResponse.message());
+
+            case PRICE_PARSING_ERROR -> new ScraperException("Invalid price found");
+
+            case CONNECTION_ERROR -> new ScraperException("Scraper is unreachable");
+
+            default -> new ScraperException("Unknown error in scraper: " + errorResponse.message());
+        };
+    }
+
+    /**
+     * Gives every requested URL a result; URLs the scraper left out of its answer fail.
+     */
+    public Map<String, PriceCheckResult> toResults(List<String> urls, Optional<ScraperBulkResponse> response) {
+        Map<String, ScraperBulkResponse.Item> items = response
+                .map(ScraperBulkResponse::results)
+                .orElse(List.of())
+                .stream()
+                .collect(Collectors.toMap(ScraperBulkResponse.Item::url, Function.identity(), (first, second) -> first));
+
+        Map<String, PriceCheckResult> results = new LinkedHashMap<>();
+        for (String url : urls) {
+            results.put(url, toPriceCheckResult(url, items.get(url)));
+        }
+        return results;
+    }
+
+    private PriceCheckResult toPriceCheckResult(String url, ScraperBulkResponse.Item item) {
+        if (item == null) {
+            log.warn("Scraper bulk response has no result for url: {}", url);
+            return PriceCheckResult.failure(url, new PriceFetchException("No result in scraper bulk response"));
+        }
+        if (item.isError()) {
+            return PriceCheckResult.failure(url, toException(item.toErrorResponse()));
+        }
+        return PriceCheckResult.success(url, Optional.of(item.toPriceResponse()));
+    }
+}
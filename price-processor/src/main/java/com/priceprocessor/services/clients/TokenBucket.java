@@ -0,0 +1,69 @@
+package com.priceprocessor.services.clients;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket that refills continuously at a fixed rate up to its burst size. A caller either
+ * takes a token that is available now, or reserves the next one and is told how long to wait
+ * for it; reservations are served in the order they were made.
+ */
+class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final double permitsPerNano;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double permitsPerSecond, double capacity, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Token bucket needs a positive rate and a capacity of at least 1");
+        }
+        this.permitsPerNano = permitsPerSecond / NANOS_PER_SECOND;
+        this.capacity = capacity;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    synchronized boolean tryAcquire(int permits) {
+        refill();
+        if (tokens >= permits) {
+            tokens -= permits;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reserves {@code permits} tokens and returns how many nanoseconds the caller has to wait
+     * before using them, or {@code -1} without reserving anything if that wait would exceed
+     * {@code maxWaitNanos}. More permits than the capacity may be reserved; the bucket then
+     * goes into debt and later callers wait for it to be paid back.
+     */
+    synchronized long reserve(int permits, long maxWaitNanos) {
+        refill();
+        long waitNanos = tokens >= permits ? 0 : (long) Math.ceil((permits - tokens) / permitsPerNano);
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= permits;
+        return waitNanos;
+    }
+
+    /**
+     * Permits a full bucket hands out within {@code nanos}: its capacity plus the refill.
+     */
+    int permitsWithin(long nanos) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.floor(capacity + nanos * permitsPerNano));
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+}
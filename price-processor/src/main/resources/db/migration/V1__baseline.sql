@@ -0,0 +1,21 @@
+-- Schema as Hibernate generated it before migrations took over: one observation row per user and
+-- product URL, each with its own copy of the price and its own history. Existing databases are
+-- baselined at this version (schema-migration.baseline-on-migrate) instead of running it.
+
+CREATE TABLE product_observations (
+    id              BIGINT AUTO_INCREMENT PRIMARY KEY,
+    created_at      DATETIME(6),
+    current_price   DECIMAL(10, 2),
+    last_checked_at DATETIME(6),
+    product_name    VARCHAR(255)  NOT NULL,
+    product_url     VARCHAR(1000) NOT NULL,
+    user_email      VARCHAR(255)  NOT NULL
+);
+
+CREATE TABLE price_history (
+    id                     BIGINT AUTO_INCREMENT PRIMARY KEY,
+    checked_at             DATETIME(6),
+    price                  DECIMAL(10, 2),
+    product_observation_id BIGINT,
+    CONSTRAINT fk_price_history_product_observation FOREIGN KEY (product_observation_id) REFERENCES product_observations (id)
+);
@@ -0,0 +1,74 @@
+-- Products move out of product_observations into catalog_products, one row per canonical product
+-- URL shared by every user watching it; an observation keeps only its user and a reference to the
+-- product. Each product takes its name, price and last check from the oldest observation of its
+-- URL, and the history of every observation of the URL moves to the product. A user's repeated
+-- watches of one product collapse into the oldest.
+--
+-- Legacy URLs are canonicalized the way CeneoUrlCanonicalizer does for Ceneo pages, so that a
+-- spelling with tracking parameters or a ;szukaj- suffix joins the product of its canonical form
+-- instead of becoming a second product scraped on its own. URLs of other sites, which the scraper
+-- never returned, only lose their fragment. The patterns avoid backslashes, which MySQL string
+-- literals would consume. canonical_url is as long as a unique key on utf8mb4 allows (3072 bytes).
+
+ALTER TABLE product_observations ADD COLUMN canonical_url VARCHAR(1000);
+UPDATE product_observations SET canonical_url = REGEXP_REPLACE(REGEXP_REPLACE(REGEXP_REPLACE(TRIM(product_url),
+    '(?i)^([a-z][a-z0-9+.-]*://)?([^/?#@]*[.])?ceneo[.]pl(:[0-9]+)?/([0-9]+)([;/?#].*)?$', 'https://www.ceneo.pl/$4'),
+    '(?i)^([a-z][a-z0-9+.-]*://)?([^/?#@]*[.])?ceneo[.]pl(:[0-9]+)?(/[^?#]*[^?#/])?/*([?#].*)?$', 'https://www.ceneo.pl$4'),
+    '#.*$', '');
+
+CREATE TABLE catalog_products (
+    id                     BIGINT AUTO_INCREMENT PRIMARY KEY,
+    canonical_url          VARCHAR(768)   NOT NULL,
+    product_name           VARCHAR(255)   NOT NULL,
+    current_price          DECIMAL(10, 2),
+    last_checked_at        DATETIME(6),
+    next_check_at          DATETIME(6),
+    check_interval_seconds BIGINT,
+    lease_owner            VARCHAR(64),
+    lease_expires_at       DATETIME(6),
+    version                BIGINT         NOT NULL DEFAULT 0,
+    created_at             DATETIME(6),
+    CONSTRAINT uk_catalog_products_canonical_url UNIQUE (canonical_url)
+);
+
+INSERT INTO catalog_products (canonical_url, product_name, current_price, last_checked_at, created_at)
+SELECT o.canonical_url, o.product_name, o.current_price, o.last_checked_at, o.created_at
+FROM product_observations o
+WHERE o.id = (SELECT MIN(f.id) FROM product_observations f WHERE f.canonical_url = o.canonical_url);
+
+ALTER TABLE product_observations ADD COLUMN catalog_product_id BIGINT NOT NULL DEFAULT 0;
+UPDATE product_observations SET catalog_product_id = (
+    SELECT c.id FROM catalog_products c WHERE c.canonical_url = product_observations.canonical_url
+);
+
+-- The foreign key to product_observations was named by Hibernate, so the table is rebuilt
+-- rather than altered; row ids are kept.
+CREATE TABLE price_history_catalog (
+    id                 BIGINT AUTO_INCREMENT PRIMARY KEY,
+    price              DECIMAL(10, 2),
+    checked_at         DATETIME(6),
+    catalog_product_id BIGINT,
+    CONSTRAINT fk_price_history_catalog_product FOREIGN KEY (catalog_product_id) REFERENCES catalog_products (id)
+);
+INSERT INTO price_history_catalog (id, price, checked_at, catalog_product_id)
+SELECT h.id, h.price, h.checked_at, o.catalog_product_id
+FROM price_history h
+JOIN product_observations o ON o.id = h.product_observation_id;
+DROP TABLE price_history;
+ALTER TABLE price_history_catalog RENAME TO price_history;
+
+DELETE FROM product_observations WHERE id NOT IN (
+    SELECT kept.id FROM (
+        SELECT MIN(o.id) AS id FROM product_observations o GROUP BY o.user_email, o.catalog_product_id
+    ) kept
+);
+
+ALTER TABLE product_observations DROP COLUMN product_url;
+ALTER TABLE product_observations DROP COLUMN canonical_url;
+ALTER TABLE product_observations DROP COLUMN product_name;
+ALTER TABLE product_observations DROP COLUMN current_price;
+ALTER TABLE product_observations DROP COLUMN last_checked_at;
+ALTER TABLE product_observations ALTER COLUMN catalog_product_id DROP DEFAULT;
+ALTER TABLE product_observations ADD CONSTRAINT uk_product_observations_user_product UNIQUE (user_email, catalog_product_id);
+ALTER TABLE product_observations ADD CONSTRAINT fk_product_observations_catalog_product
+    FOREIGN KEY (catalog_product_id) REFERENCES catalog_products (id);
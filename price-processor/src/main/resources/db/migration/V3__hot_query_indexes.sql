@@ -0,0 +1,12 @@
+-- Batch claim: due products (next_check_at), filtered by lease (lease_expires_at), oldest first.
+-- Both predicates are answered from the index before any row is locked.
+CREATE INDEX idx_catalog_products_due ON catalog_products (next_check_at, lease_expires_at);
+
+-- findPageByUserEmail and findByIdAndUserEmail: one user's observations, in id order.
+CREATE INDEX idx_product_observations_user_email_id ON product_observations (user_email, id);
+
+-- Batch claim EXISTS subquery and findAllByCatalogProductIdIn.
+CREATE INDEX idx_product_observations_catalog_product_id ON product_observations (catalog_product_id);
+
+-- A product's history in time order, for details and charts.
+CREATE INDEX idx_price_history_product_checked_at ON price_history (catalog_product_id, checked_at);
@@ -0,0 +1,9 @@
+-- History rows become price segments: checked_at is when the price was first seen,
+-- last_confirmed_at the last check that saw it unchanged. Existing rows are one-check segments.
+ALTER TABLE price_history ADD COLUMN last_confirmed_at DATETIME(6);
+UPDATE price_history SET last_confirmed_at = checked_at;
+
+ALTER TABLE catalog_products ADD COLUMN price_changed_at DATETIME(6);
+UPDATE catalog_products SET price_changed_at = (
+    SELECT MAX(h.checked_at) FROM price_history h WHERE h.catalog_product_id = catalog_products.id
+);
@@ -0,0 +1,14 @@
+-- Daily open/high/low/close rollups of history segments that were compacted out of price_history.
+CREATE TABLE price_history_daily (
+    id                 BIGINT AUTO_INCREMENT PRIMARY KEY,
+    catalog_product_id BIGINT NOT NULL,
+    rollup_day         DATE   NOT NULL,
+    open_price         DECIMAL(10, 2),
+    high_price         DECIMAL(10, 2),
+    low_price          DECIMAL(10, 2),
+    close_price        DECIMAL(10, 2),
+    first_checked_at   DATETIME(6),
+    last_checked_at    DATETIME(6),
+    CONSTRAINT uk_price_history_daily_product_day UNIQUE (catalog_product_id, rollup_day),
+    CONSTRAINT fk_price_history_daily_catalog_product FOREIGN KEY (catalog_product_id) REFERENCES catalog_products (id)
+);
@@ -0,0 +1,13 @@
+-- Ids of history rows are handed out in blocks from id_sequences instead of by AUTO_INCREMENT,
+-- so Hibernate can batch their inserts. Seeded one block past the rows already stored, so the
+-- first block never overlaps them.
+CREATE TABLE id_sequences (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val      BIGINT
+);
+
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'price_history', COALESCE(MAX(id), 0) + 50 FROM price_history;
+
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'price_history_daily', COALESCE(MAX(id), 0) + 50 FROM price_history_daily;
@@ -0,0 +1,65 @@
+-- Running price statistics of every catalog product, kept up to date as checks record prices
+-- so they are read without touching history. All-time low and high are seeded from the history
+-- stored so far, raw and rolled up; the average starts at the current price and the count starts
+-- with the next check.
+ALTER TABLE catalog_products ADD COLUMN min_price DECIMAL(10, 2);
+ALTER TABLE catalog_products ADD COLUMN max_price DECIMAL(10, 2);
+ALTER TABLE catalog_products ADD COLUMN average_price DECIMAL(14, 4);
+ALTER TABLE catalog_products ADD COLUMN price_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE catalog_products ADD COLUMN stats_updated_at DATETIME(6);
+
+UPDATE catalog_products SET
+    min_price = (SELECT MIN(h.price) FROM price_history h WHERE h.catalog_product_id = catalog_products.id),
+    max_price = (SELECT MAX(h.price) FROM price_history h WHERE h.catalog_product_id = catalog_products.id),
+    average_price = current_price,
+    stats_updated_at = last_checked_at;
+
+UPDATE catalog_products SET min_price = (
+    SELECT MIN(d.low_price) FROM price_history_daily d WHERE d.catalog_product_id = catalog_products.id
+)
+WHERE EXISTS (
+    SELECT 1 FROM price_history_daily d WHERE d.catalog_product_id = catalog_products.id
+        AND (catalog_products.min_price IS NULL OR d.low_price < catalog_products.min_price)
+);
+
+UPDATE catalog_products SET max_price = (
+    SELECT MAX(d.high_price) FROM price_history_daily d WHERE d.catalog_product_id = catalog_products.id
+)
+WHERE EXISTS (
+    SELECT 1 FROM price_history_daily d WHERE d.catalog_product_id = catalog_products.id
+        AND (catalog_products.max_price IS NULL OR d.high_price > catalog_products.max_price)
+);
+
+-- The low of the last 90 days (PriceStats.LOW_WINDOW) is a monotonic deque of candidate lows, at
+-- most one per day. It is seeded from the history in the window: each day's low, counted as seen
+-- at the day's last check, is a candidate unless a later day had a price as low or lower.
+CREATE TABLE catalog_window_lows (
+    catalog_product_id BIGINT         NOT NULL,
+    price              DECIMAL(10, 2) NOT NULL,
+    seen_at            DATETIME(6)    NOT NULL,
+    PRIMARY KEY (catalog_product_id, seen_at),
+    CONSTRAINT fk_catalog_window_lows_catalog_product FOREIGN KEY (catalog_product_id) REFERENCES catalog_products (id)
+);
+
+CREATE TABLE window_low_days AS
+SELECT seen.catalog_product_id, CAST(seen.seen_at AS DATE) AS seen_day, MIN(seen.price) AS price, MAX(seen.seen_at) AS seen_at
+FROM (
+    SELECT h.catalog_product_id, h.price, COALESCE(h.last_confirmed_at, h.checked_at) AS seen_at
+    FROM price_history h
+    UNION ALL
+    SELECT d.catalog_product_id, d.low_price, d.last_checked_at
+    FROM price_history_daily d
+) seen
+WHERE seen.catalog_product_id IS NOT NULL AND seen.price IS NOT NULL
+    AND seen.seen_at >= CURRENT_TIMESTAMP - INTERVAL '90' DAY
+GROUP BY seen.catalog_product_id, CAST(seen.seen_at AS DATE);
+
+INSERT INTO catalog_window_lows (catalog_product_id, price, seen_at)
+SELECT d.catalog_product_id, d.price, d.seen_at
+FROM window_low_days d
+WHERE NOT EXISTS (
+    SELECT 1 FROM window_low_days later
+    WHERE later.catalog_product_id = d.catalog_product_id AND later.seen_day > d.seen_day AND later.price <= d.price
+);
+
+DROP TABLE window_low_days;
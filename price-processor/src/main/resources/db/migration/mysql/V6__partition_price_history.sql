@@ -0,0 +1,59 @@
+-- MySQL only: price_history becomes range-partitioned by month on checked_at, so that expired
+-- months are dropped as whole partitions instead of deleted row by row, and ranged reads skip the
+-- months outside their range. MySQL requires the partitioning column in every unique key and allows
+-- no foreign keys on partitioned tables, so the table is rebuilt with (id, checked_at) as its
+-- primary key and without the foreign key to catalog_products.
+--
+-- Existing history gets a partition per month, from the month of its oldest check through the
+-- current one, so retention can expire it month by month like any later history; an empty table
+-- starts with the current month. Later months are split off p_future ahead of time by the history
+-- maintenance job. The partitions are added while the new table is still empty, which is cheap.
+
+CREATE TABLE price_history_partitioned (
+    id                 BIGINT      NOT NULL AUTO_INCREMENT,
+    price              DECIMAL(10, 2),
+    checked_at         DATETIME(6) NOT NULL,
+    last_confirmed_at  DATETIME(6),
+    catalog_product_id BIGINT,
+    PRIMARY KEY (id, checked_at),
+    INDEX idx_price_history_product_checked_at (catalog_product_id, checked_at)
+)
+PARTITION BY RANGE COLUMNS (checked_at) (
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
+
+SET SESSION group_concat_max_len = 1048576;
+
+SET @first_month = (
+    SELECT CAST(DATE_FORMAT(LEAST(COALESCE(MIN(COALESCE(checked_at, last_confirmed_at)), CURRENT_DATE), CURRENT_DATE), '%Y-%m-01') AS DATE)
+    FROM price_history
+);
+
+WITH RECURSIVE months (month_start) AS (
+    SELECT @first_month
+    UNION ALL
+    SELECT month_start + INTERVAL 1 MONTH FROM months WHERE month_start + INTERVAL 1 MONTH <= CURRENT_DATE
+)
+SELECT GROUP_CONCAT(
+           CONCAT('PARTITION p', DATE_FORMAT(month_start, '%Y%m'),
+                  ' VALUES LESS THAN (''', DATE_FORMAT(month_start + INTERVAL 1 MONTH, '%Y-%m-%d 00:00:00'), ''')')
+           ORDER BY month_start SEPARATOR ', ')
+INTO @month_partitions
+FROM months;
+
+SET @split_months = CONCAT('ALTER TABLE price_history_partitioned REORGANIZE PARTITION p_future INTO (',
+                           @month_partitions, ', PARTITION p_future VALUES LESS THAN (MAXVALUE))');
+
+PREPARE split_months FROM @split_months;
+
+EXECUTE split_months;
+
+DEALLOCATE PREPARE split_months;
+
+INSERT INTO price_history_partitioned (id, price, checked_at, last_confirmed_at, catalog_product_id)
+SELECT id, price, COALESCE(checked_at, last_confirmed_at, '1970-01-01 00:00:00'), last_confirmed_at, catalog_product_id
+FROM price_history;
+
+DROP TABLE price_history;
+
+RENAME TABLE price_history_partitioned TO price_history;
@@ -0,0 +1,116 @@
+package com.priceprocessor.config;
+
+import com.priceprocessor.services.MetricsService;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RestClientConfigTest {
+
+    private final RestClientConfig config = new RestClientConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private CloseableHttpAsyncClient asyncHttpClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/ok", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/stuck", exchange -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        ScraperProperties properties = new ScraperProperties();
+        properties.getHttp().setReadTimeout(Duration.ofMillis(300));
+        properties.getHttp().setMaxConnections(2);
+
+        connectionManager = config.scraperConnectionManager(properties, new MetricsService(meterRegistry));
+        httpClient = config.scraperHttpClient(connectionManager, properties);
+        restTemplate = config.restTemplate(httpClient);
+
+        PoolingAsyncClientConnectionManager asyncConnectionManager = config.scraperAsyncConnectionManager(properties, new MetricsService(meterRegistry));
+        asyncHttpClient = config.scraperAsyncHttpClient(asyncConnectionManager, properties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        asyncHttpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldReuseKeepAliveConnections_AndRecordPoolAcquireTime() {
+        // Act
+        restTemplate.getForObject(url("/ok"), String.class);
+        restTemplate.getForObject(url("/ok"), String.class);
+
+        // Assert
+        assertThat(connectionManager.getTotalStats().getAvailable()).isEqualTo(1);
+        assertThat(meterRegistry.get("scraper.http.pool.acquire").tag("pool", "blocking").tag("status", "success").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRecordAsyncPoolAcquireTime_ForEveryRequest() throws Exception {
+        // Act
+        for (int i = 0; i < 2; i++) {
+            SimpleHttpResponse response = asyncHttpClient.execute(SimpleRequestBuilder.get(url("/ok")).build(), null)
+                    .get(5, TimeUnit.SECONDS);
+            assertThat(response.getCode()).isEqualTo(200);
+        }
+
+        // Assert
+        assertThat(meterRegistry.get("scraper.http.pool.acquire").tag("pool", "async").tag("status", "success").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldFailAfterReadTimeout_WhenScraperHangs() {
+        // Arrange
+        long start = System.nanoTime();
+
+        // Act & Assert
+        assertThatThrownBy(() -> restTemplate.getForObject(url("/stuck"), String.class))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(3));
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+}
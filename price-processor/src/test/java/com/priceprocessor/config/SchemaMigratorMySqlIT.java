@@ -0,0 +1,73 @@
+package com.priceprocessor.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migrates a legacy schema on a real MySQL, whose regular expressions and string literals
+ * differ from H2's. Needs Docker; run with {@code mvn -P mysql-it verify}.
+ */
+@Testcontainers
+class SchemaMigratorMySqlIT {
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withUsername("root")
+            .withPassword("test");
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new DriverManagerDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP DATABASE " + MYSQL.getDatabaseName());
+        jdbc.execute("CREATE DATABASE " + MYSQL.getDatabaseName());
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V1__baseline.sql"));
+        }
+    }
+
+    @Test
+    void shouldMergeLegacyUrlSpellings_IntoOneCanonicalProduct() throws Exception {
+        // Arrange
+        String longTrackingUrl = "https://www.ceneo.pl/2?utm_source=" + "x".repeat(900);
+        jdbc.update("INSERT INTO product_observations (id, product_name, product_url, user_email) VALUES "
+                + "(1, 'Phone', 'https://www.ceneo.pl/1?utm_source=mail', 'alice@test.com'), "
+                + "(2, 'Phone', ' ceneo.pl/1;szukaj-phone ', 'bob@test.com'), "
+                + "(3, 'Phone', 'HTTPS://WWW.CENEO.PL/1#opinie', 'alice@test.com'), "
+                + "(4, 'Laptop', '" + longTrackingUrl + "', 'alice@test.com'), "
+                + "(5, 'Deals', 'https://www.ceneo.pl/Promocje/?p=2', 'bob@test.com'), "
+                + "(6, 'Other', 'https://shop.example.com/item?id=7#reviews', 'bob@test.com')");
+        SchemaMigrationProperties properties = new SchemaMigrationProperties();
+        properties.setBaselineOnMigrate(true);
+
+        // Act
+        new SchemaMigrator(dataSource, properties).migrate();
+
+        // Assert
+        assertThat(jdbc.queryForList("SELECT canonical_url FROM catalog_products ORDER BY id", String.class))
+                .containsExactly("https://www.ceneo.pl/1", "https://www.ceneo.pl/2", "https://www.ceneo.pl/Promocje",
+                        "https://shop.example.com/item?id=7");
+        assertThat(jdbc.queryForList("SELECT CONCAT(o.id, ' ', c.canonical_url) FROM product_observations o "
+                + "JOIN catalog_products c ON c.id = o.catalog_product_id ORDER BY o.id", String.class))
+                .containsExactly(
+                        "1 https://www.ceneo.pl/1",
+                        "2 https://www.ceneo.pl/1",
+                        "4 https://www.ceneo.pl/2",
+                        "5 https://www.ceneo.pl/Promocje",
+                        "6 https://shop.example.com/item?id=7");
+    }
+}
@@ -0,0 +1,242 @@
+package com.priceprocessor.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SchemaMigratorTest {
+
+    private SimpleDriverDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private SchemaMigrationProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SimpleDriverDataSource(new org.h2.Driver(), "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        properties = new SchemaMigrationProperties();
+    }
+
+    @Test
+    void shouldApplyEveryMigrationOnce_AndCreateHotQueryIndexes() throws Exception {
+        // Arrange
+        SchemaMigrator migrator = new SchemaMigrator(dataSource, properties);
+
+        // Act
+        migrator.migrate();
+        migrator.migrate();
+
+        // Assert
+        assertThat(jdbc.queryForList("SELECT version FROM schema_history ORDER BY version", Integer.class))
+                .startsWith(1, 2)
+                .as("MySQL-only migrations are not applied to H2")
+                .doesNotContain(6);
+        assertThat(indexes()).contains(
+                "IDX_CATALOG_PRODUCTS_DUE",
+                "IDX_PRODUCT_OBSERVATIONS_USER_EMAIL_ID",
+                "IDX_PRODUCT_OBSERVATIONS_CATALOG_PRODUCT_ID",
+                "IDX_PRICE_HISTORY_PRODUCT_CHECKED_AT")
+                .doesNotContain("IDX_CATALOG_PRODUCTS_NEXT_CHECK_AT");
+    }
+
+    @Test
+    void shouldFailStartup_WhenAppliedMigrationWasChanged() throws Exception {
+        // Arrange
+        new SchemaMigrator(dataSource, properties).migrate();
+        jdbc.update("UPDATE schema_history SET checksum = checksum + 1 WHERE version = 2");
+
+        // Act & Assert
+        assertThatThrownBy(() -> new SchemaMigrator(dataSource, properties).migrate())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("V2");
+    }
+
+    @Test
+    void shouldBaselineExistingSchema_AndApplyOnlyLaterMigrations() throws Exception {
+        // Arrange
+        createLegacySchema();
+        properties.setBaselineOnMigrate(true);
+
+        // Act
+        new SchemaMigrator(dataSource, properties).migrate();
+
+        // Assert
+        assertThat(jdbc.queryForList("SELECT description FROM schema_history ORDER BY version", String.class))
+                .startsWith("<< baseline >>", "catalog products", "hot query indexes");
+        assertThat(indexes()).contains("IDX_CATALOG_PRODUCTS_DUE");
+    }
+
+    @Test
+    void shouldCarryLegacyWatchesAndHistoryIntoCatalog_WhenBaseliningExistingSchema() throws Exception {
+        // Arrange
+        createLegacySchema();
+        jdbc.update("INSERT INTO product_observations (id, product_name, product_url, user_email, current_price, last_checked_at) VALUES "
+                + "(1, 'Phone', 'https://www.ceneo.pl/1', 'alice@test.com', 999.00, '2024-05-02 10:00:00'), "
+                + "(2, 'Phone', 'https://www.ceneo.pl/1', 'alice@test.com', 999.00, '2024-05-02 10:00:00'), "
+                + "(3, 'Phone', 'https://www.ceneo.pl/1', 'bob@test.com', 999.00, '2024-05-02 10:00:00'), "
+                + "(4, 'Laptop', 'https://www.ceneo.pl/2', 'alice@test.com', 3000.00, '2024-05-02 10:00:00')");
+        jdbc.update("INSERT INTO price_history (id, price, checked_at, product_observation_id) VALUES "
+                + "(10, 1099.00, '2024-05-01 10:00:00', 1), (11, 999.00, '2024-05-02 10:00:00', 1), "
+                + "(12, 999.00, '2024-05-02 10:00:00', 2), (13, 999.00, '2024-05-02 10:00:00', 3), "
+                + "(14, 3000.00, '2024-05-02 10:00:00', 4)");
+        properties.setBaselineOnMigrate(true);
+
+        // Act
+        new SchemaMigrator(dataSource, properties).migrate();
+
+        // Assert
+        assertThat(jdbc.queryForList("SELECT canonical_url || ' ' || product_name || ' ' || current_price FROM catalog_products ORDER BY id",
+                String.class))
+                .containsExactly("https://www.ceneo.pl/1 Phone 999.00", "https://www.ceneo.pl/2 Laptop 3000.00");
+        assertThat(jdbc.queryForList("SELECT o.id || ' ' || o.user_email || ' ' || c.canonical_url FROM product_observations o "
+                + "JOIN catalog_products c ON c.id = o.catalog_product_id ORDER BY o.id", String.class))
+                .containsExactly(
+                        "1 alice@test.com https://www.ceneo.pl/1",
+                        "3 bob@test.com https://www.ceneo.pl/1",
+                        "4 alice@test.com https://www.ceneo.pl/2");
+        assertThat(jdbc.queryForList("SELECT h.id || ' ' || c.canonical_url FROM price_history h "
+                + "JOIN catalog_products c ON c.id = h.catalog_product_id ORDER BY h.id", String.class))
+                .containsExactly(
+                        "10 https://www.ceneo.pl/1", "11 https://www.ceneo.pl/1", "12 https://www.ceneo.pl/1",
+                        "13 https://www.ceneo.pl/1", "14 https://www.ceneo.pl/2");
+    }
+
+    @Test
+    void shouldSeedWindowLowDeque_FromDailyLowsOfHistoryInTheWindow() throws Exception {
+        // Arrange
+        createLegacySchema();
+        LocalDateTime today = LocalDate.now().atTime(8, 0);
+        jdbc.update("INSERT INTO product_observations (id, product_name, product_url, user_email) "
+                + "VALUES (1, 'Phone', 'https://www.ceneo.pl/1', 'alice@test.com')");
+        Object[][] checks = {
+                {"80.00", today.minusDays(120)}, {"70.00", today.minusDays(60)}, {"95.00", today.minusDays(30)},
+                {"90.00", today.minusDays(20)}, {"85.00", today.minusDays(5)}, {"100.00", today.minusDays(5).plusHours(12)}};
+        for (Object[] check : checks) {
+            jdbc.update("INSERT INTO price_history (price, checked_at, product_observation_id) VALUES (?, ?, 1)",
+                    new BigDecimal((String) check[0]), check[1]);
+        }
+        properties.setBaselineOnMigrate(true);
+
+        // Act
+        new SchemaMigrator(dataSource, properties).migrate();
+
+        // Assert
+        assertThat(jdbc.queryForList("SELECT price, seen_at FROM catalog_window_lows ORDER BY seen_at"))
+                .extracting(row -> ((BigDecimal) row.get("price")).toPlainString() + " "
+                        + ((Timestamp) row.get("seen_at")).toLocalDateTime())
+                .containsExactly(
+                        "70.00 " + today.minusDays(60),
+                        "85.00 " + today.minusDays(5).plusHours(12));
+    }
+
+    @Test
+    void shouldMergeLegacyUrlSpellings_IntoOneCanonicalProduct() throws Exception {
+        // Arrange
+        createLegacySchema();
+        String longTrackingUrl = "https://www.ceneo.pl/2?utm_source=" + "x".repeat(900);
+        jdbc.update("INSERT INTO product_observations (id, product_name, product_url, user_email) VALUES "
+                + "(1, 'Phone', 'https://www.ceneo.pl/1?utm_source=mail', 'alice@test.com'), "
+                + "(2, 'Phone', ' ceneo.pl/1;szukaj-phone ', 'bob@test.com'), "
+                + "(3, 'Phone', 'HTTPS://WWW.CENEO.PL/1#opinie', 'alice@test.com'), "
+                + "(4, 'Laptop', '" + longTrackingUrl + "', 'alice@test.com'), "
+                + "(5, 'Deals', 'https://www.ceneo.pl/Promocje/?p=2', 'bob@test.com'), "
+                + "(6, 'Other', 'https://shop.example.com/item?id=7#reviews', 'bob@test.com')");
+        properties.setBaselineOnMigrate(true);
+
+        // Act
+        new SchemaMigrator(dataSource, properties).migrate();
+
+        // Assert
+        assertThat(jdbc.queryForList("SELECT canonical_url FROM catalog_products ORDER BY id", String.class))
+                .containsExactly("https://www.ceneo.pl/1", "https://www.ceneo.pl/2", "https://www.ceneo.pl/Promocje",
+                        "https://shop.example.com/item?id=7");
+        assertThat(jdbc.queryForList("SELECT o.id || ' ' || c.canonical_url FROM product_observations o "
+                + "JOIN catalog_products c ON c.id = o.catalog_product_id ORDER BY o.id", String.class))
+                .containsExactly(
+                        "1 https://www.ceneo.pl/1",
+                        "2 https://www.ceneo.pl/1",
+                        "4 https://www.ceneo.pl/2",
+                        "5 https://www.ceneo.pl/Promocje",
+                        "6 https://shop.example.com/item?id=7");
+    }
+
+    @Test
+    void shouldApplyEachMigrationOnce_WhenInstancesStartTogether() throws Exception {
+        // Arrange
+        ExecutorService replicas = Executors.newFixedThreadPool(3);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> runs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            runs.add(replicas.submit(() -> {
+                start.await();
+                new SchemaMigrator(dataSource, properties).migrate();
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> run : runs) {
+            run.get(30, TimeUnit.SECONDS);
+        }
+        replicas.shutdown();
+
+        // Assert
+        List<Integer> versions = jdbc.queryForList("SELECT version FROM schema_history ORDER BY version", Integer.class);
+        assertThat(versions).doesNotHaveDuplicates().startsWith(1, 2);
+    }
+
+    @Test
+    void shouldFailStartup_WhenAnotherInstanceHoldsTheMigrationLock() throws Exception {
+        // Arrange
+        new SchemaMigrator(dataSource, properties).migrate();
+        properties.setLockTimeout(Duration.ofMillis(200));
+
+        try (Connection holder = dataSource.getConnection()) {
+            holder.setAutoCommit(false);
+            holder.createStatement().executeQuery("SELECT name FROM " + DatabaseLock.LOCK_TABLE
+                    + " WHERE name = '" + SchemaMigrator.LOCK_NAME + "' FOR UPDATE").close();
+
+            // Act & Assert
+            assertThatThrownBy(() -> new SchemaMigrator(dataSource, properties).migrate())
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("lock");
+            holder.rollback();
+        }
+    }
+
+    /**
+     * The tables as Hibernate created them before migrations took over, with two users watching
+     * one product, one of them twice.
+     */
+    private void createLegacySchema() {
+        jdbc.execute("CREATE TABLE product_observations (id BIGINT AUTO_INCREMENT PRIMARY KEY, created_at DATETIME(6), "
+                + "current_price DECIMAL(10, 2), last_checked_at DATETIME(6), product_name VARCHAR(255) NOT NULL, "
+                + "product_url VARCHAR(1000) NOT NULL, user_email VARCHAR(255) NOT NULL)");
+        jdbc.execute("CREATE TABLE price_history (id BIGINT AUTO_INCREMENT PRIMARY KEY, checked_at DATETIME(6), price DECIMAL(10, 2), "
+                + "product_observation_id BIGINT, FOREIGN KEY (product_observation_id) REFERENCES product_observations (id))");
+    }
+
+    private List<String> indexes() {
+        return jdbc.queryForList("SELECT index_name FROM information_schema.indexes", String.class);
+    }
+}
@@ -0,0 +1,37 @@
+package com.priceprocessor.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.ConfigurationPropertiesAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScraperPropertiesTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ConfigurationPropertiesAutoConfiguration.class, ValidationAutoConfiguration.class))
+            .withUserConfiguration(ScraperProperties.class);
+
+    @Test
+    void shouldBindInteractiveShare_WhenStrictlyBetweenZeroAndOne() {
+        contextRunner.withPropertyValues("scraper.api.rate-limit.interactive-share=0.5")
+                .run(context -> assertThat(context.getBean(ScraperProperties.class).getRateLimit().getInteractiveShare())
+                        .isEqualTo(0.5));
+    }
+
+    @Test
+    void shouldFailStartup_WhenInteractiveShareLeavesNoBudgetForBatchUpdates() {
+        contextRunner.withPropertyValues("scraper.api.rate-limit.interactive-share=1")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure().rootCause().hasMessageContaining("interactiveShare"));
+    }
+
+    @Test
+    void shouldFailStartup_WhenInteractiveShareLeavesNoBudgetForUserRequests() {
+        contextRunner.withPropertyValues("scraper.api.rate-limit.interactive-share=0")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure().rootCause().hasMessageContaining("interactiveShare"));
+    }
+}
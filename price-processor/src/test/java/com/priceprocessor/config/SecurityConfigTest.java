@@ -1,6 +1,7 @@
 package com.priceprocessor.config;
 
 import com.priceprocessor.services.JwtService;
+import com.priceprocessor.services.PriceDropNotifier;
 import com.priceprocessor.services.PriceUpdateService;
 import com.priceprocessor.services.ProductService;
 import org.junit.jupiter.api.Test;
@@ -48,6 +49,9 @@ class SecurityConfigTest {
     @MockitoBean
     private ProductService productService;
 
+    @MockitoBean
+    private PriceDropNotifier priceDropNotifier;
+
     @Test
     void shouldAllowAccessToActuatorEndpoints() throws Exception {
         mockMvc.perform(get("/actuator/health"))
@@ -1,6 +1,11 @@
 package com.priceprocessor.controllers;
 
+import com.priceprocessor.dtos.api.BatchUpdateResponse;
+import com.priceprocessor.dtos.api.HistoryCompactionResponse;
+import com.priceprocessor.dtos.api.HistoryRetentionResponse;
 import com.priceprocessor.services.JwtService;
+import com.priceprocessor.services.PriceHistoryCompactionService;
+import com.priceprocessor.services.PriceHistoryRetentionService;
 import com.priceprocessor.services.PriceUpdateService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,9 +14,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = CronController.class, properties = {
@@ -27,6 +35,12 @@ class CronControllerTest {
     @MockitoBean
     private PriceUpdateService priceUpdateService;
 
+    @MockitoBean
+    private PriceHistoryCompactionService priceHistoryCompactionService;
+
+    @MockitoBean
+    private PriceHistoryRetentionService priceHistoryRetentionService;
+
     @MockitoBean
     private JwtService jwtService;
 
@@ -34,18 +48,48 @@ class CronControllerTest {
     void shouldTriggerBatchUpdate_AndReturnCount() throws Exception {
         // Arrange
         int updatedCount = 42;
-        when(priceUpdateService.updateOutdatedPrices()).thenReturn(updatedCount);
+        when(priceUpdateService.drainOutdatedPrices())
+                .thenReturn(new BatchUpdateResponse(updatedCount, 3, 9, 1500, true));
 
         // Act & Assert
         mockMvc.perform(post("/api/cron/update-prices"))
                 .andExpect(status().isOk())
-                .andExpect(content().string("Batch update finished. Processed: " + updatedCount));
+                .andExpect(jsonPath("$.processed").value(updatedCount))
+                .andExpect(jsonPath("$.remaining").value(3))
+                .andExpect(jsonPath("$.pages").value(9))
+                .andExpect(jsonPath("$.budgetExhausted").value(true));
+    }
+
+    @Test
+    void shouldTriggerHistoryCompaction_AndReturnSummary() throws Exception {
+        // Arrange
+        when(priceHistoryCompactionService.compactHistory()).thenReturn(new HistoryCompactionResponse(1200, 3, 450));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/cron/compact-history"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.compactedSegments").value(1200))
+                .andExpect(jsonPath("$.batches").value(3));
+    }
+
+    @Test
+    void shouldTriggerHistoryRetention_AndReturnPartitionChanges() throws Exception {
+        // Arrange
+        when(priceHistoryRetentionService.expireHistory()).thenReturn(new HistoryRetentionResponse(
+                LocalDateTime.of(2024, 10, 1, 0, 0), 7, List.of("p202611"), List.of("p202409"), false));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/cron/expire-history"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clippedSegments").value(7))
+                .andExpect(jsonPath("$.createdPartitions[0]").value("p202611"))
+                .andExpect(jsonPath("$.droppedPartitions[0]").value("p202409"));
     }
 
     @Test
     void shouldReturn500_WhenServiceFails() throws Exception {
         // Arrange
-        when(priceUpdateService.updateOutdatedPrices()).thenThrow(new RuntimeException("Database error"));
+        when(priceUpdateService.drainOutdatedPrices()).thenThrow(new RuntimeException("Database error"));
 
         // Act & Assert
 
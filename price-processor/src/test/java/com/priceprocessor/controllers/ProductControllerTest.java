@@ -3,6 +3,7 @@ package com.priceprocessor.controllers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.priceprocessor.dtos.api.*;
 import com.priceprocessor.dtos.errors.ErrorCode;
+import com.priceprocessor.exceptions.InvalidCursorException;
 import com.priceprocessor.exceptions.ProductNotFoundException;
 import com.priceprocessor.exceptions.ProductNotFoundInStoreException;
 import com.priceprocessor.exceptions.crawler.InvalidStoreUrlException;
@@ -12,14 +13,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -49,13 +53,58 @@ class ProductControllerTest {
         ProductObservationResponse p1 = new ProductObservationResponse(1L, "Laptop", new BigDecimal("3000.00"), "url1");
         ProductObservationResponse p2 = new ProductObservationResponse(2L, "Phone", new BigDecimal("1000.00"), "url2");
 
-        when(productService.getAllObservedProducts()).thenReturn(List.of(p1, p2));
+        when(productService.getObservedProducts(ProductSort.ADDED, Sort.Direction.ASC, null, null))
+                .thenReturn(new ProductObservationPageResponse(List.of(p1, p2), "next"));
 
         mockMvc.perform(get("/api/products"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()").value(2))
-                .andExpect(jsonPath("$[0].productName").value("Laptop"))
-                .andExpect(jsonPath("$[1].productName").value("Phone"));
+                .andExpect(jsonPath("$.items.size()").value(2))
+                .andExpect(jsonPath("$.items[0].productName").value("Laptop"))
+                .andExpect(jsonPath("$.items[1].productName").value("Phone"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void shouldPassSortAndCursor_WhenListingProducts() throws Exception {
+        // Arrange
+        when(productService.getObservedProducts(ProductSort.PRICE, Sort.Direction.DESC, "abc", 20))
+                .thenReturn(new ProductObservationPageResponse(List.of(), null));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products")
+                        .param("sort", "PRICE")
+                        .param("direction", "DESC")
+                        .param("cursor", "abc")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.size()").value(0));
+    }
+
+    @Test
+    void shouldReturn400_WhenSortIsUnknown() throws Exception {
+        mockMvc.perform(get("/api/products").param("sort", "popularity"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(ErrorCode.VALIDATION_FAILED.name()));
+    }
+
+    @Test
+    void shouldReturnDashboardWithSparklines() throws Exception {
+        // Arrange
+        ProductDashboardResponse.DashboardProductDto laptop = new ProductDashboardResponse.DashboardProductDto(1L, "Laptop",
+                new BigDecimal("2700.00"), "url1", LocalDateTime.of(2024, 5, 20, 10, 0),
+                new BigDecimal("2700.00"), new BigDecimal("3000.00"), new BigDecimal("-10.00"),
+                List.of(new ProductDetailsResponse.PriceHistoryDto(new BigDecimal("3000.00"), LocalDateTime.of(2024, 5, 1, 10, 0)),
+                        new ProductDetailsResponse.PriceHistoryDto(new BigDecimal("2700.00"), LocalDateTime.of(2024, 5, 10, 10, 0))));
+        when(productService.getDashboard(ProductSort.NAME, Sort.Direction.ASC, null, null))
+                .thenReturn(new ProductDashboardResponse(List.of(laptop), "next"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/dashboard").param("sort", "NAME"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].changePercent").value(-10.00))
+                .andExpect(jsonPath("$.items[0].sparkline.size()").value(2))
+                .andExpect(jsonPath("$.items[0].sparkline[1].price").value(2700.00))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
     }
 
     @Test
@@ -90,13 +139,50 @@ class ProductControllerTest {
     @Test
     void shouldGetProductDetails() throws Exception {
         Long productId = 1L;
-        ProductDetailsResponse response = new ProductDetailsResponse(productId, "TV", "http://url", new BigDecimal("2000"), "test@user",List.of());
+        ProductDetailsResponse.PriceStatsDto stats = new ProductDetailsResponse.PriceStatsDto(new BigDecimal("1800"),
+                new BigDecimal("2200"), new BigDecimal("1900"), 90, new BigDecimal("2000.00"), 12);
+        ProductDetailsResponse response = new ProductDetailsResponse(productId, "TV", "http://url", new BigDecimal("2000"), "test@user",
+                List.of(), stats);
 
         when(productService.getProductDetails(productId)).thenReturn(response);
 
         mockMvc.perform(get("/api/products/{id}", productId))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.productName").value("TV"));
+                .andExpect(jsonPath("$.productName").value("TV"))
+                .andExpect(jsonPath("$.stats.windowMinPrice").value(1900))
+                .andExpect(jsonPath("$.stats.priceCount").value(12));
+    }
+
+    @Test
+    void shouldGetPriceHistoryPage() throws Exception {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        PriceHistoryPageResponse response = new PriceHistoryPageResponse(List.of(
+                new PriceHistoryPageResponse.PriceHistoryEntryDto(new BigDecimal("100.00"), from.plusHours(1), from.plusHours(5), null, null)),
+                "next");
+        when(productService.getPriceHistory(1L, from, null, "abc", 50)).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/{id}/history", 1L)
+                        .param("from", "2024-05-01T00:00:00")
+                        .param("cursor", "abc")
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries.size()").value(1))
+                .andExpect(jsonPath("$.entries[0].price").value(100.00))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void shouldReturn400_WhenHistoryCursorIsInvalid() throws Exception {
+        // Arrange
+        when(productService.getPriceHistory(eq(1L), any(), any(), eq("bogus"), any()))
+                .thenThrow(new InvalidCursorException("bogus"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/{id}/history", 1L).param("cursor", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(ErrorCode.VALIDATION_FAILED.name()));
     }
 
     @Test
@@ -0,0 +1,146 @@
+package com.priceprocessor.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceStatsTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Test
+    void shouldTrackAllTimeRangeAndCount_IncludingUnchangedChecks() {
+        // Arrange
+        CatalogProduct product = new CatalogProduct();
+
+        // Act
+        product.recordPrice(new BigDecimal("100.00"), START);
+        product.recordPrice(new BigDecimal("80.00"), START.plusDays(1));
+        product.recordPrice(new BigDecimal("80.00"), START.plusDays(2));
+        product.recordPrice(new BigDecimal("120.00"), START.plusDays(3));
+
+        // Assert
+        PriceStats stats = product.getPriceStats();
+        assertThat(stats.getMinPrice()).isEqualByComparingTo("80.00");
+        assertThat(stats.getMaxPrice()).isEqualByComparingTo("120.00");
+        assertThat(stats.getPriceCount()).isEqualTo(4);
+        assertThat(stats.getStatsUpdatedAt()).isEqualTo(START.plusDays(3));
+    }
+
+    @Test
+    void shouldKeepWindowLow_WhileItWasSeenWithinTheWindow() {
+        // Arrange
+        CatalogProduct product = new CatalogProduct();
+
+        // Act
+        product.recordPrice(new BigDecimal("80.00"), START);
+        product.recordPrice(new BigDecimal("120.00"), START.plusDays(1));
+        product.recordPrice(new BigDecimal("90.00"), START.plusDays(2));
+
+        // Assert
+        PriceStats stats = product.getPriceStats();
+        assertThat(stats.getWindowMinPrice()).isEqualByComparingTo("80.00");
+        assertThat(stats.getWindowLows()).containsExactly(
+                new WindowLow(new BigDecimal("80.00"), START),
+                new WindowLow(new BigDecimal("90.00"), START.plusDays(2)));
+    }
+
+    @Test
+    void shouldExtendWindowLow_WhenItIsSeenAgain() {
+        // Arrange
+        CatalogProduct product = new CatalogProduct();
+        product.recordPrice(new BigDecimal("80.00"), START);
+        product.recordPrice(new BigDecimal("100.00"), START.plusDays(30));
+
+        // Act
+        product.recordPrice(new BigDecimal("80.00"), START.plusDays(60));
+        product.recordPrice(new BigDecimal("100.00"), START.plus(PriceStats.LOW_WINDOW).plusDays(1));
+
+        // Assert
+        assertThat(product.getPriceStats().getWindowMinPrice()).isEqualByComparingTo("80.00");
+    }
+
+    @Test
+    void shouldPopNextCandidate_WhenWindowLowExpires() {
+        // Arrange
+        CatalogProduct product = new CatalogProduct();
+        product.recordPrice(new BigDecimal("80.00"), START);
+        product.recordPrice(new BigDecimal("90.00"), START.plusDays(2));
+        product.recordPrice(new BigDecimal("100.00"), START.plusDays(40));
+
+        // Act
+        product.recordPrice(new BigDecimal("110.00"), START.plus(PriceStats.LOW_WINDOW).plusDays(1));
+
+        // Assert
+        assertThat(product.getPriceStats().getWindowMinPrice()).isEqualByComparingTo("90.00");
+        assertThat(product.getPriceStats().getMinPrice()).isEqualByComparingTo("80.00");
+    }
+
+    @Test
+    void shouldStartWindowLowAtCheck_WhenWholeWindowHasExpired() {
+        // Arrange
+        CatalogProduct product = new CatalogProduct();
+        product.recordPrice(new BigDecimal("80.00"), START);
+        LocalDateTime at = START.plus(PriceStats.LOW_WINDOW).plusDays(30);
+
+        // Act
+        product.recordPrice(new BigDecimal("95.00"), at);
+
+        // Assert
+        assertThat(product.getPriceStats().getWindowLows()).containsExactly(new WindowLow(new BigDecimal("95.00"), at));
+    }
+
+    @Test
+    void shouldKeepOneCandidatePerDay_StandingForTheDaysLaterPrices() {
+        // Arrange
+        CatalogProduct product = new CatalogProduct();
+        product.recordPrice(new BigDecimal("100.00"), START);
+
+        // Act
+        product.recordPrice(new BigDecimal("90.00"), START.plusHours(2));
+        product.recordPrice(new BigDecimal("95.00"), START.plusHours(4));
+
+        // Assert
+        assertThat(product.getPriceStats().getWindowLows()).containsExactly(
+                new WindowLow(new BigDecimal("90.00"), START.plusHours(4)));
+    }
+
+    @Test
+    void shouldDecayAverageTowardsThePriceHeldSinceLastCheck() {
+        // Arrange
+        CatalogProduct product = new CatalogProduct();
+        product.recordPrice(new BigDecimal("100.00"), START);
+        product.recordPrice(new BigDecimal("200.00"), START.plus(PriceStats.AVERAGE_PERIOD));
+
+        // Act
+        BigDecimal averageAfterChange = product.getPriceStats().getAveragePrice();
+        product.recordPrice(new BigDecimal("200.00"), START.plus(PriceStats.AVERAGE_PERIOD.multipliedBy(2)));
+
+        // Assert
+        assertThat(averageAfterChange).isEqualByComparingTo("100.00");
+        assertThat(product.getPriceStats().getAveragePrice()).isEqualByComparingTo("163.2121");
+    }
+
+    @Test
+    void shouldKeepTrueWindowLowInBoundedDeque_WhenPricesKeepRising() {
+        // Arrange
+        CatalogProduct product = new CatalogProduct();
+
+        // Act
+        for (int i = 0; i < 24 * 200; i++) {
+            product.recordPrice(BigDecimal.valueOf(100 + i), START.plusHours(i));
+        }
+
+        // Assert
+        LocalDateTime last = START.plusHours(24 * 200 - 1);
+        long firstInWindow = Duration.between(START, last.minus(PriceStats.LOW_WINDOW)).toHours();
+        PriceStats stats = product.getPriceStats();
+        assertThat(stats.getWindowLows()).hasSizeLessThanOrEqualTo(PriceStats.MAX_WINDOW_LOWS);
+        assertThat(stats.getWindowMinPrice()).isBetween(
+                BigDecimal.valueOf(100 + firstInWindow - 24), BigDecimal.valueOf(100 + firstInWindow));
+    }
+}
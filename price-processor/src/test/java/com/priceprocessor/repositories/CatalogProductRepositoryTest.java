@@ -0,0 +1,145 @@
+package com.priceprocessor.repositories;
+
+import com.priceprocessor.config.SchemaMigrationConfig;
+import com.priceprocessor.config.SchemaMigrationProperties;
+import com.priceprocessor.models.CatalogProduct;
+import com.priceprocessor.models.ProductObservation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@Import({SchemaMigrationConfig.class, SchemaMigrationProperties.class})
+class CatalogProductRepositoryTest {
+
+    @Autowired
+    private CatalogProductRepository catalogProductRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldSelectOnlyDueWatchedProducts_UnscheduledFirst() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        CatalogProduct notDue = saveWatched("not-due", now.plusMinutes(5));
+        CatalogProduct due = saveWatched("due", now.minusHours(3));
+        CatalogProduct overdue = saveWatched("overdue", now.minusHours(5));
+        CatalogProduct unscheduled = saveWatched("unscheduled", null);
+        CatalogProduct unwatched = save("unwatched", now.minusHours(10));
+
+        // Act
+        List<CatalogProduct> result = catalogProductRepository.findProductsToUpdate(now, now, PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(result).extracting(CatalogProduct::getId)
+                .containsExactly(unscheduled.getId(), overdue.getId(), due.getId())
+                .doesNotContain(notDue.getId(), unwatched.getId());
+        assertThat(catalogProductRepository.countProductsToUpdate(now, now)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldReturnSharedProductOnce_WhenWatchedByManyUsers() {
+        // Arrange
+        CatalogProduct shared = saveWatched("shared", null);
+        watch(shared, "second@test.com");
+        watch(shared, "third@test.com");
+
+        // Act
+        List<CatalogProduct> result = catalogProductRepository.findProductsToUpdate(LocalDateTime.now(), LocalDateTime.now(), PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(result).extracting(CatalogProduct::getId).containsExactly(shared.getId());
+        assertThat(productRepository.findAllByCatalogProductIdIn(List.of(shared.getId()))).hasSize(3);
+    }
+
+    @Test
+    void shouldSkipLeasedProducts_UntilLeaseExpires() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        CatalogProduct leased = saveWatched("leased", now.minusHours(1));
+        leased.setLeaseOwner("other-replica");
+        leased.setLeaseExpiresAt(now.plusMinutes(5));
+        CatalogProduct expired = saveWatched("expired", now.minusHours(2));
+        expired.setLeaseOwner("crashed-replica");
+        expired.setLeaseExpiresAt(now.minusMinutes(5));
+        catalogProductRepository.saveAll(List.of(leased, expired));
+
+        // Act
+        List<CatalogProduct> result = catalogProductRepository.findProductsToUpdate(now, now, PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(result).extracting(CatalogProduct::getId).containsExactly(expired.getId());
+        assertThat(catalogProductRepository.countProductsToUpdate(now, now)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLimitSelectionToPageSize() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        saveWatched("a", now.minusHours(2));
+        saveWatched("b", now.minusHours(3));
+        saveWatched("c", now.minusHours(4));
+
+        // Act
+        List<CatalogProduct> result = catalogProductRepository.findProductsToUpdate(now, now, PageRequest.of(0, 2));
+
+        // Assert
+        assertThat(result).hasSize(2);
+    }
+
+    @Test
+    void shouldRejectStaleWrite_WhenProductWasUpdatedConcurrently() {
+        // Arrange
+        CatalogProduct saved = save("contended", null);
+        entityManager.flush();
+        entityManager.detach(saved);
+        CatalogProduct stale = catalogProductRepository.findById(saved.getId()).orElseThrow();
+        entityManager.detach(stale);
+        CatalogProduct current = catalogProductRepository.findById(saved.getId()).orElseThrow();
+        current.setCurrentPrice(new BigDecimal("8.00"));
+        entityManager.flush();
+        entityManager.clear();
+        stale.setCurrentPrice(new BigDecimal("9.00"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> catalogProductRepository.saveAndFlush(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    private CatalogProduct saveWatched(String name, LocalDateTime nextCheckAt) {
+        CatalogProduct product = save(name, nextCheckAt);
+        watch(product, "user@test.com");
+        return product;
+    }
+
+    private CatalogProduct save(String name, LocalDateTime nextCheckAt) {
+        return catalogProductRepository.save(CatalogProduct.builder()
+                .productName(name)
+                .canonicalUrl("http://ceneo.pl/" + name)
+                .currentPrice(BigDecimal.TEN)
+                .nextCheckAt(nextCheckAt)
+                .build());
+    }
+
+    private void watch(CatalogProduct product, String userEmail) {
+        productRepository.save(ProductObservation.builder()
+                .userEmail(userEmail)
+                .catalogProduct(product)
+                .build());
+    }
+}
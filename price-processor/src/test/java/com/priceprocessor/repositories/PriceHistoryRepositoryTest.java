@@ -0,0 +1,187 @@
+package com.priceprocessor.repositories;
+
+import com.priceprocessor.config.SchemaMigrationConfig;
+import com.priceprocessor.config.SchemaMigrationProperties;
+import com.priceprocessor.models.CatalogProduct;
+import com.priceprocessor.models.PriceHistory;
+import com.priceprocessor.models.ProductObservation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@Import({SchemaMigrationConfig.class, SchemaMigrationProperties.class})
+class PriceHistoryRepositoryTest {
+
+    @Autowired
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Autowired
+    private CatalogProductRepository catalogProductRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldExtendOnlyCurrentSegment_WhenConfirmingUnchangedPrices() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0);
+        CatalogProduct product = CatalogProduct.builder().productName("a").canonicalUrl("https://www.ceneo.pl/1").build();
+        entityManager.persist(product);
+        recordPrice(product, new BigDecimal("100.00"), start);
+        recordPrice(product, new BigDecimal("90.00"), start.plusDays(1));
+        CatalogProduct other = CatalogProduct.builder().productName("b").canonicalUrl("https://www.ceneo.pl/2").build();
+        entityManager.persist(other);
+        recordPrice(other, new BigDecimal("50.00"), start);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        int updated = priceHistoryRepository.confirmCurrentPrices(List.of(product.getId()), start.plusDays(2));
+
+        // Assert
+        assertThat(updated).isEqualTo(1);
+        assertThat(priceHistoryRepository.findAll())
+                .extracting(PriceHistory::getPrice, PriceHistory::getCheckedAt, PriceHistory::getLastConfirmedAt)
+                .containsExactlyInAnyOrder(
+                        tuple(new BigDecimal("100.00"), start, start),
+                        tuple(new BigDecimal("90.00"), start.plusDays(1), start.plusDays(2)),
+                        tuple(new BigDecimal("50.00"), start, start));
+    }
+
+    @Test
+    void shouldFindOnlyClosedSegmentsConfirmedBeforeCutoff_OldestFirst() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0);
+        CatalogProduct product = CatalogProduct.builder().productName("a").canonicalUrl("https://www.ceneo.pl/1").build();
+        entityManager.persist(product);
+        recordPrice(product, new BigDecimal("100.00"), start);
+        recordPrice(product, new BigDecimal("90.00"), start.plusDays(1));
+        recordPrice(product, new BigDecimal("95.00"), start.plusDays(20));
+        recordPrice(product, new BigDecimal("85.00"), start.plusDays(21));
+        CatalogProduct unchanged = CatalogProduct.builder().productName("b").canonicalUrl("https://www.ceneo.pl/2").build();
+        entityManager.persist(unchanged);
+        recordPrice(unchanged, new BigDecimal("50.00"), start);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<PriceHistory> result = priceHistoryRepository.findCompactableSegments(start.plusDays(10), PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(result).extracting(PriceHistory::getPrice)
+                .containsExactly(new BigDecimal("100.00"), new BigDecimal("90.00"));
+    }
+
+    @Test
+    void shouldClipOnlyCurrentSegmentsToHorizon_AndDeleteOlderRows() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2022, 1, 10, 10, 0);
+        LocalDateTime horizon = LocalDateTime.of(2023, 1, 1, 0, 0);
+        CatalogProduct stable = CatalogProduct.builder().productName("a").canonicalUrl("https://www.ceneo.pl/1").build();
+        entityManager.persist(stable);
+        recordPrice(stable, new BigDecimal("100.00"), start);
+        recordPrice(stable, new BigDecimal("90.00"), start.plusDays(5));
+        CatalogProduct recent = CatalogProduct.builder().productName("b").canonicalUrl("https://www.ceneo.pl/2").build();
+        entityManager.persist(recent);
+        recordPrice(recent, new BigDecimal("50.00"), horizon.plusDays(3));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        int clipped = priceHistoryRepository.clipCurrentSegmentsBefore(horizon);
+        catalogProductRepository.clipPriceChangedBefore(horizon);
+        priceHistoryRepository.deleteAllCheckedBefore(horizon);
+        entityManager.clear();
+
+        // Assert
+        assertThat(clipped).isEqualTo(1);
+        assertThat(priceHistoryRepository.findAll())
+                .extracting(PriceHistory::getPrice, PriceHistory::getCheckedAt, PriceHistory::getLastConfirmedAt)
+                .containsExactlyInAnyOrder(
+                        tuple(new BigDecimal("90.00"), horizon, horizon),
+                        tuple(new BigDecimal("50.00"), horizon.plusDays(3), horizon.plusDays(3)));
+        assertThat(catalogProductRepository.findById(stable.getId())).hasValueSatisfying(product ->
+                assertThat(product.getPriceChangedAt()).isEqualTo(horizon));
+        assertThat(priceHistoryRepository.findLatestByCatalogProductId(stable.getId(), horizon, PageRequest.of(0, 10))).hasSize(1);
+    }
+
+    @Test
+    void shouldPageSegmentsInRangeAfterKeyset() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0);
+        CatalogProduct product = CatalogProduct.builder().productName("a").canonicalUrl("https://www.ceneo.pl/1").build();
+        entityManager.persist(product);
+        for (int i = 0; i < 5; i++) {
+            recordPrice(product, new BigDecimal(100 + i), start.plusDays(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<PriceHistory> first = priceHistoryRepository.findPageByCatalogProductId(product.getId(),
+                start.plusDays(1), start.plusDays(4), start.plusDays(1), 0L, PageRequest.of(0, 2));
+        PriceHistory last = first.get(first.size() - 1);
+        List<PriceHistory> second = priceHistoryRepository.findPageByCatalogProductId(product.getId(),
+                start.plusDays(1), start.plusDays(4), last.getCheckedAt(), last.getId(), PageRequest.of(0, 2));
+
+        // Assert
+        assertThat(first).extracting(PriceHistory::getPrice).containsExactly(new BigDecimal("101.00"), new BigDecimal("102.00"));
+        assertThat(second).extracting(PriceHistory::getPrice).containsExactly(new BigDecimal("103.00"));
+    }
+
+    @Test
+    void shouldReturnLatestPointsAndWindowStatsPerObservation() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0);
+        CatalogProduct product = CatalogProduct.builder().productName("a").canonicalUrl("https://www.ceneo.pl/1").build();
+        entityManager.persist(product);
+        recordPrice(product, new BigDecimal("100.00"), start, start.plusDays(4));
+        recordPrice(product, new BigDecimal("90.00"), start.plusDays(5), start.plusDays(9));
+        recordPrice(product, new BigDecimal("120.00"), start.plusDays(10), start.plusDays(14));
+        recordPrice(product, new BigDecimal("80.00"), start.plusDays(15), start.plusDays(16));
+        CatalogProduct other = CatalogProduct.builder().productName("b").canonicalUrl("https://www.ceneo.pl/2").build();
+        entityManager.persist(other);
+        recordPrice(other, new BigDecimal("50.00"), start, start.plusDays(16));
+        ProductObservation watched = entityManager.persist(ProductObservation.builder().userEmail("user@test.com").catalogProduct(product).build());
+        ProductObservation otherWatched = entityManager.persist(ProductObservation.builder().userEmail("user@test.com").catalogProduct(other).build());
+        entityManager.persist(ProductObservation.builder().userEmail("other@test.com").catalogProduct(product).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<PriceHistoryRepositoryCustom.SparklinePoint> result = priceHistoryRepository.findSparklines(
+                List.of(watched.getId(), otherWatched.getId()), start.plusDays(7), start.minusMonths(1), 2);
+
+        // Assert
+        assertThat(result)
+                .extracting(PriceHistoryRepositoryCustom.SparklinePoint::observationId, PriceHistoryRepositoryCustom.SparklinePoint::price,
+                        PriceHistoryRepositoryCustom.SparklinePoint::checkedAt, PriceHistoryRepositoryCustom.SparklinePoint::minPrice,
+                        PriceHistoryRepositoryCustom.SparklinePoint::maxPrice, PriceHistoryRepositoryCustom.SparklinePoint::openPrice)
+                .containsExactly(
+                        tuple(watched.getId(), new BigDecimal("120.00"), start.plusDays(10), new BigDecimal("80.00"), new BigDecimal("120.00"), new BigDecimal("90.00")),
+                        tuple(watched.getId(), new BigDecimal("80.00"), start.plusDays(15), new BigDecimal("80.00"), new BigDecimal("120.00"), new BigDecimal("90.00")),
+                        tuple(otherWatched.getId(), new BigDecimal("50.00"), start, new BigDecimal("50.00"), new BigDecimal("50.00"), new BigDecimal("50.00")));
+    }
+
+    private void recordPrice(CatalogProduct product, BigDecimal price, LocalDateTime checkedAt) {
+        product.recordPrice(price, checkedAt).ifPresent(entityManager::persist);
+    }
+
+    private void recordPrice(CatalogProduct product, BigDecimal price, LocalDateTime checkedAt, LocalDateTime lastConfirmedAt) {
+        product.recordPrice(price, checkedAt).ifPresent(segment -> {
+            segment.setLastConfirmedAt(lastConfirmedAt);
+            entityManager.persist(segment);
+        });
+    }
+}
@@ -0,0 +1,137 @@
+package com.priceprocessor.repositories;
+
+import com.priceprocessor.config.SchemaMigrationConfig;
+import com.priceprocessor.config.SchemaMigrationProperties;
+import com.priceprocessor.dtos.api.ProductObservationResponse;
+import com.priceprocessor.dtos.api.ProductSort;
+import com.priceprocessor.models.CatalogProduct;
+import com.priceprocessor.models.ProductObservation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@Import({SchemaMigrationConfig.class, SchemaMigrationProperties.class})
+class ProductRepositoryTest {
+
+    private static final String USER = "user@test.com";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldPageUsersProductsByName_AfterKeyset() {
+        // Arrange
+        LocalDateTime checkedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        watch(USER, "Phone", "1000.00", checkedAt);
+        ProductObservation laptop = watch(USER, "Laptop", "3000.00", checkedAt);
+        watch(USER, "Console", "2000.00", checkedAt);
+        watch("other@test.com", "Camera", "500.00", checkedAt);
+
+        // Act
+        List<ProductObservationResponse> first = productRepository.findPageByUserEmail(USER, ProductSort.NAME, Sort.Direction.ASC,
+                null, null, 2);
+        List<ProductObservationResponse> second = productRepository.findPageByUserEmail(USER, ProductSort.NAME, Sort.Direction.ASC,
+                "Laptop", laptop.getId(), 2);
+
+        // Assert
+        assertThat(first).extracting(ProductObservationResponse::productName).containsExactly("Console", "Laptop");
+        assertThat(first.get(0).lastChecked()).isEqualTo(checkedAt);
+        assertThat(second).extracting(ProductObservationResponse::productName).containsExactly("Phone");
+    }
+
+    @Test
+    void shouldBreakPriceTiesById_WhenPagingDescending() {
+        // Arrange
+        LocalDateTime checkedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        ProductObservation first = watch(USER, "A", "100.00", checkedAt);
+        ProductObservation second = watch(USER, "B", "100.00", checkedAt);
+        ProductObservation cheapest = watch(USER, "C", "50.00", checkedAt);
+
+        // Act
+        List<ProductObservationResponse> page = productRepository.findPageByUserEmail(USER, ProductSort.PRICE, Sort.Direction.DESC,
+                new BigDecimal("100.00"), second.getId(), 10);
+
+        // Assert
+        assertThat(page).extracting(ProductObservationResponse::id).containsExactly(first.getId(), cheapest.getId());
+    }
+
+    @Test
+    void shouldKeepProductsWithoutPriceLast_InBothDirections() {
+        // Arrange
+        LocalDateTime checkedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        ProductObservation unpriced = watch(USER, "A", null, checkedAt);
+        ProductObservation cheap = watch(USER, "B", "50.00", checkedAt);
+        ProductObservation pricey = watch(USER, "C", "100.00", checkedAt);
+
+        // Act
+        List<ProductObservationResponse> ascending = productRepository.findPageByUserEmail(USER, ProductSort.PRICE, Sort.Direction.ASC,
+                null, null, 10);
+        List<ProductObservationResponse> descending = productRepository.findPageByUserEmail(USER, ProductSort.PRICE, Sort.Direction.DESC,
+                null, null, 10);
+
+        // Assert
+        assertThat(ascending).extracting(ProductObservationResponse::id)
+                .containsExactly(cheap.getId(), pricey.getId(), unpriced.getId());
+        assertThat(descending).extracting(ProductObservationResponse::id)
+                .containsExactly(pricey.getId(), cheap.getId(), unpriced.getId());
+    }
+
+    @Test
+    void shouldPageIntoAndThroughProductsWithoutPrice() {
+        // Arrange
+        LocalDateTime checkedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        ProductObservation priced = watch(USER, "A", "50.00", checkedAt);
+        ProductObservation firstUnpriced = watch(USER, "B", null, checkedAt);
+        ProductObservation secondUnpriced = watch(USER, "C", null, checkedAt);
+
+        // Act
+        List<ProductObservationResponse> afterPriced = productRepository.findPageByUserEmail(USER, ProductSort.PRICE, Sort.Direction.ASC,
+                new BigDecimal("50.00"), priced.getId(), 10);
+        List<ProductObservationResponse> afterUnpriced = productRepository.findPageByUserEmail(USER, ProductSort.PRICE, Sort.Direction.ASC,
+                null, firstUnpriced.getId(), 10);
+
+        // Assert
+        assertThat(afterPriced).extracting(ProductObservationResponse::id)
+                .containsExactly(firstUnpriced.getId(), secondUnpriced.getId());
+        assertThat(afterUnpriced).extracting(ProductObservationResponse::id).containsExactly(secondUnpriced.getId());
+    }
+
+    @Test
+    void shouldPageByAddedOrder() {
+        // Arrange
+        LocalDateTime checkedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        ProductObservation first = watch(USER, "A", "100.00", checkedAt);
+        ProductObservation second = watch(USER, "B", "200.00", checkedAt);
+
+        // Act
+        List<ProductObservationResponse> page = productRepository.findPageByUserEmail(USER, ProductSort.ADDED, Sort.Direction.ASC,
+                first.getId(), first.getId(), 10);
+
+        // Assert
+        assertThat(page).extracting(ProductObservationResponse::id).containsExactly(second.getId());
+    }
+
+    private ProductObservation watch(String userEmail, String name, String price, LocalDateTime checkedAt) {
+        CatalogProduct product = CatalogProduct.builder()
+                .productName(name)
+                .canonicalUrl("https://www.ceneo.pl/" + userEmail + "/" + name)
+                .currentPrice(price == null ? null : new BigDecimal(price))
+                .lastCheckedAt(checkedAt)
+                .build();
+        entityManager.persist(product);
+        return entityManager.persist(ProductObservation.builder().userEmail(userEmail).catalogProduct(product).build());
+    }
+}
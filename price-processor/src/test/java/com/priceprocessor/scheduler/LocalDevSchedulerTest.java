@@ -1,5 +1,7 @@
 package com.priceprocessor.scheduler;
 
+import com.priceprocessor.services.PriceHistoryCompactionService;
+import com.priceprocessor.services.PriceHistoryRetentionService;
 import com.priceprocessor.services.PriceUpdateService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,6 +18,12 @@ class LocalDevSchedulerTest {
     @Mock
     private PriceUpdateService priceUpdateService;
 
+    @Mock
+    private PriceHistoryCompactionService priceHistoryCompactionService;
+
+    @Mock
+    private PriceHistoryRetentionService priceHistoryRetentionService;
+
     @InjectMocks
     private LocalDevScheduler localDevScheduler;
 
@@ -25,6 +33,24 @@ class LocalDevSchedulerTest {
         localDevScheduler.runLocalBatch();
 
         // Assert
-        verify(priceUpdateService, times(1)).updateOutdatedPrices();
+        verify(priceUpdateService, times(1)).drainOutdatedPrices();
+    }
+
+    @Test
+    void shouldTriggerHistoryCompaction_WhenScheduledMethodRuns() {
+        // Act
+        localDevScheduler.runHistoryCompaction();
+
+        // Assert
+        verify(priceHistoryCompactionService, times(1)).compactHistory();
+    }
+
+    @Test
+    void shouldTriggerHistoryRetention_WhenScheduledMethodRuns() {
+        // Act
+        localDevScheduler.runHistoryRetention();
+
+        // Assert
+        verify(priceHistoryRetentionService, times(1)).expireHistory();
     }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.priceprocessor.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Properties of the canonicalizer checked over generated URLs. Each generator uses a fixed seed,
+ * so a failing case reproduces on every run.
+ */
+class CeneoUrlCanonicalizerTest {
+
+    private static final int CASES = 500;
+
+    @ParameterizedTest
+    @MethodSource("productUrlVariants")
+    void shouldMapEverySpellingOfProductUrl_ToOneKey(long productId, String variant) {
+        // Act
+        String canonical = CeneoUrlCanonicalizer.canonicalize(variant);
+
+        // Assert
+        assertThat(canonical).isEqualTo("https://www.ceneo.pl/" + productId);
+    }
+
+    @ParameterizedTest
+    @MethodSource("anyInput")
+    void shouldBeIdempotent(String input) {
+        // Act
+        String canonical = CeneoUrlCanonicalizer.canonicalize(input);
+
+        // Assert
+        assertThat(CeneoUrlCanonicalizer.canonicalize(canonical)).isEqualTo(canonical);
+    }
+
+    @ParameterizedTest
+    @MethodSource("productIdPairs")
+    void shouldKeepDifferentProductsApart(long firstId, long secondId) {
+        // Act
+        String first = CeneoUrlCanonicalizer.canonicalize(decorate(new Random(firstId), firstId));
+        String second = CeneoUrlCanonicalizer.canonicalize(decorate(new Random(secondId), secondId));
+
+        // Assert
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @ParameterizedTest
+    @MethodSource("otherStoreUrls")
+    void shouldKeepPathAndQueryOfOtherStores_AndDropFragment(String host, String path, String query) {
+        // Act
+        String canonical = CeneoUrlCanonicalizer.canonicalize("HTTPS://" + host.toUpperCase(Locale.ROOT) + path + "?" + query + "#reviews");
+
+        // Assert
+        assertThat(canonical).isEqualTo("https://" + host + path + "?" + query);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'https://www.ceneo.pl/;szukaj-iphone+15',   https://www.ceneo.pl/;szukaj-iphone+15",
+            "'http://Ceneo.pl/Telefony_komorkowe/?x=1', https://www.ceneo.pl/Telefony_komorkowe",
+            "'  www.ceneo.pl/157 ',                     https://www.ceneo.pl/157",
+            "'https://m.ceneo.pl/157;0280-0v.htm',      https://www.ceneo.pl/157",
+            "'https://www.ceneo.pl',                    https://www.ceneo.pl",
+            "'not a url',                               not a url"
+    })
+    void shouldCanonicalizeExamples(String input, String expected) {
+        assertThat(CeneoUrlCanonicalizer.canonicalize(input)).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldKeepSearchPagesForDifferentQueriesApart() {
+        assertThat(CeneoUrlCanonicalizer.canonicalize("https://www.ceneo.pl/;szukaj-ps5"))
+                .isNotEqualTo(CeneoUrlCanonicalizer.canonicalize("https://www.ceneo.pl/;szukaj-xbox"));
+    }
+
+    static Stream<Object[]> productUrlVariants() {
+        Random random = new Random(15);
+        return IntStream.range(0, CASES).mapToObj(i -> {
+            long productId = 1 + (long) (random.nextDouble() * 999_999_999L);
+            return new Object[]{productId, decorate(random, productId)};
+        });
+    }
+
+    static Stream<String> anyInput() {
+        Random random = new Random(42);
+        String alphabet = "abcXYZ019:/?#;&=.%-_ ~+@";
+        return IntStream.range(0, CASES).mapToObj(i -> switch (i % 3) {
+            case 0 -> decorate(random, random.nextInt(1_000_000));
+            case 1 -> "https://" + randomString(random, "abcdef.", 8) + "/" + randomString(random, alphabet, 12);
+            default -> randomString(random, alphabet, 20);
+        });
+    }
+
+    static Stream<Object[]> productIdPairs() {
+        Random random = new Random(7);
+        return IntStream.range(0, CASES).mapToObj(i -> {
+            long first = random.nextInt(1_000_000);
+            return new Object[]{first, first + 1 + random.nextInt(1_000_000)};
+        });
+    }
+
+    static Stream<Object[]> otherStoreUrls() {
+        Random random = new Random(3);
+        return IntStream.range(0, 50).mapToObj(i -> new Object[]{
+                "shop" + random.nextInt(100) + ".example.com",
+                "/p/" + random.nextInt(100_000),
+                "id=" + random.nextInt(1000) + "&color=red"
+        });
+    }
+
+    /**
+     * A product URL as it arrives in practice: any scheme or none, any host case, search and
+     * offer suffixes, tracking parameters, fragments, trailing slashes and stray whitespace.
+     */
+    private static String decorate(Random random, long productId) {
+        String[] schemes = {"https://", "http://", "HTTPS://", ""};
+        String[] hosts = {"www.ceneo.pl", "ceneo.pl", "WWW.CENEO.PL", "Ceneo.PL", "m.ceneo.pl"};
+        String[] suffixes = {"", "/", ";szukaj-" + randomString(random, "abcdef+", 6), ";02514-0v", ";0280-0v.htm"};
+        String[] queries = {"", "?utm_source=facebook&utm_medium=social", "?tag=deal", "?"};
+        String[] fragments = {"", "#tab=spec", "#tab=reviews_scroll", "#"};
+        String[] padding = {"", " ", "\t", "  "};
+
+        String host = hosts[random.nextInt(hosts.length)];
+        return padding[random.nextInt(padding.length)]
+                + schemes[random.nextInt(schemes.length)]
+                + (random.nextBoolean() ? host : host.toLowerCase(Locale.ROOT))
+                + "/" + productId
+                + suffixes[random.nextInt(suffixes.length)]
+                + queries[random.nextInt(queries.length)]
+                + fragments[random.nextInt(fragments.length)]
+                + padding[random.nextInt(padding.length)];
+    }
+
+    private static String randomString(Random random, String alphabet, int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        int length = 1 + random.nextInt(maxLength);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+}
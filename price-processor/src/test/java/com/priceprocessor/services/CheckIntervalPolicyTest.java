@@ -0,0 +1,111 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.config.PriceUpdateProperties;
+import com.priceprocessor.models.CatalogProduct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckIntervalPolicyTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+    private static final BigDecimal PRICE = new BigDecimal("100.00");
+
+    private CheckIntervalPolicy checkIntervalPolicy;
+
+    @BeforeEach
+    void setUp() {
+        PriceUpdateProperties properties = new PriceUpdateProperties();
+        properties.setCheckInterval(Duration.ofHours(1));
+        properties.setMinCheckInterval(Duration.ofMinutes(15));
+        properties.setMaxCheckInterval(Duration.ofHours(24));
+        checkIntervalPolicy = new CheckIntervalPolicy(properties);
+    }
+
+    @Test
+    void shouldScheduleNewProductWithInitialInterval() {
+        // Arrange
+        CatalogProduct product = new CatalogProduct();
+
+        // Act
+        checkIntervalPolicy.scheduleNew(product, NOW);
+
+        // Assert
+        assertThat(product.getNextCheckAt()).isEqualTo(NOW.plusHours(1));
+    }
+
+    @Test
+    void shouldHalveInterval_WhenPriceChanged() {
+        // Arrange
+        CatalogProduct product = productWithInterval(Duration.ofHours(4));
+
+        // Act
+        checkIntervalPolicy.scheduleAfterCheck(product, PRICE, new BigDecimal("90.00"), NOW);
+
+        // Assert
+        assertThat(product.getNextCheckAt()).isEqualTo(NOW.plusHours(2));
+    }
+
+    @Test
+    void shouldDoubleInterval_WhenPriceUnchanged() {
+        // Arrange
+        CatalogProduct product = productWithInterval(Duration.ofHours(4));
+
+        // Act
+        checkIntervalPolicy.scheduleAfterCheck(product, PRICE, new BigDecimal("100.0"), NOW);
+
+        // Assert
+        assertThat(product.getNextCheckAt()).isEqualTo(NOW.plusHours(8));
+    }
+
+    @Test
+    void shouldKeepIntervalWithinBounds() {
+        // Arrange
+        CatalogProduct volatileProduct = productWithInterval(Duration.ofMinutes(20));
+        CatalogProduct stableProduct = productWithInterval(Duration.ofHours(20));
+
+        // Act
+        checkIntervalPolicy.scheduleAfterCheck(volatileProduct, PRICE, new BigDecimal("90.00"), NOW);
+        checkIntervalPolicy.scheduleAfterCheck(stableProduct, PRICE, PRICE, NOW);
+
+        // Assert
+        assertThat(volatileProduct.getNextCheckAt()).isEqualTo(NOW.plusMinutes(15));
+        assertThat(stableProduct.getNextCheckAt()).isEqualTo(NOW.plusHours(24));
+    }
+
+    @Test
+    void shouldKeepInterval_WhenCheckFailed() {
+        // Arrange
+        CatalogProduct product = productWithInterval(Duration.ofHours(4));
+
+        // Act
+        checkIntervalPolicy.scheduleAfterFailure(product, NOW);
+
+        // Assert
+        assertThat(product.getNextCheckAt()).isEqualTo(NOW.plusHours(4));
+        assertThat(product.getCheckIntervalSeconds()).isEqualTo(Duration.ofHours(4).toSeconds());
+    }
+
+    @Test
+    void shouldStartFromInitialInterval_WhenProductWasNeverScheduled() {
+        // Arrange
+        CatalogProduct product = new CatalogProduct();
+
+        // Act
+        checkIntervalPolicy.scheduleAfterCheck(product, PRICE, PRICE, NOW);
+
+        // Assert
+        assertThat(product.getNextCheckAt()).isEqualTo(NOW.plusHours(2));
+    }
+
+    private CatalogProduct productWithInterval(Duration interval) {
+        CatalogProduct product = new CatalogProduct();
+        product.setCheckIntervalSeconds(interval.toSeconds());
+        return product;
+    }
+}
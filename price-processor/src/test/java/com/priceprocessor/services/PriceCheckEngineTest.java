@@ -0,0 +1,256 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.config.PriceUpdateProperties;
+import com.priceprocessor.config.ScraperProperties;
+import com.priceprocessor.dtos.crawler.PriceCheckResult;
+import com.priceprocessor.dtos.crawler.PriceResponse;
+import com.priceprocessor.exceptions.PriceFetchException;
+import com.priceprocessor.services.cache.PriceResponseCache;
+import com.priceprocessor.services.clients.AsyncPriceClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceCheckEngineTest {
+
+    @Mock
+    private AsyncPriceClient asyncPriceClient;
+    @Mock
+    private MetricsService metricsService;
+
+    private PriceUpdateProperties properties;
+    private PriceResponseCache priceResponseCache;
+    private PriceCheckEngine priceCheckEngine;
+
+    /**
+     * URLs of every bulk request sent to the client, in the order they were sent.
+     */
+    private final List<List<String>> requests = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new PriceUpdateProperties();
+        priceResponseCache = new PriceResponseCache(new ScraperProperties(), metricsService);
+        priceCheckEngine = new PriceCheckEngine(asyncPriceClient, priceResponseCache, metricsService, properties);
+    }
+
+    @Test
+    void shouldReturnEmptyMap_WhenNoUrlsGiven() {
+        // Act
+        Map<String, PriceCheckResult> results = priceCheckEngine.checkPricesAsync(List.of()).join();
+
+        // Assert
+        assertThat(results).isEmpty();
+        verifyNoInteractions(asyncPriceClient);
+        verify(metricsService, never()).recordPriceCheckRun(anyInt(), any(Duration.class));
+    }
+
+    @Test
+    void shouldCheckEachDistinctUrlOnce() {
+        // Arrange
+        answerEachUrl(url -> PriceCheckResult.success(url, Optional.of(response(url, BigDecimal.TEN))));
+
+        // Act
+        Map<String, PriceCheckResult> results = priceCheckEngine.checkPricesAsync(List.of("url1", "url2", "url1")).join();
+
+        // Assert
+        assertThat(results).containsOnlyKeys("url1", "url2");
+        assertThat(requests).containsExactly(List.of("url1", "url2"));
+        verify(metricsService).recordPriceCheckRun(eq(2), any(Duration.class));
+    }
+
+    @Test
+    void shouldIsolateFailures_WhenOneProductFails() {
+        // Arrange
+        answerEachUrl(url -> url.equals("bad")
+                ? PriceCheckResult.failure(url, new PriceFetchException("Scraper network error"))
+                : PriceCheckResult.success(url, Optional.of(response(url, BigDecimal.ONE))));
+
+        // Act
+        Map<String, PriceCheckResult> results = priceCheckEngine.checkPricesAsync(List.of("bad", "good")).join();
+
+        // Assert
+        assertThat(results.get("bad").isFailure()).isTrue();
+        assertThat(results.get("bad").error()).isInstanceOf(PriceFetchException.class);
+        assertThat(results.get("good").isFailure()).isFalse();
+        assertThat(results.get("good").response()).isPresent();
+    }
+
+    @Test
+    void shouldSendAllRequests_BeforeAnyOfThemCompletes() {
+        // Arrange
+        properties.setBulkSize(1);
+        List<CompletableFuture<Map<String, PriceCheckResult>>> pending = new CopyOnWriteArrayList<>();
+        when(asyncPriceClient.checkPricesByUrlsAsync(anyCollection())).thenAnswer(inv -> {
+            CompletableFuture<Map<String, PriceCheckResult>> request = new CompletableFuture<>();
+            pending.add(request);
+            return request;
+        });
+
+        // Act
+        CompletableFuture<Map<String, PriceCheckResult>> run = priceCheckEngine.checkPricesAsync(List.of("a", "b", "c"));
+
+        // Assert
+        assertThat(pending).hasSize(3);
+        assertThat(run).isNotDone();
+        pending.forEach(request -> request.complete(Map.of()));
+        assertThat(run).isDone();
+    }
+
+    @Test
+    void shouldSendUrlsInBulkRequestsOfConfiguredSize() {
+        // Arrange
+        properties.setBulkSize(2);
+        answerEachUrl(url -> PriceCheckResult.success(url, Optional.empty()));
+
+        // Act
+        Map<String, PriceCheckResult> results = priceCheckEngine.checkPricesAsync(List.of("a", "b", "c")).join();
+
+        // Assert
+        assertThat(results).containsOnlyKeys("a", "b", "c");
+        assertThat(requests).containsExactlyInAnyOrder(List.of("a", "b"), List.of("c"));
+    }
+
+    @Test
+    void shouldFailEveryUrlOfRequest_WhenBulkRequestFails() {
+        // Arrange
+        properties.setBulkSize(2);
+        when(asyncPriceClient.checkPricesByUrlsAsync(List.of("a", "b")))
+                .thenReturn(CompletableFuture.failedFuture(new PriceFetchException("Scraper network error")));
+        when(asyncPriceClient.checkPricesByUrlsAsync(List.of("c")))
+                .thenReturn(CompletableFuture.completedFuture(Map.of("c", PriceCheckResult.success("c", Optional.empty()))));
+
+        // Act
+        Map<String, PriceCheckResult> results = priceCheckEngine.checkPricesAsync(List.of("a", "b", "c")).join();
+
+        // Assert
+        assertThat(results.get("a").error()).isInstanceOf(PriceFetchException.class);
+        assertThat(results.get("b").error()).isInstanceOf(PriceFetchException.class);
+        assertThat(results.get("c").isFailure()).isFalse();
+    }
+
+    @Test
+    void shouldFailEveryUrlOfRequest_WhenClientThrowsBeforeSending() {
+        // Arrange
+        when(asyncPriceClient.checkPricesByUrlsAsync(anyCollection()))
+                .thenThrow(new PriceFetchException("Scraper is unavailable"));
+
+        // Act
+        Map<String, PriceCheckResult> results = priceCheckEngine.checkPricesAsync(List.of("a", "b")).join();
+
+        // Assert
+        assertThat(results.values()).allSatisfy(result -> assertThat(result.error()).isInstanceOf(PriceFetchException.class));
+    }
+
+    @Test
+    void shouldFailUrl_WhenBulkResponseLeavesItOut() {
+        // Arrange
+        when(asyncPriceClient.checkPricesByUrlsAsync(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(Map.of("a", PriceCheckResult.success("a", Optional.empty()))));
+
+        // Act
+        Map<String, PriceCheckResult> results = priceCheckEngine.checkPricesAsync(List.of("a", "b")).join();
+
+        // Assert
+        assertThat(results.get("a").isFailure()).isFalse();
+        assertThat(results.get("b").isFailure()).isTrue();
+    }
+
+    @Test
+    void shouldAnswerFromCache_WhenUrlWasScrapedRecently() {
+        // Arrange
+        PriceResponse cached = response("a", BigDecimal.ONE);
+        priceResponseCache.put("a", cached);
+        answerEachUrl(url -> PriceCheckResult.success(url, Optional.of(response(url, BigDecimal.TEN))));
+
+        // Act
+        Map<String, PriceCheckResult> results = priceCheckEngine.checkPricesAsync(List.of("a", "b")).join();
+
+        // Assert
+        assertThat(results.get("a").response()).contains(cached);
+        assertThat(results.get("b").response()).isPresent();
+        assertThat(requests).containsExactly(List.of("b"));
+    }
+
+    @Test
+    void shouldCacheScrapedResponses_SoNextRunSkipsScraper() {
+        // Arrange
+        answerEachUrl(url -> PriceCheckResult.success(url, Optional.of(response(url, BigDecimal.TEN))));
+        priceCheckEngine.checkPricesAsync(List.of("a")).join();
+
+        // Act
+        Map<String, PriceCheckResult> results = priceCheckEngine.checkPricesAsync(List.of("a")).join();
+
+        // Assert
+        assertThat(results.get("a").response()).isPresent();
+        assertThat(requests).hasSize(1);
+    }
+
+    @Test
+    void shouldNotCacheFailures() {
+        // Arrange
+        answerEachUrl(url -> PriceCheckResult.failure(url, new PriceFetchException("Scraper network error")));
+        priceCheckEngine.checkPricesAsync(List.of("a")).join();
+
+        // Act
+        priceCheckEngine.checkPricesAsync(List.of("a")).join();
+
+        // Assert
+        assertThat(requests).hasSize(2);
+    }
+
+    @Test
+    void shouldScrapeOnce_WhenUrlsAreSpellingsOfSameProduct() {
+        // Arrange
+        answerEachUrl(url -> PriceCheckResult.success(url, Optional.of(response(url, BigDecimal.TEN))));
+
+        // Act
+        Map<String, PriceCheckResult> results = priceCheckEngine.checkPricesAsync(
+                List.of("https://www.ceneo.pl/123", "http://ceneo.pl/123#tab=spec")).join();
+
+        // Assert
+        assertThat(results).containsOnlyKeys("https://www.ceneo.pl/123", "http://ceneo.pl/123#tab=spec");
+        assertThat(results.get("http://ceneo.pl/123#tab=spec").productUrl()).isEqualTo("http://ceneo.pl/123#tab=spec");
+        assertThat(results.get("http://ceneo.pl/123#tab=spec").response()).isPresent();
+        assertThat(requests).containsExactly(List.of("https://www.ceneo.pl/123"));
+    }
+
+    /**
+     * Answers every bulk request at once with {@code resultFor} applied to each of its URLs,
+     * and records the request in {@link #requests}.
+     */
+    private void answerEachUrl(Function<String, PriceCheckResult> resultFor) {
+        when(asyncPriceClient.checkPricesByUrlsAsync(anyCollection())).thenAnswer(inv -> {
+            Collection<String> urls = inv.getArgument(0);
+            requests.add(List.copyOf(urls));
+            Map<String, PriceCheckResult> results = new LinkedHashMap<>();
+            urls.forEach(url -> results.put(url, resultFor.apply(url)));
+            return CompletableFuture.completedFuture(results);
+        });
+    }
+
+    private static PriceResponse response(String url, BigDecimal price) {
+        return new PriceResponse("P", price, "PLN", url);
+    }
+}
@@ -0,0 +1,166 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.config.PriceHistoryProperties;
+import com.priceprocessor.dtos.api.HistoryCompactionResponse;
+import com.priceprocessor.models.CatalogProduct;
+import com.priceprocessor.models.PriceHistory;
+import com.priceprocessor.models.PriceHistoryDaily;
+import com.priceprocessor.repositories.CatalogProductRepository;
+import com.priceprocessor.repositories.PriceHistoryDailyRepository;
+import com.priceprocessor.repositories.PriceHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceHistoryCompactionServiceTest {
+
+    private static final LocalDateTime DAY_ONE = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Mock
+    private PriceHistoryRepository priceHistoryRepository;
+    @Mock
+    private PriceHistoryDailyRepository priceHistoryDailyRepository;
+    @Mock
+    private CatalogProductRepository catalogProductRepository;
+
+    private PriceHistoryProperties properties;
+    private PriceHistoryCompactionService compactionService;
+
+    private final CatalogProduct product = CatalogProduct.builder().id(1L).build();
+
+    @BeforeEach
+    void setUp() {
+        properties = new PriceHistoryProperties();
+        compactionService = new PriceHistoryCompactionService(
+                new PriceHistoryCompactionPersistenceService(priceHistoryRepository, priceHistoryDailyRepository, catalogProductRepository), properties);
+    }
+
+    @Test
+    void shouldRollSegmentsUpIntoDailyOhlc_AndDeleteThem() {
+        // Arrange
+        PriceHistory morning = segment("100.00", DAY_ONE.plusHours(8), DAY_ONE.plusHours(12));
+        PriceHistory afternoon = segment("80.00", DAY_ONE.plusHours(14), DAY_ONE.plusHours(16));
+        PriceHistory evening = segment("90.00", DAY_ONE.plusHours(18), DAY_ONE.plusDays(2).plusHours(9));
+        givenCompactableSegments(List.of(morning, afternoon, evening));
+
+        // Act
+        HistoryCompactionResponse response = compactionService.compactHistory();
+
+        // Assert
+        assertThat(response.compactedSegments()).isEqualTo(3);
+        List<PriceHistoryDaily> rollups = savedRollups();
+        assertThat(rollups).extracting(PriceHistoryDaily::getDay)
+                .containsExactlyInAnyOrder(DAY_ONE.toLocalDate(), DAY_ONE.toLocalDate().plusDays(2));
+
+        PriceHistoryDaily first = rollupOf(rollups, DAY_ONE.toLocalDate());
+        assertThat(first.getOpenPrice()).isEqualTo(new BigDecimal("100.00"));
+        assertThat(first.getHighPrice()).isEqualTo(new BigDecimal("100.00"));
+        assertThat(first.getLowPrice()).isEqualTo(new BigDecimal("80.00"));
+        assertThat(first.getClosePrice()).isEqualTo(new BigDecimal("90.00"));
+        assertThat(first.getLastCheckedAt()).isEqualTo(DAY_ONE.plusHours(18));
+
+        PriceHistoryDaily third = rollupOf(rollups, DAY_ONE.toLocalDate().plusDays(2));
+        assertThat(third.getOpenPrice()).isEqualTo(new BigDecimal("90.00"));
+        assertThat(third.getClosePrice()).isEqualTo(new BigDecimal("90.00"));
+
+        verify(priceHistoryRepository).deleteAllInBatch(List.of(morning, afternoon, evening));
+    }
+
+    @Test
+    void shouldFoldIntoExistingRollup_WhenDayWasPartlyCompactedBefore() {
+        // Arrange
+        PriceHistoryDaily existing = PriceHistoryDaily.builder().catalogProduct(product).day(DAY_ONE.toLocalDate()).build();
+        existing.include(DAY_ONE.plusHours(6), new BigDecimal("70.00"));
+        when(priceHistoryDailyRepository.findAllForProductsBetween(anyCollection(), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of(existing));
+        givenCompactableSegments(List.of(segment("100.00", DAY_ONE.plusHours(20), DAY_ONE.plusHours(22))));
+
+        // Act
+        compactionService.compactHistory();
+
+        // Assert
+        assertThat(savedRollups()).singleElement().isSameAs(existing);
+        assertThat(existing.getOpenPrice()).isEqualTo(new BigDecimal("70.00"));
+        assertThat(existing.getLowPrice()).isEqualTo(new BigDecimal("70.00"));
+        assertThat(existing.getHighPrice()).isEqualTo(new BigDecimal("100.00"));
+        assertThat(existing.getClosePrice()).isEqualTo(new BigDecimal("100.00"));
+    }
+
+    @Test
+    void shouldKeepCompactingInBatches_UntilBatchIsShort() {
+        // Arrange
+        properties.setCompactionBatchSize(2);
+        when(priceHistoryRepository.findCompactableSegments(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(segment("1.00", DAY_ONE, DAY_ONE), segment("2.00", DAY_ONE.plusHours(1), DAY_ONE.plusHours(1))))
+                .thenReturn(List.of(segment("3.00", DAY_ONE.plusHours(2), DAY_ONE.plusHours(2))))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        HistoryCompactionResponse response = compactionService.compactHistory();
+
+        // Assert
+        assertThat(response.compactedSegments()).isEqualTo(3);
+        assertThat(response.batches()).isEqualTo(2);
+        verify(priceHistoryRepository, times(2)).findCompactableSegments(any(LocalDateTime.class), any(Pageable.class));
+    }
+
+    @Test
+    void shouldCutOffAtStartOfOldestRetainedDay() {
+        // Arrange
+        properties.setRawRetention(Duration.ofDays(30));
+        when(priceHistoryRepository.findCompactableSegments(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        compactionService.compactHistory();
+
+        // Assert
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(priceHistoryRepository).findCompactableSegments(cutoff.capture(), any(Pageable.class));
+        assertThat(cutoff.getValue()).isEqualTo(LocalDate.now().minusDays(30).atStartOfDay());
+        verifyNoInteractions(priceHistoryDailyRepository);
+    }
+
+    private void givenCompactableSegments(List<PriceHistory> segments) {
+        when(priceHistoryRepository.findCompactableSegments(any(LocalDateTime.class), any(Pageable.class))).thenReturn(segments);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PriceHistoryDaily> savedRollups() {
+        ArgumentCaptor<Iterable<PriceHistoryDaily>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(priceHistoryDailyRepository).saveAll(captor.capture());
+        List<PriceHistoryDaily> rollups = new ArrayList<>();
+        captor.getValue().forEach(rollups::add);
+        return rollups;
+    }
+
+    private static PriceHistoryDaily rollupOf(List<PriceHistoryDaily> rollups, LocalDate day) {
+        return rollups.stream().filter(rollup -> rollup.getDay().equals(day)).findFirst().orElseThrow();
+    }
+
+    private PriceHistory segment(String price, LocalDateTime checkedAt, LocalDateTime lastConfirmedAt) {
+        return PriceHistory.builder()
+                .price(new BigDecimal(price))
+                .checkedAt(checkedAt)
+                .lastConfirmedAt(lastConfirmedAt)
+                .catalogProduct(product)
+                .build();
+    }
+}
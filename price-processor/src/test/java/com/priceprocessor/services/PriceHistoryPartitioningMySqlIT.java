@@ -0,0 +1,170 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.config.DatabaseLock;
+import com.priceprocessor.config.PriceHistoryProperties;
+import com.priceprocessor.config.SchemaMigrationProperties;
+import com.priceprocessor.config.SchemaMigrator;
+import com.priceprocessor.dtos.api.HistoryRetentionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the MySQL-only partitioning migration and the partition maintenance of
+ * {@link PriceHistoryRetentionService} against a real MySQL. Needs Docker; run with
+ * {@code mvn -P mysql-it verify}.
+ */
+@Testcontainers
+class PriceHistoryPartitioningMySqlIT {
+
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withUsername("root")
+            .withPassword("test");
+
+    private final YearMonth currentMonth = YearMonth.now();
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP DATABASE " + MYSQL.getDatabaseName());
+        jdbc.execute("CREATE DATABASE " + MYSQL.getDatabaseName());
+    }
+
+    @Test
+    void shouldStartWithCurrentMonthPartition_WhenHistoryIsEmpty() throws Exception {
+        // Act
+        new SchemaMigrator(dataSource, new SchemaMigrationProperties()).migrate();
+
+        // Assert
+        assertThat(partitions()).containsExactly(currentMonth.format(NAME), PriceHistoryRetentionService.FUTURE_PARTITION);
+    }
+
+    @Test
+    void shouldPartitionExistingHistoryByMonth_FromOldestCheckThroughCurrentMonth() throws Exception {
+        // Arrange
+        YearMonth oldest = currentMonth.minusMonths(14);
+        givenHistoryBeforePartitioning(oldest, currentMonth.minusMonths(3), currentMonth);
+
+        // Act
+        migrateFromVersion5();
+
+        // Assert
+        List<String> expected = new ArrayList<>();
+        for (YearMonth month = oldest; !month.isAfter(currentMonth); month = month.plusMonths(1)) {
+            expected.add(month.format(NAME));
+        }
+        expected.add(PriceHistoryRetentionService.FUTURE_PARTITION);
+        assertThat(partitions()).containsExactlyElementsOf(expected);
+        assertThat(rowsIn(oldest.format(NAME))).isEqualTo(1);
+        assertThat(rowsIn(currentMonth.minusMonths(3).format(NAME))).isEqualTo(1);
+        assertThat(rowsIn(currentMonth.format(NAME))).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM price_history", Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldDropExpiredMonths_AndCreateMonthsAhead() throws Exception {
+        // Arrange
+        givenHistoryBeforePartitioning(currentMonth.minusMonths(6), currentMonth);
+        migrateFromVersion5();
+        PriceHistoryProperties properties = new PriceHistoryProperties();
+        properties.setRetention(Duration.ofDays(62));
+        properties.setPartitionsAhead(2);
+        YearMonth firstRetained = YearMonth.from(properties.retentionHorizon(LocalDate.now()));
+
+        // Act
+        HistoryRetentionResponse response = retentionService(properties).expireHistory();
+
+        // Assert
+        assertThat(response.skipped()).isFalse();
+        assertThat(response.createdPartitions()).containsExactly(
+                currentMonth.plusMonths(1).format(NAME), currentMonth.plusMonths(2).format(NAME));
+        assertThat(response.droppedPartitions()).first().isEqualTo(currentMonth.minusMonths(6).format(NAME));
+        assertThat(partitions()).first().isEqualTo(firstRetained.format(NAME));
+        assertThat(partitions()).endsWith(
+                currentMonth.plusMonths(2).format(NAME), PriceHistoryRetentionService.FUTURE_PARTITION);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM price_history", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLeavePartitionsAlone_WhenAnotherInstanceHoldsRetentionLock() throws Exception {
+        // Arrange
+        new SchemaMigrator(dataSource, new SchemaMigrationProperties()).migrate();
+        List<String> before = partitions();
+
+        try (Connection holder = dataSource.getConnection()) {
+            holder.createStatement().execute("SELECT GET_LOCK('" + PriceHistoryRetentionService.LOCK_NAME + "', 0)");
+
+            // Act
+            HistoryRetentionResponse response = retentionService(new PriceHistoryProperties()).expireHistory();
+
+            // Assert
+            assertThat(response.skipped()).isTrue();
+            assertThat(partitions()).isEqualTo(before);
+        }
+    }
+
+    /**
+     * Migrates to V5, the last version before partitioning, and records a check of one product
+     * in the middle of each of {@code months}.
+     */
+    private void givenHistoryBeforePartitioning(YearMonth... months) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            for (String script : List.of("V1__baseline.sql", "V2__catalog_products.sql", "V3__hot_query_indexes.sql",
+                    "V4__price_history_segments.sql", "V5__price_history_daily.sql")) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/" + script));
+            }
+        }
+        jdbc.update("INSERT INTO catalog_products (id, canonical_url, product_name) VALUES (1, 'https://www.ceneo.pl/1', 'Product')");
+        for (YearMonth month : months) {
+            LocalDateTime checkedAt = month.atDay(15).atTime(12, 0);
+            jdbc.update("INSERT INTO price_history (price, checked_at, last_confirmed_at, catalog_product_id) VALUES (100.00, ?, ?, 1)",
+                    checkedAt, checkedAt);
+        }
+    }
+
+    private void migrateFromVersion5() throws Exception {
+        SchemaMigrationProperties properties = new SchemaMigrationProperties();
+        properties.setBaselineOnMigrate(true);
+        properties.setBaselineVersion(5);
+        new SchemaMigrator(dataSource, properties).migrate();
+    }
+
+    private PriceHistoryRetentionService retentionService(PriceHistoryProperties properties) {
+        return new PriceHistoryRetentionService(jdbc, new DatabaseLock(dataSource),
+                mock(PriceHistoryCompactionPersistenceService.class), properties);
+    }
+
+    private List<String> partitions() {
+        return jdbc.queryForList("SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'price_history' ORDER BY PARTITION_ORDINAL_POSITION", String.class);
+    }
+
+    private int rowsIn(String partition) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM price_history PARTITION (" + partition + ")", Integer.class);
+    }
+}
@@ -0,0 +1,161 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.config.DatabaseLock;
+import com.priceprocessor.config.PriceHistoryProperties;
+import com.priceprocessor.dtos.api.HistoryRetentionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceHistoryRetentionServiceTest {
+
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private DatabaseLock databaseLock;
+    @Mock
+    private PriceHistoryCompactionPersistenceService persistenceService;
+
+    private PriceHistoryProperties properties;
+    private PriceHistoryRetentionService retentionService;
+
+    private final YearMonth currentMonth = YearMonth.now();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        properties = new PriceHistoryProperties();
+        properties.setPartitionsAhead(2);
+        retentionService = new PriceHistoryRetentionService(jdbcTemplate, databaseLock, persistenceService, properties);
+        lenient().when(databaseLock.runLocked(eq(PriceHistoryRetentionService.LOCK_NAME), eq(Duration.ZERO), any()))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(2, DatabaseLock.LockedWork.class).run();
+                    return true;
+                });
+    }
+
+    @Test
+    void shouldDeleteExpiredRows_WhenDatabaseIsNotPartitioned() {
+        // Arrange
+        givenDatabase("h2");
+        LocalDateTime horizon = properties.retentionHorizon(LocalDate.now());
+        when(persistenceService.expireHistoryBefore(horizon, true)).thenReturn(4);
+
+        // Act
+        HistoryRetentionResponse response = retentionService.expireHistory();
+
+        // Assert
+        assertThat(response.horizon()).isEqualTo(horizon);
+        assertThat(response.clippedSegments()).isEqualTo(4);
+        assertThat(response.createdPartitions()).isEmpty();
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void shouldSplitMissingMonthsOffFuturePartition_AndDropExpiredOnes() {
+        // Arrange
+        givenDatabase("mysql");
+        LocalDateTime horizon = properties.retentionHorizon(LocalDate.now());
+        YearMonth expired = YearMonth.from(horizon).minusMonths(1);
+        YearMonth retained = YearMonth.from(horizon);
+        givenPartitions(List.of(
+                partition(expired),
+                partition(retained),
+                partition(currentMonth),
+                new PriceHistoryRetentionService.Partition(PriceHistoryRetentionService.FUTURE_PARTITION, null)));
+
+        // Act
+        HistoryRetentionResponse response = retentionService.expireHistory();
+
+        // Assert
+        verify(persistenceService).expireHistoryBefore(horizon, false);
+        assertThat(response.createdPartitions()).containsExactly(
+                currentMonth.plusMonths(1).format(NAME), currentMonth.plusMonths(2).format(NAME));
+        assertThat(response.droppedPartitions()).containsExactly(expired.format(NAME));
+        verify(jdbcTemplate).execute("ALTER TABLE price_history REORGANIZE PARTITION p_future INTO ("
+                + "PARTITION " + currentMonth.plusMonths(1).format(NAME) + " VALUES LESS THAN ('" + bound(currentMonth.plusMonths(1)) + "'), "
+                + "PARTITION " + currentMonth.plusMonths(2).format(NAME) + " VALUES LESS THAN ('" + bound(currentMonth.plusMonths(2)) + "'), "
+                + "PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+        verify(jdbcTemplate).execute("ALTER TABLE price_history DROP PARTITION " + expired.format(NAME));
+    }
+
+    @Test
+    void shouldNotReorganize_WhenPartitionsAheadAlreadyExist() {
+        // Arrange
+        givenDatabase("mysql");
+        givenPartitions(List.of(
+                partition(currentMonth),
+                partition(currentMonth.plusMonths(1)),
+                partition(currentMonth.plusMonths(2)),
+                new PriceHistoryRetentionService.Partition(PriceHistoryRetentionService.FUTURE_PARTITION, null)));
+
+        // Act
+        HistoryRetentionResponse response = retentionService.expireHistory();
+
+        // Assert
+        assertThat(response.createdPartitions()).isEmpty();
+        assertThat(response.droppedPartitions()).isEmpty();
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void shouldSkipRun_WhenAnotherInstanceHoldsRetentionLock() throws SQLException {
+        // Arrange
+        when(databaseLock.runLocked(eq(PriceHistoryRetentionService.LOCK_NAME), eq(Duration.ZERO), any())).thenReturn(false);
+
+        // Act
+        HistoryRetentionResponse response = retentionService.expireHistory();
+
+        // Assert
+        assertThat(response.skipped()).isTrue();
+        assertThat(response.createdPartitions()).isEmpty();
+        assertThat(response.droppedPartitions()).isEmpty();
+        verifyNoInteractions(jdbcTemplate, persistenceService);
+    }
+
+    @Test
+    void shouldParseRangeColumnsBounds() {
+        assertThat(PriceHistoryRetentionService.parseBound("'2026-11-01 00:00:00'")).isEqualTo(LocalDateTime.of(2026, 11, 1, 0, 0));
+        assertThat(PriceHistoryRetentionService.parseBound("'2026-11-01'")).isEqualTo(LocalDateTime.of(2026, 11, 1, 0, 0));
+        assertThat(PriceHistoryRetentionService.parseBound("MAXVALUE")).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenDatabase(String vendor) {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(vendor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenPartitions(List<PriceHistoryRetentionService.Partition> partitions) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenReturn(partitions);
+    }
+
+    private static PriceHistoryRetentionService.Partition partition(YearMonth month) {
+        return new PriceHistoryRetentionService.Partition(month.format(NAME), month.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    private static String bound(YearMonth month) {
+        return month.plusMonths(1).atDay(1) + " 00:00:00";
+    }
+}
@@ -0,0 +1,199 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.config.PriceUpdateProperties;
+import com.priceprocessor.config.SchemaMigrationConfig;
+import com.priceprocessor.config.SchemaMigrationProperties;
+import com.priceprocessor.dtos.crawler.PriceCheckResult;
+import com.priceprocessor.dtos.crawler.PriceResponse;
+import com.priceprocessor.dtos.update.PriceCheckTask;
+import com.priceprocessor.models.CatalogProduct;
+import com.priceprocessor.models.PriceHistory;
+import com.priceprocessor.models.ProductObservation;
+import com.priceprocessor.models.WindowLow;
+import com.priceprocessor.repositories.CatalogProductRepository;
+import com.priceprocessor.repositories.PriceHistoryRepository;
+import com.priceprocessor.repositories.ProductRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the apply phase against the real schema and records every SQL statement Hibernate
+ * prepares, to prove that appending history never reads the history already stored and that a
+ * page is written in batches rather than a statement per row.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.priceprocessor.services.PriceUpdatePersistenceServiceTest$RecordingStatementInspector"
+})
+@Import({SchemaMigrationConfig.class, SchemaMigrationProperties.class})
+class PriceUpdatePersistenceServiceTest {
+
+    @Autowired
+    private CatalogProductRepository catalogProductRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private PriceUpdatePersistenceService persistenceService;
+
+    @BeforeEach
+    void setUp() {
+        PriceUpdateProperties properties = new PriceUpdateProperties();
+        persistenceService = new PriceUpdatePersistenceService(catalogProductRepository, productRepository,
+                priceHistoryRepository, mock(MetricsService.class), new CheckIntervalPolicy(properties), properties);
+    }
+
+    @Test
+    void shouldAppendAndConfirmHistory_WithoutSelectingStoredHistory() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.now().minusDays(10);
+        CatalogProduct changed = watchedProductWithHistory("https://www.ceneo.pl/1", start);
+        CatalogProduct unchanged = watchedProductWithHistory("https://www.ceneo.pl/2", start);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<PriceCheckTask> tasks = persistenceService.claimOutdatedProducts(LocalDateTime.now(), 10);
+        Map<String, PriceCheckResult> results = Map.of(
+                changed.getCanonicalUrl(), found(changed.getCanonicalUrl(), "80.00"),
+                unchanged.getCanonicalUrl(), found(unchanged.getCanonicalUrl(), "104.00"));
+        RecordingStatementInspector.STATEMENTS.clear();
+
+        // Act
+        persistenceService.applyResults(tasks, results);
+        entityManager.flush();
+
+        // Assert
+        assertThat(RecordingStatementInspector.STATEMENTS)
+                .anyMatch(sql -> sql.startsWith("insert into price_history"))
+                .noneMatch(sql -> sql.startsWith("select") && sql.contains("price_history"));
+        entityManager.clear();
+        assertThat(priceHistoryRepository.findAll()).hasSize(11);
+        assertThat(catalogProductRepository.findById(changed.getId())).hasValueSatisfying(product -> {
+            assertThat(product.getCurrentPrice()).isEqualByComparingTo("80.00");
+            assertThat(product.getPriceStats().getMinPrice()).isEqualByComparingTo("80.00");
+            assertThat(product.getPriceStats().getMaxPrice()).isEqualByComparingTo("104.00");
+            assertThat(product.getPriceStats().getWindowMinPrice()).isEqualByComparingTo("80.00");
+            assertThat(product.getPriceStats().getPriceCount()).isEqualTo(6);
+        });
+        assertThat(catalogProductRepository.findById(unchanged.getId())).hasValueSatisfying(product ->
+                assertThat(product.getPriceStats().getPriceCount()).isEqualTo(6));
+    }
+
+    @Test
+    void shouldPopExpiredWindowLow_WithoutReadingHistory() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        CatalogProduct product = entityManager.persist(CatalogProduct.builder()
+                .productName("Product").canonicalUrl("https://www.ceneo.pl/1").build());
+        product.recordPrice(new BigDecimal("80.00"), now.minusDays(95)).ifPresent(entityManager::persist);
+        product.recordPrice(new BigDecimal("90.00"), now.minusDays(50)).ifPresent(entityManager::persist);
+        product.recordPrice(new BigDecimal("100.00"), now.minusDays(10)).ifPresent(entityManager::persist);
+        product.setNextCheckAt(now.minusDays(1));
+        entityManager.persist(ProductObservation.builder().userEmail("user@test.com").catalogProduct(product).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<PriceCheckTask> tasks = persistenceService.claimOutdatedProducts(LocalDateTime.now(), 10);
+        RecordingStatementInspector.STATEMENTS.clear();
+
+        // Act
+        persistenceService.applyResults(tasks, Map.of(product.getCanonicalUrl(), found(product.getCanonicalUrl(), "95.00")));
+        entityManager.flush();
+
+        // Assert
+        assertThat(RecordingStatementInspector.STATEMENTS)
+                .noneMatch(sql -> sql.startsWith("select") && sql.contains("price_history"));
+        entityManager.clear();
+        assertThat(catalogProductRepository.findById(product.getId())).hasValueSatisfying(reloaded -> {
+            assertThat(reloaded.getPriceStats().getWindowMinPrice()).isEqualByComparingTo("90.00");
+            assertThat(reloaded.getPriceStats().getWindowLows()).extracting(WindowLow::getPrice)
+                    .usingElementComparator(BigDecimal::compareTo)
+                    .containsExactly(new BigDecimal("90.00"), new BigDecimal("95.00"));
+            assertThat(reloaded.getPriceStats().getMinPrice()).isEqualByComparingTo("80.00");
+        });
+    }
+
+    @Test
+    void shouldWriteWholePageInOneBatchPerStatement() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.now().minusDays(10);
+        List<CatalogProduct> products = List.of(
+                watchedProductWithHistory("https://www.ceneo.pl/1", start),
+                watchedProductWithHistory("https://www.ceneo.pl/2", start),
+                watchedProductWithHistory("https://www.ceneo.pl/3", start));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<PriceCheckTask> tasks = persistenceService.claimOutdatedProducts(LocalDateTime.now(), 10);
+        Map<String, PriceCheckResult> results = products.stream()
+                .collect(Collectors.toMap(CatalogProduct::getCanonicalUrl, product -> found(product.getCanonicalUrl(), "80.00")));
+        entityManager.flush();
+        RecordingStatementInspector.STATEMENTS.clear();
+
+        // Act
+        persistenceService.applyResults(tasks, results);
+        entityManager.flush();
+
+        // Assert
+        assertThat(RecordingStatementInspector.STATEMENTS)
+                .filteredOn(sql -> sql.startsWith("insert into price_history"))
+                .hasSize(1);
+        assertThat(RecordingStatementInspector.STATEMENTS)
+                .filteredOn(sql -> sql.startsWith("update catalog_products"))
+                .hasSize(1);
+        entityManager.clear();
+        assertThat(priceHistoryRepository.findAll()).hasSize(18);
+    }
+
+    private CatalogProduct watchedProductWithHistory(String url, LocalDateTime start) {
+        CatalogProduct product = entityManager.persist(CatalogProduct.builder().productName(url).canonicalUrl(url).build());
+        for (int day = 0; day < 5; day++) {
+            product.recordPrice(new BigDecimal(100 + day), start.plusDays(day)).ifPresent(entityManager::persist);
+        }
+        product.setNextCheckAt(start);
+        entityManager.persist(ProductObservation.builder().userEmail("user@test.com").catalogProduct(product).build());
+        return product;
+    }
+
+    private static PriceCheckResult found(String url, String price) {
+        return PriceCheckResult.success(url, Optional.of(new PriceResponse("Product", new BigDecimal(price), "PLN", url)));
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql.toLowerCase(Locale.ROOT).trim());
+            return sql;
+        }
+    }
+}
@@ -1,56 +1,102 @@
 package com.priceprocessor.services;
 
+import com.priceprocessor.config.PriceUpdateProperties;
+import com.priceprocessor.config.ScraperProperties;
+import com.priceprocessor.dtos.api.BatchUpdateResponse;
+import com.priceprocessor.dtos.crawler.PriceCheckResult;
 import com.priceprocessor.dtos.crawler.PriceResponse;
+import com.priceprocessor.exceptions.crawler.ScraperRejectedException;
+import com.priceprocessor.models.CatalogProduct;
+import com.priceprocessor.models.PriceHistory;
 import com.priceprocessor.models.ProductObservation;
+import com.priceprocessor.repositories.CatalogProductRepository;
+import com.priceprocessor.repositories.PriceHistoryRepository;
 import com.priceprocessor.repositories.ProductRepository;
-import com.priceprocessor.services.clients.PriceClient;
+import com.priceprocessor.services.cache.PriceResponseCache;
+import com.priceprocessor.services.clients.AsyncPriceClient;
+import com.priceprocessor.services.clients.ScraperRateLimiter;
 import com.priceprocessor.services.queue.NotificationProducer;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
+import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class PriceUpdateServiceTest {
 
+    @Mock
+    private CatalogProductRepository catalogProductRepository;
     @Mock
     private ProductRepository productRepository;
     @Mock
-    private PriceClient priceClient;
+    private PriceHistoryRepository priceHistoryRepository;
+    @Mock
+    private AsyncPriceClient asyncPriceClient;
     @Mock
     private NotificationProducer notificationProducer;
     @Mock
     private MetricsService metricsService;
+    @Captor
+    private ArgumentCaptor<List<CatalogProduct>> savedProducts;
+    @Captor
+    private ArgumentCaptor<List<PriceHistory>> savedSegments;
 
-    @InjectMocks
+    private PriceUpdateProperties properties;
     private PriceUpdateService priceUpdateService;
 
+    @BeforeEach
+    void setUp() {
+        properties = new PriceUpdateProperties();
+        priceUpdateService = createService(new ScraperProperties());
+    }
+
+    private PriceUpdateService createService(ScraperProperties scraperProperties) {
+        PriceCheckEngine priceCheckEngine = new PriceCheckEngine(asyncPriceClient,
+                new PriceResponseCache(new ScraperProperties(), metricsService), metricsService, properties);
+        PriceUpdatePersistenceService persistenceService = new PriceUpdatePersistenceService(
+                catalogProductRepository, productRepository, priceHistoryRepository, metricsService, new CheckIntervalPolicy(properties), properties);
+        PriceDropNotifier priceDropNotifier = new PriceDropNotifier(notificationProducer);
+        return new PriceUpdateService(persistenceService, priceCheckEngine, priceDropNotifier, properties,
+                new ScraperRateLimiter(scraperProperties, metricsService));
+    }
+
     @Test
     void shouldReturnZero_WhenNoProductsToUpdate() {
         // Arrange
-        when(productRepository.findProductsToUpdate(any(Pageable.class)))
+        when(catalogProductRepository.findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(Collections.emptyList());
 
         // Act
-        int count = priceUpdateService.updateOutdatedPrices();
+        int count = priceUpdateService.drainOutdatedPrices().processed();
 
         // Assert
         assertThat(count).isZero();
-        verifyNoInteractions(priceClient);
+        verifyNoInteractions(asyncPriceClient);
         verifyNoInteractions(notificationProducer);
     }
 
@@ -60,31 +106,48 @@ class PriceUpdateServiceTest {
         BigDecimal oldPrice = new BigDecimal("100.00");
         BigDecimal newPrice = new BigDecimal("80.00"); // Taniej!
 
-        ProductObservation product = createProduct(oldPrice);
+        CatalogProduct product = createProduct(oldPrice);
         PriceResponse priceResponse = new PriceResponse("New Name", newPrice, "PLN", "http://test.com/product");
 
-        when(productRepository.findProductsToUpdate(any(Pageable.class))).thenReturn(List.of(product));
-        when(priceClient.checkPriceByUrl(product.getProductUrl())).thenReturn(Optional.of(priceResponse));
+        givenClaimedProducts(product);
+        givenWatchers(product, "user@test.com");
+        givenScraperResponse(Optional.of(priceResponse));
 
         // Act
-        int count = priceUpdateService.updateOutdatedPrices();
+        int count = priceUpdateService.drainOutdatedPrices().processed();
 
         // Assert
         assertThat(count).isEqualTo(1);
 
         verify(notificationProducer).sendEmailNotification(
-                eq(product.getUserEmail()),
+                eq("user@test.com"),
                 eq("Price Drop Alert!"),
                 contains("dropped from " + oldPrice + " to " + newPrice)
         );
 
-        ArgumentCaptor<ProductObservation> productCaptor = ArgumentCaptor.forClass(ProductObservation.class);
-        verify(productRepository).save(productCaptor.capture());
-
-        ProductObservation savedProduct = productCaptor.getValue();
+        CatalogProduct savedProduct = captureSavedProduct();
         assertThat(savedProduct.getProductName()).isEqualTo("New Name");
         assertThat(savedProduct.getCurrentPrice()).isEqualTo(newPrice);
         assertThat(savedProduct.getLastCheckedAt()).isNotNull();
+        assertThat(savedProduct.getNextCheckAt()).isAfter(savedProduct.getLastCheckedAt());
+    }
+
+    @Test
+    void shouldScrapeOnceAndNotifyEveryWatcher_WhenSharedProductDrops() {
+        // Arrange
+        CatalogProduct product = createProduct(new BigDecimal("100.00"));
+        givenClaimedProducts(product);
+        givenWatchers(product, "a@test.com", "b@test.com", "c@test.com");
+        givenScraperResponse(Optional.of(new PriceResponse("Name", new BigDecimal("70.00"), "PLN", product.getCanonicalUrl())));
+
+        // Act
+        priceUpdateService.drainOutdatedPrices();
+
+        // Assert
+        verify(asyncPriceClient, times(1)).checkPricesByUrlsAsync(List.of(product.getCanonicalUrl()));
+        verify(notificationProducer).sendEmailNotification(eq("a@test.com"), anyString(), anyString());
+        verify(notificationProducer).sendEmailNotification(eq("b@test.com"), anyString(), anyString());
+        verify(notificationProducer).sendEmailNotification(eq("c@test.com"), anyString(), anyString());
     }
 
     @Test
@@ -93,66 +156,438 @@ class PriceUpdateServiceTest {
         BigDecimal oldPrice = new BigDecimal("100.00");
         BigDecimal newPrice = new BigDecimal("120.00");
 
-        ProductObservation product = createProduct(oldPrice);
+        CatalogProduct product = createProduct(oldPrice);
         PriceResponse priceResponse = new PriceResponse("New Name", newPrice, "PLN", "http://test.com/product");
 
-        when(productRepository.findProductsToUpdate(any(Pageable.class))).thenReturn(List.of(product));
-        when(priceClient.checkPriceByUrl(anyString())).thenReturn(Optional.of(priceResponse));
+        givenClaimedProducts(product);
+        givenScraperResponse(Optional.of(priceResponse));
 
         // Act
-        priceUpdateService.updateOutdatedPrices();
+        priceUpdateService.drainOutdatedPrices();
 
         // Assert
         verify(notificationProducer, never()).sendEmailNotification(anyString(), anyString(), anyString());
-        verify(productRepository).save(product);
+        verify(productRepository, never()).findAllByCatalogProductIdIn(any());
+        assertThat(captureSavedProduct()).isSameAs(product);
+    }
+
+    @Test
+    void shouldConfirmCurrentSegmentInsteadOfAddingHistory_WhenPriceIsUnchanged() {
+        // Arrange
+        CatalogProduct unchanged = createProduct(new BigDecimal("100.00"));
+        unchanged.setPriceChangedAt(LocalDateTime.now().minusDays(1));
+        CatalogProduct changed = createProduct(new BigDecimal("100.00"));
+        changed.setId(2L);
+        changed.setCanonicalUrl("http://test.com/other");
+        changed.setPriceChangedAt(LocalDateTime.now().minusDays(1));
+
+        givenClaimedProducts(unchanged, changed);
+        givenScraperResults(url -> PriceCheckResult.success(url, Optional.of(
+                new PriceResponse("Name", new BigDecimal(url.equals(changed.getCanonicalUrl()) ? "120.00" : "100.0"), "PLN", url))));
+
+        // Act
+        priceUpdateService.drainOutdatedPrices();
+
+        // Assert
+        verify(priceHistoryRepository).saveAll(savedSegments.capture());
+        assertThat(savedSegments.getValue()).singleElement().satisfies(h -> {
+            assertThat(h.getCatalogProduct()).isSameAs(changed);
+            assertThat(h.getPrice()).isEqualTo(new BigDecimal("120.00"));
+        });
+        verify(priceHistoryRepository).confirmCurrentPrices(eq(List.of(1L)), eq(unchanged.getLastCheckedAt()));
+        verifyNoMoreInteractions(priceHistoryRepository);
     }
 
     @Test
     void shouldOnlyUpdateTimestamp_WhenClientReturnsEmpty() {
         // Arrange
-        ProductObservation product = createProduct(new BigDecimal("100.00"));
+        CatalogProduct product = createProduct(new BigDecimal("100.00"));
         LocalDateTime timeBefore = LocalDateTime.now().minusSeconds(1);
 
-        when(productRepository.findProductsToUpdate(any(Pageable.class))).thenReturn(List.of(product));
-        when(priceClient.checkPriceByUrl(anyString())).thenReturn(Optional.empty());
+        givenClaimedProducts(product);
+        givenScraperResponse(Optional.empty());
 
         // Act
-        priceUpdateService.updateOutdatedPrices();
+        priceUpdateService.drainOutdatedPrices();
 
         // Assert
         verify(notificationProducer, never()).sendEmailNotification(anyString(), anyString(), anyString());
 
-        ArgumentCaptor<ProductObservation> productCaptor = ArgumentCaptor.forClass(ProductObservation.class);
-        verify(productRepository).save(productCaptor.capture());
-
-        assertThat(productCaptor.getValue().getLastCheckedAt()).isAfter(timeBefore);
+        assertThat(captureSavedProduct().getLastCheckedAt()).isAfter(timeBefore);
     }
 
     @Test
     void shouldHandleExceptionAndSaveTimestamp_WhenClientThrowsError() {
         // Arrange
-        ProductObservation product = createProduct(new BigDecimal("100.00"));
+        CatalogProduct product = createProduct(new BigDecimal("100.00"));
 
-        when(productRepository.findProductsToUpdate(any(Pageable.class))).thenReturn(List.of(product));
-        when(priceClient.checkPriceByUrl(anyString())).thenThrow(new RuntimeException("Connection timeout"));
+        givenClaimedProducts(product);
+        when(asyncPriceClient.checkPricesByUrlsAsync(anyCollection()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Connection timeout")));
 
         // Act
-        int count = priceUpdateService.updateOutdatedPrices();
+        int count = priceUpdateService.drainOutdatedPrices().processed();
 
         // Assert
         assertThat(count).isEqualTo(1);
 
-        verify(productRepository).save(product);
+        assertThat(captureSavedProduct().getLastCheckedAt()).isNotNull();
         verify(notificationProducer, never()).sendEmailNotification(anyString(), anyString(), anyString());
+        verify(metricsService).incrementProductPriceUpdateFailure("RuntimeException");
+    }
+
+    @Test
+    void shouldUpdateRemainingProducts_WhenOneProductFails() {
+        // Arrange
+        CatalogProduct failing = createProduct(new BigDecimal("100.00"));
+        CatalogProduct healthy = createProduct(new BigDecimal("100.00"));
+        healthy.setId(2L);
+        healthy.setCanonicalUrl("http://test.com/other");
+
+        givenClaimedProducts(failing, healthy);
+        givenScraperResults(url -> url.equals(failing.getCanonicalUrl())
+                ? PriceCheckResult.failure(url, new RuntimeException("Connection timeout"))
+                : PriceCheckResult.success(url, Optional.of(new PriceResponse("Other", new BigDecimal("90.00"), "PLN", url))));
+
+        // Act
+        int count = priceUpdateService.drainOutdatedPrices().processed();
+
+        // Assert
+        assertThat(count).isEqualTo(2);
+        assertThat(healthy.getCurrentPrice()).isEqualTo(new BigDecimal("90.00"));
+        assertThat(failing.getCurrentPrice()).isEqualTo(new BigDecimal("100.00"));
+        assertThat(failing.getLastCheckedAt()).isNotNull();
+    }
+
+    @Test
+    void shouldSendNotificationOnlyAfterResultsArePersisted() {
+        // Arrange
+        CatalogProduct product = createProduct(new BigDecimal("100.00"));
+        givenClaimedProducts(product);
+        givenWatchers(product, "user@test.com");
+        givenScraperResponse(Optional.of(new PriceResponse("Name", new BigDecimal("50.00"), "PLN", product.getCanonicalUrl())));
+
+        // Act
+        priceUpdateService.drainOutdatedPrices();
+
+        // Assert
+        InOrder inOrder = inOrder(catalogProductRepository, asyncPriceClient, notificationProducer);
+        inOrder.verify(catalogProductRepository).findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
+        inOrder.verify(asyncPriceClient).checkPricesByUrlsAsync(List.of(product.getCanonicalUrl()));
+        inOrder.verify(catalogProductRepository).saveAll(List.of(product));
+        inOrder.verify(notificationProducer).sendEmailNotification(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void shouldSkipProduct_WhenDeletedBetweenClaimAndApply() {
+        // Arrange
+        CatalogProduct product = createProduct(new BigDecimal("100.00"));
+        when(catalogProductRepository.findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(product)).thenReturn(List.of());
+        when(catalogProductRepository.findAllByIdForUpdate(anyList())).thenReturn(List.of());
+        givenScraperResponse(Optional.of(new PriceResponse("Name", new BigDecimal("50.00"), "PLN", product.getCanonicalUrl())));
+
+        // Act
+        int count = priceUpdateService.drainOutdatedPrices().processed();
+
+        // Assert
+        assertThat(count).isEqualTo(1);
+        verify(notificationProducer, never()).sendEmailNotification(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void shouldLeaseClaimedProductsAndReleaseThemOnApply() {
+        // Arrange
+        properties.setLeaseDuration(Duration.ofMinutes(10));
+        CatalogProduct product = createProduct(new BigDecimal("100.00"));
+        givenClaimedProducts(product);
+        List<String> ownersDuringScrape = new ArrayList<>();
+        givenScraperResults(url -> {
+            ownersDuringScrape.add(product.getLeaseOwner());
+            assertThat(product.getLeaseExpiresAt()).isAfter(LocalDateTime.now().plusMinutes(9));
+            return PriceCheckResult.success(url, Optional.empty());
+        });
+
+        // Act
+        priceUpdateService.drainOutdatedPrices();
+
+        // Assert
+        assertThat(ownersDuringScrape).singleElement().isNotNull();
+        assertThat(captureSavedProduct().getLeaseOwner()).isNull();
+        assertThat(product.getLeaseExpiresAt()).isNull();
+    }
+
+    @Test
+    void shouldDiscardResult_WhenLeaseWasTakenOverByAnotherReplica() {
+        // Arrange
+        CatalogProduct product = createProduct(new BigDecimal("100.00"));
+        givenClaimedProducts(product);
+        givenScraperResults(url -> {
+            product.setLeaseOwner("other-replica");
+            return PriceCheckResult.success(url, Optional.of(new PriceResponse("Name", new BigDecimal("50.00"), "PLN", url)));
+        });
+
+        // Act
+        priceUpdateService.drainOutdatedPrices();
+
+        // Assert
+        assertThat(product.getCurrentPrice()).isEqualTo(new BigDecimal("100.00"));
+        assertThat(product.getLeaseOwner()).isEqualTo("other-replica");
+        verify(notificationProducer, never()).sendEmailNotification(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void shouldDiscardResult_WhenLeaseExpiredDuringScrape() {
+        // Arrange
+        CatalogProduct product = createProduct(new BigDecimal("100.00"));
+        givenClaimedProducts(product);
+        givenScraperResults(url -> {
+            product.setLeaseExpiresAt(LocalDateTime.now().minusSeconds(1));
+            return PriceCheckResult.success(url, Optional.of(new PriceResponse("Name", new BigDecimal("50.00"), "PLN", url)));
+        });
+
+        // Act
+        priceUpdateService.drainOutdatedPrices();
+
+        // Assert
+        assertThat(product.getCurrentPrice()).isEqualTo(new BigDecimal("100.00"));
+        assertThat(product.getLeaseOwner()).isNotNull();
+        verify(notificationProducer, never()).sendEmailNotification(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void shouldDrainPagesUntilNothingIsOutdated() {
+        // Arrange
+        CatalogProduct first = createProduct(new BigDecimal("100.00"));
+        CatalogProduct second = createProduct(new BigDecimal("100.00"));
+        second.setId(2L);
+        second.setCanonicalUrl("http://test.com/other");
+
+        when(catalogProductRepository.findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(first)).thenReturn(List.of(second)).thenReturn(List.of());
+        when(catalogProductRepository.findAllByIdForUpdate(anyList())).thenReturn(List.of(first)).thenReturn(List.of(second));
+        givenScraperResponse(Optional.empty());
+        when(catalogProductRepository.countProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(0L);
+
+        // Act
+        BatchUpdateResponse result = priceUpdateService.drainOutdatedPrices();
+
+        // Assert
+        assertThat(result.processed()).isEqualTo(2);
+        assertThat(result.pages()).isEqualTo(2);
+        assertThat(result.remaining()).isZero();
+        assertThat(result.budgetExhausted()).isFalse();
+        // every page of one drain run is claimed against the same cut-off
+        ArgumentCaptor<LocalDateTime> thresholds = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(catalogProductRepository, times(3)).findProductsToUpdate(thresholds.capture(), any(LocalDateTime.class), any(Pageable.class));
+        assertThat(thresholds.getAllValues()).containsOnly(thresholds.getAllValues().get(0));
+    }
+
+    @Test
+    void shouldStopDraining_WhenBudgetIsUsedUp() {
+        // Arrange
+        properties.setDrainBudget(Duration.ZERO);
+        CatalogProduct product = createProduct(new BigDecimal("100.00"));
+        givenClaimedProducts(product);
+        givenScraperResponse(Optional.empty());
+        when(catalogProductRepository.countProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(7L);
+
+        // Act
+        BatchUpdateResponse result = priceUpdateService.drainOutdatedPrices();
+
+        // Assert
+        assertThat(result.processed()).isEqualTo(1);
+        assertThat(result.pages()).isEqualTo(1);
+        assertThat(result.remaining()).isEqualTo(7);
+        assertThat(result.budgetExhausted()).isTrue();
+        verify(catalogProductRepository, times(1)).findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
+    }
+
+    @Test
+    void shouldNotClaimNextPage_UntilOldestInFlightPageIsSaved() {
+        // Arrange
+        properties.setMaxInFlightPages(1);
+        CatalogProduct first = createProduct(new BigDecimal("100.00"));
+        CatalogProduct second = createProduct(new BigDecimal("100.00"));
+        second.setId(2L);
+        second.setCanonicalUrl("http://test.com/other");
+
+        when(catalogProductRepository.findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(first)).thenReturn(List.of(second)).thenReturn(List.of());
+        when(catalogProductRepository.findAllByIdForUpdate(anyList())).thenReturn(List.of(first)).thenReturn(List.of(second));
+        givenScraperResponse(Optional.empty());
+
+        // Act
+        priceUpdateService.drainOutdatedPrices();
+
+        // Assert
+        InOrder inOrder = inOrder(catalogProductRepository);
+        inOrder.verify(catalogProductRepository).findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
+        inOrder.verify(catalogProductRepository).findAllByIdForUpdate(anyList());
+        inOrder.verify(catalogProductRepository).findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
+        inOrder.verify(catalogProductRepository).findAllByIdForUpdate(anyList());
+    }
+
+    @Test
+    void shouldScrapeSeveralPagesBeforeSavingTheFirst_WhenInFlightLimitAllows() {
+        // Arrange
+        properties.setMaxInFlightPages(3);
+        CatalogProduct first = createProduct(new BigDecimal("100.00"));
+        CatalogProduct second = createProduct(new BigDecimal("100.00"));
+        second.setId(2L);
+        second.setCanonicalUrl("http://test.com/other");
+
+        when(catalogProductRepository.findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(first)).thenReturn(List.of(second)).thenReturn(List.of());
+        when(catalogProductRepository.findAllByIdForUpdate(anyList())).thenReturn(List.of(first)).thenReturn(List.of(second));
+        givenScraperResponse(Optional.empty());
+
+        // Act
+        BatchUpdateResponse result = priceUpdateService.drainOutdatedPrices();
+
+        // Assert
+        assertThat(result.pages()).isEqualTo(2);
+        InOrder inOrder = inOrder(catalogProductRepository);
+        inOrder.verify(catalogProductRepository, times(3)).findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
+        inOrder.verify(catalogProductRepository, times(2)).findAllByIdForUpdate(anyList());
+    }
+
+    @Test
+    void shouldKeepNoMorePagesInFlight_ThanBatchRateLimitServesWithinMaxWait() {
+        // Arrange
+        ScraperProperties scraperProperties = new ScraperProperties();
+        scraperProperties.getRateLimit().setByUrl(new ScraperProperties.Bucket(10.0, 10));
+        scraperProperties.getRateLimit().setInteractiveShare(0.3);
+        scraperProperties.getRateLimit().setMaxWait(Duration.ofSeconds(1));
+        priceUpdateService = createService(scraperProperties);
+        // 7 batch tokens of burst plus 7 refilled within the max wait cover only one page of 10
+        properties.setPageSize(10);
+        properties.setMaxInFlightPages(4);
+        CatalogProduct first = createProduct(new BigDecimal("100.00"));
+        CatalogProduct second = createProduct(new BigDecimal("100.00"));
+        second.setId(2L);
+        second.setCanonicalUrl("http://test.com/other");
+
+        when(catalogProductRepository.findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(first)).thenReturn(List.of(second)).thenReturn(List.of());
+        when(catalogProductRepository.findAllByIdForUpdate(anyList())).thenReturn(List.of(first)).thenReturn(List.of(second));
+        givenScraperResponse(Optional.empty());
+
+        // Act
+        priceUpdateService.drainOutdatedPrices();
+
+        // Assert
+        InOrder inOrder = inOrder(catalogProductRepository);
+        inOrder.verify(catalogProductRepository).findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
+        inOrder.verify(catalogProductRepository).findAllByIdForUpdate(anyList());
+        inOrder.verify(catalogProductRepository).findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
+    }
+
+    @Test
+    void shouldReleaseLeaseWithoutRescheduling_WhenCheckIsRejectedLocally() {
+        // Arrange
+        CatalogProduct product = createProduct(new BigDecimal("100.00"));
+        LocalDateTime nextCheckAt = LocalDateTime.now().minusMinutes(5);
+        product.setNextCheckAt(nextCheckAt);
+        givenClaimedProducts(product);
+        givenScraperResults(url -> PriceCheckResult.failure(url, new ScraperRejectedException("Scraper is unavailable, try again later")));
+
+        // Act
+        int count = priceUpdateService.drainOutdatedPrices().processed();
+
+        // Assert
+        assertThat(count).isZero();
+        CatalogProduct saved = captureSavedProduct();
+        assertThat(saved.getLeaseOwner()).isNull();
+        assertThat(saved.getLeaseExpiresAt()).isNull();
+        assertThat(saved.getLastCheckedAt()).isNull();
+        assertThat(saved.getNextCheckAt()).isEqualTo(nextCheckAt);
+        verify(metricsService, never()).incrementProductPriceUpdateFailure(anyString());
+    }
+
+    @Test
+    void shouldStopClaiming_WhenScraperClientRejectsPage() {
+        // Arrange
+        properties.setMaxInFlightPages(1);
+        CatalogProduct product = createProduct(new BigDecimal("100.00"));
+        givenClaimedProducts(product);
+        givenScraperResults(url -> PriceCheckResult.failure(url, new ScraperRejectedException("Scraper is unavailable, try again later")));
+        when(catalogProductRepository.countProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1L);
+
+        // Act
+        BatchUpdateResponse result = priceUpdateService.drainOutdatedPrices();
+
+        // Assert
+        assertThat(result.processed()).isZero();
+        assertThat(result.pages()).isEqualTo(1);
+        assertThat(result.remaining()).isEqualTo(1);
+        verify(catalogProductRepository, times(1)).findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
+    }
+
+    @Test
+    void shouldClaimConfiguredPageSize() {
+        // Arrange
+        properties.setPageSize(17);
+        when(catalogProductRepository.findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        priceUpdateService.drainOutdatedPrices();
+
+        // Assert
+        ArgumentCaptor<Pageable> pageCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(catalogProductRepository).findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), pageCaptor.capture());
+        assertThat(pageCaptor.getValue().getPageSize()).isEqualTo(17);
+    }
+
+    /**
+     * Claims {@code products} as the only outdated page of the drain run.
+     */
+    private void givenClaimedProducts(CatalogProduct... products) {
+        when(catalogProductRepository.findProductsToUpdate(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(products)).thenReturn(List.of());
+        when(catalogProductRepository.findAllByIdForUpdate(anyList())).thenReturn(List.of(products));
+    }
+
+    private void givenWatchers(CatalogProduct product, String... emails) {
+        List<ProductObservation> watchers = Arrays.stream(emails)
+                .map(email -> ProductObservation.builder().userEmail(email).catalogProduct(product).build())
+                .toList();
+        when(productRepository.findAllByCatalogProductIdIn(any())).thenReturn(watchers);
+    }
+
+    /**
+     * Answers every bulk request at once with {@code resultFor} applied to each of its URLs.
+     */
+    private void givenScraperResults(Function<String, PriceCheckResult> resultFor) {
+        when(asyncPriceClient.checkPricesByUrlsAsync(anyCollection())).thenAnswer(inv -> {
+            Collection<String> urls = inv.getArgument(0);
+            Map<String, PriceCheckResult> results = new LinkedHashMap<>();
+            urls.forEach(url -> results.put(url, resultFor.apply(url)));
+            return CompletableFuture.completedFuture(results);
+        });
+    }
+
+    private void givenScraperResponse(Optional<PriceResponse> response) {
+        givenScraperResults(url -> PriceCheckResult.success(url, response));
+    }
+
+    /**
+     * Returns the product saved by the apply phase, the last save of the run; the claim phase
+     * saves the leased page first.
+     */
+    private CatalogProduct captureSavedProduct() {
+        verify(catalogProductRepository, atLeast(2)).saveAll(savedProducts.capture());
+        assertThat(savedProducts.getValue()).hasSize(1);
+        return savedProducts.getValue().get(0);
     }
 
-    private ProductObservation createProduct(BigDecimal currentPrice) {
-        ProductObservation product = new ProductObservation();
+    private CatalogProduct createProduct(BigDecimal currentPrice) {
+        CatalogProduct product = new CatalogProduct();
         product.setId(1L);
-        product.setProductUrl("http://test.com/product");
+        product.setCanonicalUrl("http://test.com/product");
         product.setProductName("Old Name");
         product.setCurrentPrice(currentPrice);
-        product.setUserEmail("user@test.com");
         return product;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,210 @@
+package com.priceprocessor.services;
+
+import com.priceprocessor.config.PriceUpdateProperties;
+import com.priceprocessor.dtos.crawler.PriceResponse;
+import com.priceprocessor.dtos.update.ObservationResult;
+import com.priceprocessor.models.CatalogProduct;
+import com.priceprocessor.models.PriceHistory;
+import com.priceprocessor.models.ProductObservation;
+import com.priceprocessor.repositories.CatalogProductRepository;
+import com.priceprocessor.repositories.PriceHistoryRepository;
+import com.priceprocessor.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogServiceTest {
+
+    @Mock
+    private CatalogProductRepository catalogProductRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Spy
+    private CheckIntervalPolicy checkIntervalPolicy = new CheckIntervalPolicy(new PriceUpdateProperties());
+
+    @InjectMocks
+    private ProductCatalogService productCatalogService;
+
+    private static final String USER = "test@user.com";
+    private static final String URL = "http://ceneo.pl/123";
+
+    @Test
+    void shouldCreateCatalogEntryAndObservation_WhenUrlIsNew() {
+        // Arrange
+        PriceResponse response = new PriceResponse("Laptop", new BigDecimal("3000"), "PLN", URL);
+        when(catalogProductRepository.findByCanonicalUrl(URL)).thenReturn(Optional.empty());
+        when(catalogProductRepository.save(any(CatalogProduct.class))).thenAnswer(inv -> {
+            CatalogProduct c = inv.getArgument(0);
+            c.setId(10L);
+            return c;
+        });
+        when(productRepository.findByUserEmailAndCatalogProductId(USER, 10L)).thenReturn(Optional.empty());
+        when(productRepository.save(any(ProductObservation.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        ObservationResult result = productCatalogService.observe(USER, response);
+
+        // Assert
+        ArgumentCaptor<CatalogProduct> captor = ArgumentCaptor.forClass(CatalogProduct.class);
+        verify(catalogProductRepository).save(captor.capture());
+        CatalogProduct saved = captor.getValue();
+        assertThat(saved.getCanonicalUrl()).isEqualTo(URL);
+        assertThat(saved.getCurrentPrice()).isEqualTo(new BigDecimal("3000"));
+        ArgumentCaptor<PriceHistory> segment = ArgumentCaptor.forClass(PriceHistory.class);
+        verify(priceHistoryRepository).save(segment.capture());
+        assertThat(segment.getValue().getCatalogProduct()).isSameAs(saved);
+        assertThat(segment.getValue().getPrice()).isEqualTo(new BigDecimal("3000"));
+
+        assertThat(result.observation().getUserEmail()).isEqualTo(USER);
+        assertThat(result.observation().getCatalogProduct()).isSameAs(saved);
+        assertThat(result.priceDrops()).isEmpty();
+    }
+
+    @Test
+    void shouldReuseExistingCatalogEntry_WhenAnotherUserAlreadyWatchesUrl() {
+        // Arrange
+        CatalogProduct existing = catalogProduct(new BigDecimal("3000"));
+        PriceResponse response = new PriceResponse("Laptop", new BigDecimal("3100"), "PLN", URL);
+        when(catalogProductRepository.findByCanonicalUrl(URL)).thenReturn(Optional.of(existing));
+        when(productRepository.findByUserEmailAndCatalogProductId(USER, 10L)).thenReturn(Optional.empty());
+        when(productRepository.save(any(ProductObservation.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        ObservationResult result = productCatalogService.observe(USER, response);
+
+        // Assert
+        verify(catalogProductRepository, never()).save(any());
+        assertThat(result.observation().getCatalogProduct()).isSameAs(existing);
+        assertThat(existing.getCurrentPrice()).isEqualTo(new BigDecimal("3100"));
+        assertThat(result.priceDrops()).isEmpty();
+    }
+
+    @Test
+    void shouldReturnExistingObservation_WhenUserAlreadyWatchesUrl() {
+        // Arrange
+        CatalogProduct existing = catalogProduct(new BigDecimal("3000"));
+        ProductObservation observation = ProductObservation.builder().id(5L).userEmail(USER).catalogProduct(existing).build();
+        when(catalogProductRepository.findByCanonicalUrl(URL)).thenReturn(Optional.of(existing));
+        when(productRepository.findByUserEmailAndCatalogProductId(USER, 10L)).thenReturn(Optional.of(observation));
+
+        // Act
+        ObservationResult result = productCatalogService.observe(USER, new PriceResponse("Laptop", new BigDecimal("3000"), "PLN", URL));
+
+        // Assert
+        assertThat(result.observation()).isSameAs(observation);
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldConfirmCurrentSegment_WhenFreshScrapeSeesSamePrice() {
+        // Arrange
+        CatalogProduct existing = catalogProduct(new BigDecimal("3000"));
+        existing.setPriceChangedAt(LocalDateTime.now().minusDays(2));
+        when(catalogProductRepository.findByCanonicalUrl(URL)).thenReturn(Optional.of(existing));
+        when(productRepository.findByUserEmailAndCatalogProductId(USER, 10L)).thenReturn(Optional.empty());
+        when(productRepository.save(any(ProductObservation.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        productCatalogService.observe(USER, new PriceResponse("Laptop", new BigDecimal("3000.00"), "PLN", URL));
+
+        // Assert
+        verify(priceHistoryRepository, never()).save(any());
+        verify(priceHistoryRepository).confirmCurrentPrices(List.of(10L), existing.getLastCheckedAt());
+    }
+
+    @Test
+    void shouldReturnPriceDropsForOtherWatchers_WhenFreshScrapeIsCheaper() {
+        // Arrange
+        CatalogProduct existing = catalogProduct(new BigDecimal("3000"));
+        when(catalogProductRepository.findByCanonicalUrl(URL)).thenReturn(Optional.of(existing));
+        when(productRepository.findAllByCatalogProductIdIn(List.of(10L))).thenReturn(List.of(
+                ProductObservation.builder().userEmail("other@user.com").catalogProduct(existing).build(),
+                ProductObservation.builder().userEmail(USER).catalogProduct(existing).build()));
+        when(productRepository.findByUserEmailAndCatalogProductId(anyString(), anyLong())).thenReturn(Optional.empty());
+        when(productRepository.save(any(ProductObservation.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        ObservationResult result = productCatalogService.observe(USER, new PriceResponse("Laptop", new BigDecimal("2500"), "PLN", URL));
+
+        // Assert
+        assertThat(result.priceDrops()).singleElement().satisfies(drop -> {
+            assertThat(drop.userEmail()).isEqualTo("other@user.com");
+            assertThat(drop.oldPrice()).isEqualTo(new BigDecimal("3000"));
+            assertThat(drop.newPrice()).isEqualTo(new BigDecimal("2500"));
+        });
+    }
+
+    @Test
+    void shouldOnlyLinkExistingCatalogEntry_WhenAnswerCameFromCache() {
+        // Arrange
+        CatalogProduct existing = catalogProduct(new BigDecimal("3000"));
+        LocalDateTime lastCheckedAt = LocalDateTime.now().minusMinutes(3);
+        LocalDateTime nextCheckAt = LocalDateTime.now().plusHours(1);
+        existing.setLastCheckedAt(lastCheckedAt);
+        existing.setNextCheckAt(nextCheckAt);
+        when(catalogProductRepository.findByCanonicalUrl(URL)).thenReturn(Optional.of(existing));
+        when(productRepository.findByUserEmailAndCatalogProductId(USER, 10L)).thenReturn(Optional.empty());
+        when(productRepository.save(any(ProductObservation.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        ObservationResult result = productCatalogService.link(USER, new PriceResponse("Laptop", new BigDecimal("2500"), "PLN", URL));
+
+        // Assert
+        assertThat(result.observation().getCatalogProduct()).isSameAs(existing);
+        assertThat(result.priceDrops()).isEmpty();
+        assertThat(existing.getCurrentPrice()).isEqualTo(new BigDecimal("3000"));
+        assertThat(existing.getLastCheckedAt()).isEqualTo(lastCheckedAt);
+        assertThat(existing.getNextCheckAt()).isEqualTo(nextCheckAt);
+        assertThat(existing.getPriceStats().getPriceCount()).isZero();
+        verifyNoInteractions(priceHistoryRepository);
+    }
+
+    @Test
+    void shouldCreateCatalogEntry_WhenCachedAnswerIsNotInCatalogYet() {
+        // Arrange
+        PriceResponse response = new PriceResponse("Laptop", new BigDecimal("3000"), "PLN", URL);
+        when(catalogProductRepository.findByCanonicalUrl(URL)).thenReturn(Optional.empty());
+        when(catalogProductRepository.save(any(CatalogProduct.class))).thenAnswer(inv -> {
+            CatalogProduct c = inv.getArgument(0);
+            c.setId(10L);
+            return c;
+        });
+        when(productRepository.findByUserEmailAndCatalogProductId(USER, 10L)).thenReturn(Optional.empty());
+        when(productRepository.save(any(ProductObservation.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        ObservationResult result = productCatalogService.link(USER, response);
+
+        // Assert
+        assertThat(result.observation().getCatalogProduct().getCurrentPrice()).isEqualTo(new BigDecimal("3000"));
+        verify(priceHistoryRepository).save(any(PriceHistory.class));
+    }
+
+    private CatalogProduct catalogProduct(BigDecimal price) {
+        return CatalogProduct.builder()
+                .id(10L)
+                .canonicalUrl(URL)
+                .productName("Laptop")
+                .currentPrice(price)
+                .build();
+    }
+}
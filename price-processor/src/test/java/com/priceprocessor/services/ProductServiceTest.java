@@ -1,27 +1,46 @@
 package com.priceprocessor.services;
 
+import com.priceprocessor.config.PriceHistoryProperties;
+import com.priceprocessor.config.ProductListProperties;
 import com.priceprocessor.dtos.api.*;
 import com.priceprocessor.dtos.crawler.PriceResponse;
+import com.priceprocessor.dtos.update.ObservationResult;
+import com.priceprocessor.dtos.update.PriceDrop;
+import com.priceprocessor.exceptions.InvalidCursorException;
 import com.priceprocessor.exceptions.ProductNotFoundException;
 import com.priceprocessor.exceptions.ProductNotFoundInStoreException;
+import com.priceprocessor.models.CatalogProduct;
 import com.priceprocessor.models.PriceHistory;
+import com.priceprocessor.models.PriceHistoryDaily;
 import com.priceprocessor.models.ProductObservation;
+import com.priceprocessor.repositories.PriceHistoryDailyRepository;
+import com.priceprocessor.repositories.PriceHistoryRepository;
+import com.priceprocessor.repositories.PriceHistoryRepositoryCustom;
 import com.priceprocessor.repositories.ProductRepository;
+import com.priceprocessor.services.cache.PriceResponseCache;
 import com.priceprocessor.services.clients.PriceClient;
+import com.priceprocessor.services.clients.ScraperRequestCoalescer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +48,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,9 +57,33 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Mock
+    private PriceHistoryDailyRepository priceHistoryDailyRepository;
+
+    @Spy
+    private PriceHistoryProperties priceHistoryProperties = new PriceHistoryProperties();
+
+    @Spy
+    private ProductListProperties productListProperties = new ProductListProperties();
+
     @Mock
     private PriceClient priceClient;
 
+    @Mock
+    private ProductCatalogService productCatalogService;
+
+    @Mock
+    private PriceDropNotifier priceDropNotifier;
+
+    @Mock
+    private PriceResponseCache priceResponseCache;
+
+    @Spy
+    private ScraperRequestCoalescer scraperRequestCoalescer = new ScraperRequestCoalescer(mock(MetricsService.class));
+
     @InjectMocks
     private ProductService productService;
 
@@ -70,14 +114,89 @@ class ProductServiceTest {
 
         when(productRepository.findByIdAndUserEmail(productId, CURRENT_USER_EMAIL))
                 .thenReturn(Optional.of(product));
+        givenRawHistory(currentPriceHistory());
 
         // Act
         ProductDetailsResponse result = productService.getProductDetails(productId);
 
         // Assert
-        assertThat(result.productName()).isEqualTo(product.getProductName());
+        assertThat(result.productName()).isEqualTo(product.getCatalogProduct().getProductName());
+        assertThat(result.productUrl()).isEqualTo(product.getCatalogProduct().getCanonicalUrl());
         assertThat(result.priceHistory()).hasSize(1);
-        assertThat(result.priceHistory().get(0).price()).isEqualTo(product.getCurrentPrice());
+        assertThat(result.priceHistory().get(0).price()).isEqualTo(product.getCatalogProduct().getCurrentPrice());
+    }
+
+    @Test
+    void shouldReturnRunningPriceStats_WhenGettingDetails() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0);
+        ProductObservation product = createProductObservation();
+        CatalogProduct catalogProduct = product.getCatalogProduct();
+        catalogProduct.recordPrice(new BigDecimal("120.00"), start);
+        catalogProduct.recordPrice(new BigDecimal("90.00"), start.plusDays(1));
+        catalogProduct.recordPrice(new BigDecimal("90.00"), start.plusDays(2));
+        when(productRepository.findByIdAndUserEmail(1L, CURRENT_USER_EMAIL)).thenReturn(Optional.of(product));
+        givenRawHistory(List.of());
+
+        // Act
+        ProductDetailsResponse result = productService.getProductDetails(1L);
+
+        // Assert
+        ProductDetailsResponse.PriceStatsDto stats = result.stats();
+        assertThat(stats.minPrice()).isEqualByComparingTo("90.00");
+        assertThat(stats.maxPrice()).isEqualByComparingTo("120.00");
+        assertThat(stats.windowMinPrice()).isEqualByComparingTo("90.00");
+        assertThat(stats.windowDays()).isEqualTo(90);
+        assertThat(stats.averagePrice().scale()).isEqualTo(2);
+        assertThat(stats.priceCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldExpandPriceSegmentsIntoCheckPoints_WhenGettingDetails() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0);
+        ProductObservation product = createProductObservation();
+        PriceHistory stable = PriceHistory.builder().price(new BigDecimal("100.00"))
+                .checkedAt(start).lastConfirmedAt(start.plusDays(3)).build();
+        PriceHistory changed = PriceHistory.builder().price(new BigDecimal("90.00"))
+                .checkedAt(start.plusDays(4)).lastConfirmedAt(start.plusDays(4)).build();
+        givenRawHistory(List.of(stable, changed));
+
+        when(productRepository.findByIdAndUserEmail(1L, CURRENT_USER_EMAIL)).thenReturn(Optional.of(product));
+
+        // Act
+        ProductDetailsResponse result = productService.getProductDetails(1L);
+
+        // Assert
+        assertThat(result.priceHistory()).containsExactly(
+                new ProductDetailsResponse.PriceHistoryDto(new BigDecimal("100.00"), start),
+                new ProductDetailsResponse.PriceHistoryDto(new BigDecimal("100.00"), start.plusDays(3)),
+                new ProductDetailsResponse.PriceHistoryDto(new BigDecimal("90.00"), start.plusDays(4)));
+    }
+
+    @Test
+    void shouldMergeDailyRollupsBeforeRawSegments_WhenGettingDetails() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 10, 0);
+        ProductObservation product = createProductObservation();
+        PriceHistory recent = PriceHistory.builder().price(new BigDecimal("90.00"))
+                .checkedAt(start.plusDays(40)).lastConfirmedAt(start.plusDays(40)).build();
+        givenRawHistory(List.of(recent));
+        PriceHistoryDaily day = PriceHistoryDaily.builder().day(start.toLocalDate())
+                .openPrice(new BigDecimal("110.00")).highPrice(new BigDecimal("120.00"))
+                .lowPrice(new BigDecimal("95.00")).closePrice(new BigDecimal("100.00"))
+                .firstCheckedAt(start).lastCheckedAt(start.plusHours(8)).build();
+
+        when(productRepository.findByIdAndUserEmail(1L, CURRENT_USER_EMAIL)).thenReturn(Optional.of(product));
+        when(priceHistoryDailyRepository.findByCatalogProductIdOrderByDayDesc(10L, PageRequest.of(0, 99))).thenReturn(List.of(day));
+
+        // Act
+        ProductDetailsResponse result = productService.getProductDetails(1L);
+
+        // Assert
+        assertThat(result.priceHistory()).containsExactly(
+                new ProductDetailsResponse.PriceHistoryDto(new BigDecimal("100.00"), start.plusHours(8), new BigDecimal("95.00"), new BigDecimal("120.00")),
+                new ProductDetailsResponse.PriceHistoryDto(new BigDecimal("90.00"), start.plusDays(40)));
     }
 
     @Test
@@ -98,28 +217,20 @@ class ProductServiceTest {
         // Arrange
         String productName = "iPhone 15";
         ProductObservationByNameRequest request = new ProductObservationByNameRequest(productName);
-        PriceResponse priceResponse = new PriceResponse("iPhone 15 Pro", new BigDecimal("5000"), "PLN", "http://ceneo.pl/123");
+        PriceResponse priceResponse = new PriceResponse("iPhone 15 Pro", new BigDecimal("5000"), "PLN", "https://www.ceneo.pl/123");
 
         when(priceClient.checkPriceByName(productName)).thenReturn(Optional.of(priceResponse));
-
-        when(productRepository.save(any(ProductObservation.class))).thenAnswer(invocation -> {
-            ProductObservation p = invocation.getArgument(0);
-            p.setId(1L);
-            return p;
-        });
+        when(productCatalogService.observe(CURRENT_USER_EMAIL, priceResponse))
+                .thenReturn(new ObservationResult(observationOf(priceResponse), List.of()));
 
         // Act
         ProductObservationResponse result = productService.startObservingProductByName(request);
 
         // Assert
-        ArgumentCaptor<ProductObservation> captor = ArgumentCaptor.forClass(ProductObservation.class);
-        verify(productRepository).save(captor.capture());
-
-        ProductObservation savedProduct = captor.getValue();
-        assertThat(savedProduct.getUserEmail()).isEqualTo(CURRENT_USER_EMAIL);
-        assertThat(savedProduct.getProductName()).isEqualTo("iPhone 15 Pro");
-        assertThat(savedProduct.getCurrentPrice()).isEqualTo(new BigDecimal("5000"));
+        verify(productCatalogService).observe(CURRENT_USER_EMAIL, priceResponse);
+        assertThat(result.id()).isEqualTo(1L);
         assertThat(result.productName()).isEqualTo("iPhone 15 Pro");
+        assertThat(result.currentPrice()).isEqualTo(new BigDecimal("5000"));
     }
 
     @Test
@@ -135,51 +246,236 @@ class ProductServiceTest {
                 .isInstanceOf(ProductNotFoundInStoreException.class) // ZMIANA: Konkretny wyjątek
                 .hasMessageContaining(productName);
 
-        verify(productRepository, never()).save(any());
+        verifyNoInteractions(productCatalogService);
     }
 
     @Test
     void shouldStartObservingProductByUrl_WhenPriceIsFound() {
         // Arrange
-        String url = "http://ceneo.pl/abc";
+        String url = "https://www.ceneo.pl/abc";
         ProductObservationByUrlRequest request = new ProductObservationByUrlRequest(url);
         PriceResponse priceResponse = new PriceResponse("Laptop", new BigDecimal("3000"), "PLN", url);
 
         when(priceClient.checkPriceByUrl(url)).thenReturn(Optional.of(priceResponse));
+        when(productCatalogService.observe(CURRENT_USER_EMAIL, priceResponse))
+                .thenReturn(new ObservationResult(observationOf(priceResponse), List.of()));
+
+        // Act
+        ProductObservationResponse result = productService.startObservingProductByUrl(request);
+
+        // Assert
+        assertThat(result.productUrl()).isEqualTo(url);
+        verify(productCatalogService).observe(CURRENT_USER_EMAIL, priceResponse);
+        verify(priceResponseCache).put(url, priceResponse);
+    }
+
+    @Test
+    void shouldSaveCanonicalUrl_WhenScraperReportsTrackingUrl() {
+        // Arrange
+        String url = "HTTP://Ceneo.pl/123;szukaj-laptop?utm_source=fb#tab=spec";
+        String canonicalUrl = "https://www.ceneo.pl/123";
+        PriceResponse scraped = new PriceResponse("Laptop", new BigDecimal("3000"), "PLN", url);
+        PriceResponse canonical = new PriceResponse("Laptop", new BigDecimal("3000"), "PLN", canonicalUrl);
+
+        when(priceClient.checkPriceByUrl(url)).thenReturn(Optional.of(scraped));
+        when(productCatalogService.observe(CURRENT_USER_EMAIL, canonical))
+                .thenReturn(new ObservationResult(observationOf(canonical), List.of()));
+
+        // Act
+        ProductObservationResponse result = productService.startObservingProductByUrl(new ProductObservationByUrlRequest(url));
+
+        // Assert
+        assertThat(result.productUrl()).isEqualTo(canonicalUrl);
+        verify(priceResponseCache).put(canonicalUrl, scraped);
+        verify(priceResponseCache, never()).put(eq(url), any());
+    }
+
+    @Test
+    void shouldUseCachedResponse_WhenUrlWasScrapedRecently() {
+        // Arrange
+        String url = "https://www.ceneo.pl/abc";
+        PriceResponse priceResponse = new PriceResponse("Laptop", new BigDecimal("3000"), "PLN", url);
+
+        when(priceResponseCache.get(url)).thenReturn(Optional.of(priceResponse));
+        when(productCatalogService.link(CURRENT_USER_EMAIL, priceResponse))
+                .thenReturn(new ObservationResult(observationOf(priceResponse), List.of()));
+
+        // Act
+        productService.startObservingProductByUrl(new ProductObservationByUrlRequest(url));
+
+        // Assert
+        verifyNoInteractions(priceClient);
+        verify(productCatalogService).link(CURRENT_USER_EMAIL, priceResponse);
+        verify(productCatalogService, never()).observe(anyString(), any());
+    }
+
+    @Test
+    void shouldNotifyOtherWatchers_WhenObservationRevealsPriceDrop() {
+        // Arrange
+        String url = "https://www.ceneo.pl/abc";
+        PriceResponse priceResponse = new PriceResponse("Laptop", new BigDecimal("2500"), "PLN", url);
+        List<PriceDrop> drops = List.of(new PriceDrop("other@user.com", "Laptop", new BigDecimal("3000"), new BigDecimal("2500")));
+
+        when(priceClient.checkPriceByUrl(url)).thenReturn(Optional.of(priceResponse));
+        when(productCatalogService.observe(CURRENT_USER_EMAIL, priceResponse))
+                .thenReturn(new ObservationResult(observationOf(priceResponse), drops));
+
+        // Act
+        productService.startObservingProductByUrl(new ProductObservationByUrlRequest(url));
+
+        // Assert
+        verify(priceDropNotifier).notifyAll(drops);
+    }
+
+    @Test
+    void shouldRetryOnce_WhenConcurrentRequestCreatedSameCatalogEntry() {
+        // Arrange
+        String url = "https://www.ceneo.pl/abc";
+        PriceResponse priceResponse = new PriceResponse("Laptop", new BigDecimal("3000"), "PLN", url);
 
-        when(productRepository.save(any(ProductObservation.class))).thenAnswer(invocation -> {
-            ProductObservation p = invocation.getArgument(0);
-            p.setId(1L);
-            return p;
-        });
+        when(priceClient.checkPriceByUrl(url)).thenReturn(Optional.of(priceResponse));
+        when(productCatalogService.observe(CURRENT_USER_EMAIL, priceResponse))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(new ObservationResult(observationOf(priceResponse), List.of()));
 
         // Act
-        productService.startObservingProductByUrl(request);
+        ProductObservationResponse result = productService.startObservingProductByUrl(new ProductObservationByUrlRequest(url));
 
         // Assert
-        ArgumentCaptor<ProductObservation> captor = ArgumentCaptor.forClass(ProductObservation.class);
-        verify(productRepository).save(captor.capture());
+        assertThat(result.productUrl()).isEqualTo(url);
+        verify(productCatalogService, times(2)).observe(CURRENT_USER_EMAIL, priceResponse);
+    }
+
+    @Test
+    void shouldRetry_WhenCatalogEntryWasWrittenConcurrently() {
+        // Arrange
+        String url = "https://www.ceneo.pl/abc";
+        PriceResponse priceResponse = new PriceResponse("Laptop", new BigDecimal("3000"), "PLN", url);
 
-        assertThat(captor.getValue().getProductUrl()).isEqualTo(url);
-        assertThat(captor.getValue().getUserEmail()).isEqualTo(CURRENT_USER_EMAIL);
+        when(priceClient.checkPriceByUrl(url)).thenReturn(Optional.of(priceResponse));
+        when(productCatalogService.observe(CURRENT_USER_EMAIL, priceResponse))
+                .thenThrow(new ObjectOptimisticLockingFailureException(CatalogProduct.class, 1L))
+                .thenThrow(new ObjectOptimisticLockingFailureException(CatalogProduct.class, 1L))
+                .thenReturn(new ObservationResult(observationOf(priceResponse), List.of()));
+
+        // Act
+        ProductObservationResponse result = productService.startObservingProductByUrl(new ProductObservationByUrlRequest(url));
+
+        // Assert
+        assertThat(result.productUrl()).isEqualTo(url);
+        verify(productCatalogService, times(3)).observe(CURRENT_USER_EMAIL, priceResponse);
     }
 
     @Test
-    void shouldReturnAllObservedProductsForCurrentUser() {
+    void shouldGiveUp_WhenCatalogEntryKeepsBeingWrittenConcurrently() {
         // Arrange
-        ProductObservation p1 = createProductObservation();
-        ProductObservation p2 = createProductObservation();
-        p2.setProductName("Other Product");
+        String url = "https://www.ceneo.pl/abc";
+        PriceResponse priceResponse = new PriceResponse("Laptop", new BigDecimal("3000"), "PLN", url);
 
-        when(productRepository.findAllByUserEmail(CURRENT_USER_EMAIL))
+        when(priceClient.checkPriceByUrl(url)).thenReturn(Optional.of(priceResponse));
+        when(productCatalogService.observe(CURRENT_USER_EMAIL, priceResponse))
+                .thenThrow(new ObjectOptimisticLockingFailureException(CatalogProduct.class, 1L));
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.startObservingProductByUrl(new ProductObservationByUrlRequest(url)))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        verify(productCatalogService, times(3)).observe(CURRENT_USER_EMAIL, priceResponse);
+        verify(priceDropNotifier, never()).notifyAll(any());
+    }
+
+    @Test
+    void shouldReturnObservedProductsPage_WithoutCursor_WhenAllFit() {
+        // Arrange
+        ProductObservationResponse p1 = new ProductObservationResponse(1L, "Test Product", new BigDecimal("100.00"), "url1");
+        ProductObservationResponse p2 = new ProductObservationResponse(2L, "Other Product", new BigDecimal("50.00"), "url2");
+        when(productRepository.findPageByUserEmail(CURRENT_USER_EMAIL, ProductSort.ADDED, Sort.Direction.ASC, null, null, 51))
                 .thenReturn(List.of(p1, p2));
 
         // Act
-        List<ProductObservationResponse> results = productService.getAllObservedProducts();
+        ProductObservationPageResponse result = productService.getObservedProducts(ProductSort.ADDED, Sort.Direction.ASC, null, null);
+
+        // Assert
+        assertThat(result.items()).containsExactly(p1, p2);
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldReturnCursorAfterLastProduct_AndContinueFromIt() {
+        // Arrange
+        ProductObservationResponse cheap = new ProductObservationResponse(4L, "A", new BigDecimal("10.00"), "url1");
+        ProductObservationResponse pricey = new ProductObservationResponse(2L, "B", new BigDecimal("20.00"), "url2");
+        ProductObservationResponse more = new ProductObservationResponse(3L, "C", new BigDecimal("30.00"), "url3");
+        when(productRepository.findPageByUserEmail(CURRENT_USER_EMAIL, ProductSort.PRICE, Sort.Direction.ASC, null, null, 3))
+                .thenReturn(List.of(cheap, pricey, more));
+
+        // Act
+        ProductObservationPageResponse first = productService.getObservedProducts(ProductSort.PRICE, Sort.Direction.ASC, null, 2);
+        productService.getObservedProducts(ProductSort.PRICE, Sort.Direction.ASC, first.nextCursor(), 2);
+
+        // Assert
+        assertThat(first.items()).containsExactly(cheap, pricey);
+        verify(productRepository).findPageByUserEmail(CURRENT_USER_EMAIL, ProductSort.PRICE, Sort.Direction.ASC,
+                new BigDecimal("20.00"), 2L, 3);
+    }
+
+    @Test
+    void shouldContinueAfterProductWithoutPrice() {
+        // Arrange
+        ProductObservationResponse priced = new ProductObservationResponse(4L, "A", new BigDecimal("10.00"), "url1");
+        ProductObservationResponse unpriced = new ProductObservationResponse(2L, "B", null, "url2");
+        ProductObservationResponse more = new ProductObservationResponse(3L, "C", null, "url3");
+        when(productRepository.findPageByUserEmail(CURRENT_USER_EMAIL, ProductSort.PRICE, Sort.Direction.ASC, null, null, 3))
+                .thenReturn(List.of(priced, unpriced, more));
+
+        // Act
+        ProductObservationPageResponse first = productService.getObservedProducts(ProductSort.PRICE, Sort.Direction.ASC, null, 2);
+        productService.getObservedProducts(ProductSort.PRICE, Sort.Direction.ASC, first.nextCursor(), 2);
 
         // Assert
-        assertThat(results).hasSize(2);
-        assertThat(results.get(0).productName()).isEqualTo("Test Product");
+        verify(productRepository).findPageByUserEmail(CURRENT_USER_EMAIL, ProductSort.PRICE, Sort.Direction.ASC, null, 2L, 3);
+    }
+
+    @Test
+    void shouldRejectCursorIssuedForAnotherSort() {
+        // Arrange
+        String nameCursor = ProductPageCursor.after(new ProductObservationResponse(1L, "Laptop", BigDecimal.ONE, "url"), ProductSort.NAME).encode();
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.getObservedProducts(ProductSort.PRICE, Sort.Direction.ASC, nameCursor, null))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void shouldBuildDashboardFromOneSparklineQuery() {
+        // Arrange
+        LocalDateTime windowStart = LocalDate.now().atStartOfDay().minusDays(30);
+        ProductObservationResponse tracked = new ProductObservationResponse(1L, "Tracked", new BigDecimal("90.00"), "url1");
+        ProductObservationResponse fresh = new ProductObservationResponse(2L, "Fresh", new BigDecimal("50.00"), "url2");
+        when(productRepository.findPageByUserEmail(CURRENT_USER_EMAIL, ProductSort.ADDED, Sort.Direction.ASC, null, null, 51))
+                .thenReturn(List.of(tracked, fresh));
+        when(priceHistoryRepository.findSparklines(List.of(1L, 2L), windowStart,
+                priceHistoryProperties.retentionHorizon(LocalDate.now()), 20))
+                .thenReturn(List.of(
+                        new PriceHistoryRepositoryCustom.SparklinePoint(1L, new BigDecimal("120.00"), windowStart.minusDays(3),
+                                new BigDecimal("90.00"), new BigDecimal("120.00"), new BigDecimal("120.00")),
+                        new PriceHistoryRepositoryCustom.SparklinePoint(1L, new BigDecimal("90.00"), windowStart.plusDays(10),
+                                new BigDecimal("90.00"), new BigDecimal("120.00"), new BigDecimal("120.00"))));
+
+        // Act
+        ProductDashboardResponse result = productService.getDashboard(ProductSort.ADDED, Sort.Direction.ASC, null, null);
+
+        // Assert
+        assertThat(result.nextCursor()).isNull();
+        ProductDashboardResponse.DashboardProductDto first = result.items().get(0);
+        assertThat(first.minPrice()).isEqualByComparingTo("90.00");
+        assertThat(first.maxPrice()).isEqualByComparingTo("120.00");
+        assertThat(first.changePercent()).isEqualByComparingTo("-25.00");
+        assertThat(first.sparkline()).extracting(ProductDetailsResponse.PriceHistoryDto::checkedAt)
+                .containsExactly(windowStart, windowStart.plusDays(10));
+        ProductDashboardResponse.DashboardProductDto second = result.items().get(1);
+        assertThat(second.sparkline()).isEmpty();
+        assertThat(second.changePercent()).isNull();
+        verify(priceHistoryRepository, times(1)).findSparklines(any(), any(), any(), anyInt());
     }
 
     @Test
@@ -212,21 +508,131 @@ class ProductServiceTest {
         verify(productRepository, never()).delete(any());
     }
 
-    private ProductObservation createProductObservation() {
-        ProductObservation p = new ProductObservation();
-        p.setId(1L);
-        p.setProductName("Test Product");
-        p.setProductUrl("http://url.com");
-        p.setCurrentPrice(new BigDecimal("100.00"));
-        p.setUserEmail(CURRENT_USER_EMAIL);
+    @Test
+    void shouldReadOnlyRetainedHistory_WhenGettingDetails() {
+        // Arrange
+        ProductObservation product = createProductObservation();
+        when(productRepository.findByIdAndUserEmail(1L, CURRENT_USER_EMAIL)).thenReturn(Optional.of(product));
 
+        // Act
+        productService.getProductDetails(1L);
+
+        // Assert
+        verify(priceHistoryRepository).findLatestByCatalogProductId(10L, priceHistoryProperties.retentionHorizon(LocalDate.now()), PageRequest.of(0, 100));
+    }
+
+    @Test
+    void shouldNotReadRollups_WhenLatestSegmentsFillDetailsLimit() {
+        // Arrange
+        priceHistoryProperties.setDetailsLimit(1);
+        ProductObservation product = createProductObservation();
+        when(productRepository.findByIdAndUserEmail(1L, CURRENT_USER_EMAIL)).thenReturn(Optional.of(product));
+        givenRawHistory(currentPriceHistory());
+
+        // Act
+        ProductDetailsResponse result = productService.getProductDetails(1L);
+
+        // Assert
+        assertThat(result.priceHistory()).hasSize(1);
+        verifyNoInteractions(priceHistoryDailyRepository);
+    }
+
+    @Test
+    void shouldPageRollupsBeforeSegments_AndReturnCursorToContinue() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.now().minusDays(40).truncatedTo(ChronoUnit.DAYS);
+        ProductObservation product = createProductObservation();
+        when(productRepository.findByIdAndUserEmail(1L, CURRENT_USER_EMAIL)).thenReturn(Optional.of(product));
+        PriceHistoryDaily day = PriceHistoryDaily.builder().day(start.toLocalDate())
+                .openPrice(new BigDecimal("110.00")).highPrice(new BigDecimal("120.00"))
+                .lowPrice(new BigDecimal("95.00")).closePrice(new BigDecimal("100.00"))
+                .firstCheckedAt(start.plusHours(1)).lastCheckedAt(start.plusHours(8)).build();
+        PriceHistory first = PriceHistory.builder().id(7L).price(new BigDecimal("90.00"))
+                .checkedAt(start.plusDays(35)).lastConfirmedAt(start.plusDays(36)).build();
+        PriceHistory second = PriceHistory.builder().id(8L).price(new BigDecimal("80.00"))
+                .checkedAt(start.plusDays(37)).lastConfirmedAt(start.plusDays(37)).build();
+        when(priceHistoryDailyRepository.findPageByCatalogProductId(eq(10L), any(), any(), eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(day));
+        when(priceHistoryRepository.findPageByCatalogProductId(eq(10L), any(), any(), any(), eq(0L), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(first, second));
+
+        // Act
+        PriceHistoryPageResponse result = productService.getPriceHistory(1L, null, null, null, 2);
+
+        // Assert
+        assertThat(result.entries()).containsExactly(
+                new PriceHistoryPageResponse.PriceHistoryEntryDto(new BigDecimal("100.00"), start.plusHours(1), start.plusHours(8),
+                        new BigDecimal("95.00"), new BigDecimal("120.00")),
+                new PriceHistoryPageResponse.PriceHistoryEntryDto(new BigDecimal("90.00"), start.plusDays(35), start.plusDays(36), null, null));
+        assertThat(PriceHistoryCursor.decode(result.nextCursor())).isEqualTo(PriceHistoryCursor.afterSegment(start.plusDays(35), 7L));
+    }
+
+    @Test
+    void shouldContinueAfterCursorSegment_WithoutReadingRollups() {
+        // Arrange
+        LocalDateTime checkedAt = LocalDateTime.now().minusDays(3).truncatedTo(ChronoUnit.SECONDS);
+        ProductObservation product = createProductObservation();
+        when(productRepository.findByIdAndUserEmail(1L, CURRENT_USER_EMAIL)).thenReturn(Optional.of(product));
+        String cursor = PriceHistoryCursor.afterSegment(checkedAt, 7L).encode();
+
+        // Act
+        PriceHistoryPageResponse result = productService.getPriceHistory(1L, null, null, cursor, null);
+
+        // Assert
+        assertThat(result.entries()).isEmpty();
+        assertThat(result.nextCursor()).isNull();
+        verify(priceHistoryRepository).findPageByCatalogProductId(eq(10L), any(), any(), eq(checkedAt), eq(7L), eq(PageRequest.of(0, 101)));
+        verifyNoInteractions(priceHistoryDailyRepository);
+    }
+
+    @Test
+    void shouldRejectMalformedHistoryCursor() {
+        // Arrange
+        when(productRepository.findByIdAndUserEmail(1L, CURRENT_USER_EMAIL)).thenReturn(Optional.of(createProductObservation()));
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.getPriceHistory(1L, null, null, "not-a-cursor", null))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    private void givenRawHistory(List<PriceHistory> segments) {
+        when(priceHistoryRepository.findLatestByCatalogProductId(eq(10L), any(LocalDateTime.class), any(Pageable.class))).thenReturn(segments);
+    }
+
+    private List<PriceHistory> currentPriceHistory() {
         List<PriceHistory> history = new ArrayList<>();
         PriceHistory h = new PriceHistory();
         h.setPrice(new BigDecimal("100.00"));
         h.setCheckedAt(LocalDateTime.now());
         history.add(h);
+        return history;
+    }
+
+    private ProductObservation createProductObservation() {
+        CatalogProduct catalogProduct = new CatalogProduct();
+        catalogProduct.setId(10L);
+        catalogProduct.setProductName("Test Product");
+        catalogProduct.setCanonicalUrl("http://url.com");
+        catalogProduct.setCurrentPrice(new BigDecimal("100.00"));
 
-        p.setPriceHistory(history);
+        ProductObservation p = new ProductObservation();
+        p.setId(1L);
+        p.setUserEmail(CURRENT_USER_EMAIL);
+        p.setCatalogProduct(catalogProduct);
         return p;
     }
-}
\ No newline at end of file
+
+    private ProductObservation observationOf(PriceResponse priceResponse) {
+        CatalogProduct catalogProduct = CatalogProduct.builder()
+                .id(10L)
+                .productName(priceResponse.foundProductName())
+                .canonicalUrl(priceResponse.ceneoUrl())
+                .currentPrice(priceResponse.price())
+                .build();
+        return ProductObservation.builder()
+                .id(1L)
+                .userEmail(CURRENT_USER_EMAIL)
+                .catalogProduct(catalogProduct)
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.priceprocessor.services.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TtlCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<TtlCache.RemovalCause> evictions = new ArrayList<>();
+
+    @Test
+    void shouldReturnValue_UntilTtlHasPassed() {
+        // Arrange
+        TtlCache<String, String> cache = cache(Duration.ofSeconds(10), 10);
+        cache.put("a", "1");
+
+        // Act & Assert
+        clock.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertThat(cache.get("a")).contains("1");
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(cache.get("a")).isEmpty();
+        assertThat(cache.size()).isZero();
+        assertThat(evictions).containsExactly(TtlCache.RemovalCause.EXPIRED);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyRead_WhenFull() {
+        // Arrange
+        TtlCache<String, String> cache = cache(Duration.ofMinutes(1), 2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+
+        // Act
+        cache.put("c", "3");
+
+        // Assert
+        assertThat(cache.get("a")).contains("1");
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(cache.get("c")).contains("3");
+        assertThat(evictions).containsExactly(TtlCache.RemovalCause.SIZE);
+    }
+
+    @Test
+    void shouldDropExpiredEntriesFirst_WhenFull() {
+        // Arrange
+        TtlCache<String, String> cache = cache(Duration.ofSeconds(10), 2);
+        cache.put("old", "1");
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        cache.put("recent", "2");
+        clock.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        // Act
+        cache.put("new", "3");
+
+        // Assert
+        assertThat(cache.get("recent")).contains("2");
+        assertThat(cache.get("new")).contains("3");
+        assertThat(evictions).containsExactly(TtlCache.RemovalCause.EXPIRED);
+    }
+
+    @Test
+    void shouldRestartTtl_WhenValueIsReplaced() {
+        // Arrange
+        TtlCache<String, String> cache = cache(Duration.ofSeconds(10), 10);
+        cache.put("a", "1");
+        clock.addAndGet(Duration.ofSeconds(8).toNanos());
+
+        // Act
+        cache.put("a", "2");
+        clock.addAndGet(Duration.ofSeconds(8).toNanos());
+
+        // Assert
+        assertThat(cache.get("a")).contains("2");
+    }
+
+    private TtlCache<String, String> cache(Duration ttl, int maxEntries) {
+        return new TtlCache<>(ttl, maxEntries, clock::get, evictions::add);
+    }
+}
@@ -0,0 +1,252 @@
+package com.priceprocessor.services.clients;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.priceprocessor.config.RestClientConfig;
+import com.priceprocessor.config.ScraperProperties;
+import com.priceprocessor.dtos.crawler.PriceCheckResult;
+import com.priceprocessor.exceptions.PriceFetchException;
+import com.priceprocessor.exceptions.ProductNotFoundInStoreException;
+import com.priceprocessor.exceptions.crawler.ScraperException;
+import com.priceprocessor.services.MetricsService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CeneoAsyncPriceClientTest {
+
+    private static final String BULK_PATH = "/scrape_direct_urls";
+
+    @Mock
+    private MetricsService metricsService;
+    @Mock
+    private ScraperRateLimiter scraperRateLimiter;
+    @Mock
+    private ScraperCircuitBreaker scraperCircuitBreaker;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private volatile int status = 200;
+    private volatile String body = "";
+    private volatile boolean hold;
+
+    private HttpServer server;
+    private CloseableHttpAsyncClient httpClient;
+    private ScraperProperties properties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(BULK_PATH, this::answer);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        properties = new ScraperProperties();
+        properties.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        ScraperProperties.Paths paths = new ScraperProperties.Paths();
+        paths.setBulk(BULK_PATH);
+        properties.setPaths(paths);
+
+        RestClientConfig config = new RestClientConfig();
+        httpClient = config.scraperAsyncHttpClient(config.scraperAsyncConnectionManager(properties, metricsService), properties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        release.countDown();
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldMapBulkResponse_AndRecordSuccess() {
+        // Arrange
+        givenPermits();
+        body = """
+                {"results": [
+                  {"url": "a", "found_product_name": "A", "price": 10.50, "currency": "PLN", "ceneo_url": "a"},
+                  {"url": "b", "errorCode": "PRODUCT_NOT_FOUND", "message": "gone"}
+                ]}
+                """;
+
+        // Act
+        Map<String, PriceCheckResult> results = client().checkPricesByUrlsAsync(List.of("a", "b", "c")).join();
+
+        // Assert
+        assertThat(results.get("a").response()).hasValueSatisfying(r -> assertThat(r.price()).isEqualByComparingTo(new BigDecimal("10.50")));
+        assertThat(results.get("b").error()).isInstanceOf(ProductNotFoundInStoreException.class);
+        assertThat(results.get("c").error()).isInstanceOf(PriceFetchException.class);
+        verify(scraperRateLimiter).reserveWithoutBlocking(ScraperRateLimiter.Endpoint.BY_URL, ScraperRateLimiter.CallerType.BATCH, 3);
+        verify(scraperCircuitBreaker).onSuccess(any());
+    }
+
+    @Test
+    void shouldFailWithMappedException_WhenScraperAnswersClientError() {
+        // Arrange
+        givenPermits();
+        status = 400;
+        body = "{\"errorCode\": \"PRICE_PARSING_ERROR\", \"message\": \"bad price\"}";
+
+        // Act
+        CompletableFuture<Map<String, PriceCheckResult>> result = client().checkPricesByUrlsAsync(List.of("a"));
+
+        // Assert
+        assertThatThrownBy(result::join).hasCauseInstanceOf(ScraperException.class);
+        verify(scraperCircuitBreaker).onFailure(any());
+    }
+
+    @Test
+    void shouldFailWithTooManyUrlsError_WhenScraperRejectsBatchSize() {
+        // Arrange
+        givenPermits();
+        status = 413;
+        body = "{\"errorCode\": \"TOO_MANY_URLS\", \"message\": \"At most 50 urls per request\"}";
+
+        // Act
+        CompletableFuture<Map<String, PriceCheckResult>> result = client().checkPricesByUrlsAsync(List.of("a"));
+
+        // Assert
+        assertThatThrownBy(result::join)
+                .hasCauseInstanceOf(ScraperException.class)
+                .hasMessageContaining("At most 50 urls per request");
+        verify(metricsService).incrementScraperError("TOO_MANY_URLS");
+    }
+
+    @Test
+    void shouldFailWithPriceFetchException_WhenScraperAnswersServerError() {
+        // Arrange
+        givenPermits();
+        status = 500;
+
+        // Act
+        CompletableFuture<Map<String, PriceCheckResult>> result = client().checkPricesByUrlsAsync(List.of("a"));
+
+        // Assert
+        assertThatThrownBy(result::join).hasCauseInstanceOf(PriceFetchException.class);
+        verify(scraperCircuitBreaker).onFailure(any());
+    }
+
+    @Test
+    void shouldFailWithoutCallingScraper_WhenCircuitIsOpen() {
+        // Arrange
+        givenPermits();
+        doThrow(new ScraperException("Scraper is temporarily unavailable")).when(scraperCircuitBreaker).acquirePermission();
+
+        // Act
+        CompletableFuture<Map<String, PriceCheckResult>> result = client().checkPricesByUrlsAsync(List.of("a"));
+
+        // Assert
+        assertThatThrownBy(result::join).hasCauseInstanceOf(ScraperException.class);
+        assertThat(requests).hasValue(0);
+        verify(scraperCircuitBreaker, never()).onSuccess(any());
+        verify(scraperCircuitBreaker, never()).onFailure(any());
+    }
+
+    @Test
+    void shouldAcquireBreakerPermit_OnlyWhenDelayedCallStarts() throws Exception {
+        // Arrange
+        when(scraperRateLimiter.reserveWithoutBlocking(eq(ScraperRateLimiter.Endpoint.BY_URL), eq(ScraperRateLimiter.CallerType.BATCH), anyInt()))
+                .thenReturn(Duration.ofMillis(300));
+        body = "{\"results\": []}";
+
+        // Act
+        CompletableFuture<Map<String, PriceCheckResult>> result = client().checkPricesByUrlsAsync(List.of("a"));
+
+        // Assert
+        verify(scraperCircuitBreaker, never()).acquirePermission();
+        result.get(5, TimeUnit.SECONDS);
+        InOrder inOrder = inOrder(scraperRateLimiter, scraperCircuitBreaker);
+        inOrder.verify(scraperRateLimiter).reserveWithoutBlocking(ScraperRateLimiter.Endpoint.BY_URL, ScraperRateLimiter.CallerType.BATCH, 1);
+        inOrder.verify(scraperCircuitBreaker).acquirePermission();
+        inOrder.verify(scraperCircuitBreaker).onSuccess(any());
+    }
+
+    @Test
+    void shouldQueueCallsBeyondBatchConcurrency_UntilRunningCallCompletes() throws Exception {
+        // Arrange
+        givenPermits();
+        properties.getBulkhead().setMaxConcurrentBatch(1);
+        body = "{\"results\": []}";
+        hold = true;
+        CeneoAsyncPriceClient client = client();
+
+        // Act
+        CompletableFuture<Map<String, PriceCheckResult>> first = client.checkPricesByUrlsAsync(List.of("a"));
+        CompletableFuture<Map<String, PriceCheckResult>> second = client.checkPricesByUrlsAsync(List.of("b"));
+        awaitRequests(1);
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        // Assert
+        assertThat(requests).hasValue(1);
+        assertThat(second).isNotDone();
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertThat(requests).hasValue(2);
+    }
+
+    private CeneoAsyncPriceClient client() {
+        return new CeneoAsyncPriceClient(httpClient, objectMapper, properties, scraperRateLimiter, scraperCircuitBreaker,
+                new ScraperResponseMapper(objectMapper, metricsService));
+    }
+
+    private void givenPermits() {
+        when(scraperRateLimiter.reserveWithoutBlocking(eq(ScraperRateLimiter.Endpoint.BY_URL), eq(ScraperRateLimiter.CallerType.BATCH), anyInt()))
+                .thenReturn(Duration.ZERO);
+    }
+
+    private void awaitRequests(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requests.get() < expected && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private void answer(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        if (hold) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            exchange.getResponseBody().write(bytes);
+        }
+        exchange.close();
+    }
+}
@@ -13,6 +13,7 @@ import com.priceprocessor.exceptions.ProductNotFoundInStoreException;
 import com.priceprocessor.exceptions.crawler.InvalidStoreUrlException;
 import com.priceprocessor.exceptions.crawler.ScraperException;
 import com.priceprocessor.services.MetricsService;
+import com.priceprocessor.services.cache.ScraperNegativeCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -32,8 +33,13 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +49,12 @@ class CeneoPriceClientTest {
     private RestTemplate restTemplate;
     @Mock
     private MetricsService metricsService;
+    @Mock
+    private ScraperRateLimiter scraperRateLimiter;
+    @Mock
+    private ScraperCircuitBreaker scraperCircuitBreaker;
+    @Mock
+    private ScraperBulkhead scraperBulkhead;
 
     private CeneoPriceClient ceneoPriceClient;
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -60,7 +72,10 @@ class CeneoPriceClientTest {
         paths.setDirect(DIRECT_PATH);
         properties.setPaths(paths);
 
-        ceneoPriceClient = new CeneoPriceClient(restTemplate, objectMapper, properties, metricsService);
+        ScraperResponseMapper scraperResponseMapper = new ScraperResponseMapper(objectMapper, metricsService);
+        ceneoPriceClient = new CeneoPriceClient(restTemplate, properties, metricsService,
+                scraperRateLimiter, scraperCircuitBreaker, scraperBulkhead, scraperResponseMapper,
+                new ScraperNegativeCache(properties, metricsService, scraperResponseMapper));
     }
 
     @Test
@@ -93,6 +108,7 @@ class CeneoPriceClientTest {
         assertThatThrownBy(() -> ceneoPriceClient.checkPriceByName(productName))
                 .isInstanceOf(PriceFetchException.class)
                 .hasMessageContaining("network error");
+        verify(scraperCircuitBreaker).onFailure(any());
     }
 
     @Test
@@ -123,6 +139,39 @@ class CeneoPriceClientTest {
         verify(metricsService).incrementScraperError(ScraperErrorCode.PRODUCT_NOT_FOUND.name());
     }
 
+    @Test
+    void shouldAnswerRepeatedSearchFromNegativeCache_WhenScraperReturnedProductNotFound() throws JsonProcessingException {
+        // Arrange
+        when(restTemplate.postForEntity(eq(BASE_URL + SEARCH_PATH), any(ScraperSearchRequest.class), eq(PriceResponse.class)))
+                .thenThrow(scraperError(HttpStatus.NOT_FOUND, ScraperErrorCode.PRODUCT_NOT_FOUND, "Not found"));
+        assertThatThrownBy(() -> ceneoPriceClient.checkPriceByName("Iphone 99"))
+                .isInstanceOf(ProductNotFoundInStoreException.class);
+
+        // Act & Assert
+        assertThatThrownBy(() -> ceneoPriceClient.checkPriceByName("  iphone   99 "))
+                .isInstanceOf(ProductNotFoundInStoreException.class)
+                .hasMessage("Could not find product in store for search term/url: Not found");
+
+        verify(restTemplate, times(1)).postForEntity(anyString(), any(), eq(PriceResponse.class));
+        verify(metricsService).incrementScraperNegativeCacheHit(ScraperErrorCode.PRODUCT_NOT_FOUND.name());
+        verify(metricsService, times(1)).incrementScraperError(ScraperErrorCode.PRODUCT_NOT_FOUND.name());
+    }
+
+    @Test
+    void shouldNotRememberTransientErrors() throws JsonProcessingException {
+        // Arrange
+        when(restTemplate.postForEntity(eq(BASE_URL + DIRECT_PATH), any(ScraperUrlRequest.class), eq(PriceResponse.class)))
+                .thenThrow(scraperError(HttpStatus.BAD_REQUEST, ScraperErrorCode.PRICE_PARSING_ERROR, "Invalid price"));
+
+        // Act
+        assertThatThrownBy(() -> ceneoPriceClient.checkPriceByUrl("http://ceneo.pl/1")).isInstanceOf(ScraperException.class);
+        assertThatThrownBy(() -> ceneoPriceClient.checkPriceByUrl("http://ceneo.pl/1")).isInstanceOf(ScraperException.class);
+
+        // Assert
+        verify(restTemplate, times(2)).postForEntity(anyString(), any(), eq(PriceResponse.class));
+        verify(metricsService, never()).incrementScraperNegativeCacheHit(anyString());
+    }
+
     @Test
     void shouldThrowInvalidUrlException_AndIncrementMetric_WhenScraperReturnsInvalidDomainCode() throws JsonProcessingException {
         // Arrange
@@ -149,6 +198,8 @@ class CeneoPriceClientTest {
                 .hasMessage("Invalid domain");
 
         verify(metricsService).incrementScraperError(ScraperErrorCode.INVALID_DOMAIN.name());
+        verify(scraperCircuitBreaker).onSuccess(any());
+        verify(scraperCircuitBreaker, never()).onFailure(any());
     }
 
     @Test
@@ -225,4 +276,36 @@ class CeneoPriceClientTest {
         // Assert
         assertThat(result).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFailFastWithoutCallingScraper_WhenCircuitIsOpen() {
+        // Arrange
+        doThrow(new ScraperException("Scraper is unavailable, try again later"))
+                .when(scraperCircuitBreaker).acquirePermission();
+
+        // Act & Assert
+        assertThatThrownBy(() -> ceneoPriceClient.checkPriceByUrl("http://ceneo.pl/123"))
+                .isInstanceOf(ScraperException.class);
+        verifyNoInteractions(restTemplate, scraperBulkhead, scraperRateLimiter);
+    }
+
+    @Test
+    void shouldReleaseSlotAndPermission_WhenRateLimitRejectsCall() {
+        // Arrange
+        doThrow(new ScraperException("Scraper rate limit exceeded, try again later"))
+                .when(scraperRateLimiter).acquire(ScraperRateLimiter.Endpoint.BY_URL);
+
+        // Act & Assert
+        assertThatThrownBy(() -> ceneoPriceClient.checkPriceByUrl("http://ceneo.pl/123"))
+                .isInstanceOf(ScraperException.class);
+        verify(scraperBulkhead).release();
+        verify(scraperCircuitBreaker).onIgnored(any());
+        verifyNoInteractions(restTemplate);
+    }
+
+    private HttpClientErrorException scraperError(HttpStatus status, ScraperErrorCode code, String message) throws JsonProcessingException {
+        String jsonError = objectMapper.writeValueAsString(new ScraperErrorResponse(code, message));
+        return HttpClientErrorException.create(status, status.getReasonPhrase(), HttpHeaders.EMPTY,
+                jsonError.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,55 @@
+package com.priceprocessor.services.clients;
+
+import com.priceprocessor.config.ScraperProperties;
+import com.priceprocessor.exceptions.crawler.ScraperException;
+import com.priceprocessor.services.MetricsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ScraperBulkheadTest {
+
+    @Mock
+    private MetricsService metricsService;
+
+    private ScraperBulkhead bulkhead;
+
+    @BeforeEach
+    void setUp() {
+        ScraperProperties properties = new ScraperProperties();
+        properties.getBulkhead().setMaxConcurrentInteractive(1);
+        properties.getBulkhead().setMaxWait(Duration.ZERO);
+        bulkhead = new ScraperBulkhead(properties, metricsService);
+    }
+
+    @Test
+    void shouldRejectAndCount_WhenNoSlotIsFree() {
+        // Arrange
+        bulkhead.acquire();
+
+        // Act & Assert
+        assertThatThrownBy(() -> bulkhead.acquire()).isInstanceOf(ScraperException.class);
+        verify(metricsService).incrementScraperBulkheadRejected();
+    }
+
+    @Test
+    void shouldFreeSlot_OnRelease() {
+        // Arrange
+        bulkhead.acquire();
+
+        // Act
+        bulkhead.release();
+
+        // Assert
+        assertThatCode(() -> bulkhead.acquire()).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,202 @@
+package com.priceprocessor.services.clients;
+
+import com.priceprocessor.config.ScraperProperties;
+import com.priceprocessor.exceptions.crawler.ScraperException;
+import com.priceprocessor.services.MetricsService;
+import com.priceprocessor.services.clients.ScraperCircuitBreaker.Permit;
+import com.priceprocessor.services.clients.ScraperCircuitBreaker.State;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ScraperCircuitBreakerTest {
+
+    @Mock
+    private MetricsService metricsService;
+
+    private final AtomicLong clock = new AtomicLong();
+    private ScraperCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        ScraperProperties properties = new ScraperProperties();
+        ScraperProperties.CircuitBreaker config = properties.getCircuitBreaker();
+        config.setFailureRateThreshold(50);
+        config.setSlidingWindowSize(4);
+        config.setMinimumCalls(4);
+        config.setOpenDuration(Duration.ofSeconds(30));
+        config.setHalfOpenCalls(2);
+        circuitBreaker = new ScraperCircuitBreaker(properties, metricsService, clock::get);
+    }
+
+    @Test
+    void shouldStayClosed_BelowMinimumCalls() {
+        // Act
+        for (int i = 0; i < 3; i++) {
+            call(false);
+        }
+
+        // Assert
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void shouldOpen_WhenFailureRateReachesThreshold() {
+        // Act
+        call(true);
+        call(false);
+        call(true);
+        call(false);
+
+        // Assert
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+        assertThatThrownBy(() -> circuitBreaker.acquirePermission()).isInstanceOf(ScraperException.class);
+        verify(metricsService).incrementScraperCircuitRejected("OPEN");
+    }
+
+    @Test
+    void shouldEvaluateOnlyTheSlidingWindow() {
+        // Act
+        call(false);
+        call(false);
+        call(false);
+        call(true);
+        call(false);
+
+        // Assert
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void shouldLetLimitedTrialCallsThrough_AfterOpenDuration() {
+        // Arrange
+        openCircuit();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        // Act
+        circuitBreaker.acquirePermission();
+        circuitBreaker.acquirePermission();
+
+        // Assert
+        assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThatThrownBy(() -> circuitBreaker.acquirePermission()).isInstanceOf(ScraperException.class);
+    }
+
+    @Test
+    void shouldClose_WhenAllTrialCallsSucceed() {
+        // Arrange
+        openCircuit();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        // Act
+        call(false);
+        call(false);
+
+        // Assert
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void shouldReopen_WhenTrialCallFails() {
+        // Arrange
+        openCircuit();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        // Act
+        call(false);
+        call(true);
+
+        // Assert
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void shouldFreeTrialSlot_WhenCallIsIgnored() {
+        // Arrange
+        openCircuit();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        circuitBreaker.acquirePermission();
+        Permit trial = circuitBreaker.acquirePermission();
+
+        // Act
+        circuitBreaker.onIgnored(trial);
+
+        // Assert
+        circuitBreaker.acquirePermission();
+        assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+    }
+
+    @Test
+    void shouldIgnoreSuccess_OfCallAdmittedBeforeCircuitOpened() {
+        // Arrange
+        Permit slowCall = circuitBreaker.acquirePermission();
+        openCircuit();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        call(false);
+
+        // Act
+        circuitBreaker.onSuccess(slowCall);
+
+        // Assert
+        assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+    }
+
+    @Test
+    void shouldIgnoreFailure_OfCallAdmittedBeforeCircuitOpened() {
+        // Arrange
+        Permit slowCall = circuitBreaker.acquirePermission();
+        openCircuit();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        call(false);
+
+        // Act
+        circuitBreaker.onFailure(slowCall);
+        call(false);
+
+        // Assert
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void shouldNotFreeTrialSlot_WhenStaleCallIsIgnored() {
+        // Arrange
+        Permit slowCall = circuitBreaker.acquirePermission();
+        openCircuit();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        circuitBreaker.acquirePermission();
+        circuitBreaker.acquirePermission();
+
+        // Act
+        circuitBreaker.onIgnored(slowCall);
+
+        // Assert
+        assertThatThrownBy(() -> circuitBreaker.acquirePermission()).isInstanceOf(ScraperException.class);
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    private void call(boolean fails) {
+        Permit permit = circuitBreaker.acquirePermission();
+        if (fails) {
+            circuitBreaker.onFailure(permit);
+        } else {
+            circuitBreaker.onSuccess(permit);
+        }
+    }
+}
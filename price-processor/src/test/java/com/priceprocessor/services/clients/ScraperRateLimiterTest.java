@@ -0,0 +1,127 @@
+package com.priceprocessor.services.clients;
+
+import com.priceprocessor.config.ScraperProperties;
+import com.priceprocessor.exceptions.crawler.ScraperException;
+import com.priceprocessor.services.MetricsService;
+import com.priceprocessor.services.clients.ScraperRateLimiter.CallerType;
+import com.priceprocessor.services.clients.ScraperRateLimiter.Endpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ScraperRateLimiterTest {
+
+    @Mock
+    private MetricsService metricsService;
+
+    private final AtomicLong clock = new AtomicLong();
+    private ScraperRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        ScraperProperties properties = new ScraperProperties();
+        properties.getRateLimit().setByUrl(new ScraperProperties.Bucket(10.0, 10));
+        properties.getRateLimit().setByName(new ScraperProperties.Bucket(1.0, 1));
+        properties.getRateLimit().setInteractiveShare(0.3);
+        properties.getRateLimit().setMaxWait(Duration.ofSeconds(1));
+        rateLimiter = new ScraperRateLimiter(properties, metricsService, clock::get);
+    }
+
+    @Test
+    void shouldKeepInteractiveShareFree_WhenBatchUsesItsBudget() {
+        // Arrange
+        for (int i = 0; i < 7; i++) {
+            assertThat(rateLimiter.reserveWithoutBlocking(Endpoint.BY_URL, CallerType.BATCH, 1)).isZero();
+        }
+
+        // Act
+        Duration batchWait = rateLimiter.reserveWithoutBlocking(Endpoint.BY_URL, CallerType.BATCH, 1);
+        Duration interactiveWait = rateLimiter.reserveWithoutBlocking(Endpoint.BY_URL, CallerType.INTERACTIVE, 1);
+
+        // Assert
+        assertThat(batchWait).isPositive();
+        assertThat(interactiveWait).isZero();
+    }
+
+    @Test
+    void shouldLetInteractiveBorrowIdleBatchTokens() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.reserveWithoutBlocking(Endpoint.BY_URL, CallerType.INTERACTIVE, 1)).isZero();
+        }
+
+        // Act
+        Duration borrowed = rateLimiter.reserveWithoutBlocking(Endpoint.BY_URL, CallerType.INTERACTIVE, 1);
+
+        // Assert
+        assertThat(borrowed).isZero();
+    }
+
+    @Test
+    void shouldKeepSeparateBudgetsPerEndpoint() {
+        // Arrange
+        for (int i = 0; i < 7; i++) {
+            rateLimiter.reserveWithoutBlocking(Endpoint.BY_URL, CallerType.BATCH, 1);
+        }
+
+        // Act
+        Duration byNameWait = rateLimiter.reserveWithoutBlocking(Endpoint.BY_NAME, CallerType.BATCH, 1);
+
+        // Assert
+        assertThat(byNameWait).isZero();
+    }
+
+    @Test
+    void shouldRejectAndCount_WhenWaitExceedsMax() {
+        // Arrange
+        rateLimiter.reserveWithoutBlocking(Endpoint.BY_NAME, CallerType.INTERACTIVE, 1);
+        rateLimiter.reserveWithoutBlocking(Endpoint.BY_NAME, CallerType.INTERACTIVE, 1);
+
+        // Act & Assert
+        assertThatThrownBy(() -> rateLimiter.reserveWithoutBlocking(Endpoint.BY_NAME, CallerType.INTERACTIVE, 1))
+                .isInstanceOf(ScraperException.class)
+                .hasMessageContaining("rate limit");
+        verify(metricsService).incrementScraperRateLimitRejected("BY_NAME", "INTERACTIVE");
+    }
+
+    @Test
+    void shouldQueueBatchCallsBeyondMaxWait_InsteadOfRejecting() {
+        // Arrange
+        rateLimiter.reserveWithoutBlocking(Endpoint.BY_URL, CallerType.BATCH, 14);
+
+        // Act
+        Duration wait = rateLimiter.reserveWithoutBlocking(Endpoint.BY_URL, CallerType.BATCH, 7);
+
+        // Assert
+        assertThat(wait).isEqualTo(Duration.ofSeconds(2));
+        verify(metricsService, never()).incrementScraperRateLimitRejected(anyString(), anyString());
+    }
+
+    @Test
+    void shouldSizeBatchBudget_ToBurstPlusRefillWithinMaxWait() {
+        // Act & Assert
+        assertThat(rateLimiter.batchPermitsWithinMaxWait(Endpoint.BY_URL)).isEqualTo(14);
+        assertThat(rateLimiter.batchPermitsWithinMaxWait(Endpoint.BY_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRecordWaitTime_ForEveryPermit() {
+        // Act
+        rateLimiter.reserveWithoutBlocking(Endpoint.BY_URL, CallerType.INTERACTIVE, 1);
+
+        // Assert
+        verify(metricsService).recordScraperRateLimitWait("BY_URL", "INTERACTIVE", Duration.ZERO);
+    }
+}
@@ -0,0 +1,153 @@
+package com.priceprocessor.services.clients;
+
+import com.priceprocessor.dtos.crawler.PriceResponse;
+import com.priceprocessor.exceptions.crawler.ScraperException;
+import com.priceprocessor.services.MetricsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScraperRequestCoalescerTest {
+
+    private static final PriceResponse RESPONSE = new PriceResponse("PS5", BigDecimal.TEN, "PLN", "http://ceneo.pl/1");
+
+    @Mock
+    private MetricsService metricsService;
+
+    private ScraperRequestCoalescer coalescer;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new ScraperRequestCoalescer(metricsService);
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldShareOneCall_WhenSameNameIsRequestedConcurrently() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Optional<PriceResponse>> slowCall = () -> {
+            calls.incrementAndGet();
+            await(release);
+            return Optional.of(RESPONSE);
+        };
+
+        // Act
+        Future<Optional<PriceResponse>> leader = executor.submit(() -> coalescer.byName("PlayStation 5", slowCall));
+        awaitCalls(calls, 1);
+        List<Future<Optional<PriceResponse>>> followers = new ArrayList<>();
+        for (String name : List.of("playstation 5", "  PlayStation   5 ", "PLAYSTATION 5")) {
+            followers.add(executor.submit(() -> coalescer.byName(name, slowCall)));
+        }
+        verify(metricsService, timeout(5_000).times(3)).incrementScraperCallsCoalesced("byName");
+        release.countDown();
+
+        // Assert
+        assertThat(leader.get(5, TimeUnit.SECONDS)).contains(RESPONSE);
+        for (Future<Optional<PriceResponse>> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).contains(RESPONSE);
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void shouldPassLeaderExceptionToFollowers() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Optional<PriceResponse>> failingCall = () -> {
+            calls.incrementAndGet();
+            await(release);
+            throw new ScraperException("Scraper is unreachable");
+        };
+
+        // Act
+        Future<Optional<PriceResponse>> leader = executor.submit(() -> coalescer.byUrl("http://ceneo.pl/1", failingCall));
+        awaitCalls(calls, 1);
+        Future<Optional<PriceResponse>> follower = executor.submit(() -> coalescer.byUrl("http://ceneo.pl/1", failingCall));
+        verify(metricsService, timeout(5_000)).incrementScraperCallsCoalesced("byUrl");
+        release.countDown();
+
+        // Assert
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(ScraperException.class);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(ScraperException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void shouldCallAgain_OnceEarlierCallHasCompleted() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Optional<PriceResponse>> call = () -> {
+            calls.incrementAndGet();
+            return Optional.of(RESPONSE);
+        };
+
+        // Act
+        coalescer.byName("PS5", call);
+        coalescer.byName("PS5", call);
+
+        // Assert
+        assertThat(calls).hasValue(2);
+        verifyNoInteractions(metricsService);
+    }
+
+    @Test
+    void shouldNotShareCalls_BetweenNameAndUrlWithSameText() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Optional<PriceResponse>> call = () -> {
+            calls.incrementAndGet();
+            return Optional.empty();
+        };
+
+        // Act
+        coalescer.byName("http://ceneo.pl/1", () -> coalescer.byUrl("http://ceneo.pl/1", call));
+
+        // Assert
+        assertThat(calls).hasValue(1);
+        verifyNoInteractions(metricsService);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitCalls(AtomicInteger calls, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls.get() < expected && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.priceprocessor.services.clients;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void shouldAllowBurst_ThenRefuse() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(1.0, 3, clock::get);
+
+        // Act & Assert
+        assertThat(bucket.tryAcquire(1)).isTrue();
+        assertThat(bucket.tryAcquire(1)).isTrue();
+        assertThat(bucket.tryAcquire(1)).isTrue();
+        assertThat(bucket.tryAcquire(1)).isFalse();
+    }
+
+    @Test
+    void shouldRefillAtConfiguredRate_UpToCapacity() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(2.0, 2, clock::get);
+        bucket.tryAcquire(1);
+        bucket.tryAcquire(1);
+
+        // Act
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        // Assert
+        assertThat(bucket.tryAcquire(1)).isTrue();
+        assertThat(bucket.tryAcquire(1)).isFalse();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(bucket.tryAcquire(1)).isTrue();
+        assertThat(bucket.tryAcquire(1)).isTrue();
+        assertThat(bucket.tryAcquire(1)).isFalse();
+    }
+
+    @Test
+    void shouldQueueReservationsInOrder() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(1.0, 1, clock::get);
+        long maxWait = TimeUnit.SECONDS.toNanos(10);
+
+        // Act
+        long first = bucket.reserve(1, maxWait);
+        long second = bucket.reserve(1, maxWait);
+        long third = bucket.reserve(1, maxWait);
+
+        // Assert
+        assertThat(first).isZero();
+        assertThat(second).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(third).isEqualTo(TimeUnit.SECONDS.toNanos(2));
+    }
+
+    @Test
+    void shouldNotReserve_WhenWaitExceedsMax() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(1.0, 1, clock::get);
+        bucket.tryAcquire(1);
+
+        // Act
+        long rejected = bucket.reserve(1, TimeUnit.MILLISECONDS.toNanos(500));
+
+        // Assert
+        assertThat(rejected).isEqualTo(-1);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(bucket.tryAcquire(1)).isTrue();
+    }
+
+    @Test
+    void shouldCountCapacityPlusRefill_AsPermitsWithinWindow() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(1.5, 4, clock::get);
+
+        // Act & Assert
+        assertThat(bucket.permitsWithin(0)).isEqualTo(4);
+        assertThat(bucket.permitsWithin(TimeUnit.SECONDS.toNanos(3))).isEqualTo(8);
+    }
+}